@@ -1,7 +1,6 @@
 package com.jnape.palatable.shoki.api;
 
 import com.jnape.palatable.lambda.adt.Maybe;
-import com.jnape.palatable.lambda.adt.Try;
 import com.jnape.palatable.lambda.adt.coproduct.CoProduct2;
 import com.jnape.palatable.lambda.functions.Fn1;
 
@@ -10,12 +9,6 @@ import java.util.Objects;
 
 import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.nothing;
-import static com.jnape.palatable.lambda.functions.builtin.fn1.Constantly.constantly;
-import static com.jnape.palatable.lambda.functions.builtin.fn1.Id.id;
-import static com.jnape.palatable.lambda.functions.builtin.fn2.GT.gt;
-import static com.jnape.palatable.lambda.functions.builtin.fn2.LT.lt;
-import static com.jnape.palatable.shoki.api.EquivalenceRelation.equivalent;
-import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
 import static java.lang.Math.min;
 import static java.math.BigInteger.ZERO;
 
@@ -63,7 +56,7 @@ public abstract class Natural extends Number
      * @return {@link Maybe} the {@link Natural} difference
      */
     public final Maybe<Natural> minus(Natural subtrahend) {
-        return subtrahend.match(constantly(just(this)), this::minus);
+        return subtrahend instanceof NonZero ? minus((NonZero) subtrahend) : just(this);
     }
 
     /**
@@ -130,10 +123,14 @@ public abstract class Natural extends Number
 
     /**
      * {@inheritDoc}
+     * Unless either side needs a {@link BigInteger} to represent it, this compares the underlying machine words
+     * directly, without allocating.
      */
     @Override
     public int compareTo(Natural other) {
-        return bigIntegerValue().compareTo(other.bigIntegerValue());
+        return this instanceof NonZero.B || other instanceof NonZero.B
+               ? bigIntegerValue().compareTo(other.bigIntegerValue())
+               : Long.compare(longValue(), other.longValue());
     }
 
     protected abstract Maybe<Natural> minus(NonZero subtrahend);
@@ -164,7 +161,7 @@ public abstract class Natural extends Number
      * @return {@link Maybe} the corresponding {@link Natural}
      */
     public static Maybe<Natural> natural(int value) {
-        return natural(value, 0);
+        return value > 0 ? just(NonZero.I.valueOf(value)) : value == 0 ? just(zero()) : nothing();
     }
 
     /**
@@ -175,7 +172,7 @@ public abstract class Natural extends Number
      * @see Natural#natural(int)
      */
     public static Maybe<Natural> natural(long value) {
-        return natural(value, 0L);
+        return value > 0 ? just(NonZero.nonZero(value)) : value == 0 ? just(zero()) : nothing();
     }
 
     /**
@@ -186,7 +183,8 @@ public abstract class Natural extends Number
      * @see Natural#natural(int)
      */
     public static Maybe<Natural> natural(BigInteger value) {
-        return natural(value, ZERO);
+        int signum = value.signum();
+        return signum > 0 ? just(NonZero.nonZero(value)) : signum == 0 ? just(zero()) : nothing();
     }
 
     /**
@@ -198,7 +196,7 @@ public abstract class Natural extends Number
      * @return the {@link Natural} corresponding to the value's absolute value
      */
     public static Natural abs(int value) {
-        return abs(value, 0, i -> -i);
+        return abs((long) value);
     }
 
     /**
@@ -209,7 +207,9 @@ public abstract class Natural extends Number
      * @see Natural#abs(int)
      */
     public static Natural abs(long value) {
-        return abs(value, 0L, l -> -l);
+        return value == Long.MIN_VALUE
+               ? NonZero.nonZero(BigInteger.valueOf(value).negate())
+               : atLeastZero(value < 0 ? -value : value);
     }
 
     /**
@@ -220,7 +220,7 @@ public abstract class Natural extends Number
      * @see Natural#abs(int)
      */
     public static Natural abs(BigInteger value) {
-        return abs(value, ZERO, BigInteger::negate);
+        return atLeastZero(value.abs());
     }
 
     /**
@@ -231,7 +231,7 @@ public abstract class Natural extends Number
      * @return the {@link Natural} corresponding to the given value, or {@link Zero}
      */
     public static Natural atLeastZero(int value) {
-        return atLeastZero(value, 0);
+        return value > 0 ? NonZero.I.valueOf(value) : zero();
     }
 
     /**
@@ -242,7 +242,7 @@ public abstract class Natural extends Number
      * @see Natural#atLeastZero(int)
      */
     public static Natural atLeastZero(long value) {
-        return atLeastZero(value, 0L);
+        return value > 0 ? NonZero.nonZero(value) : zero();
     }
 
     /**
@@ -253,7 +253,7 @@ public abstract class Natural extends Number
      * @see Natural#atLeastZero(int)
      */
     public static Natural atLeastZero(BigInteger value) {
-        return atLeastZero(value, ZERO);
+        return value.signum() > 0 ? NonZero.nonZero(value) : zero();
     }
 
     /**
@@ -264,7 +264,7 @@ public abstract class Natural extends Number
      * @return the {@link NonZero non-zero} {@link Natural} corresponding to the given value, or {@link Natural#one()}
      */
     public static NonZero atLeastOne(int value) {
-        return atLeastOne(value, 0);
+        return value > 1 ? NonZero.I.valueOf(value) : one();
     }
 
     /**
@@ -275,7 +275,7 @@ public abstract class Natural extends Number
      * @see Natural#atLeastOne(int)
      */
     public static NonZero atLeastOne(long value) {
-        return atLeastOne(value, 0L);
+        return value > 1 ? NonZero.nonZero(value) : one();
     }
 
     /**
@@ -286,23 +286,7 @@ public abstract class Natural extends Number
      * @see Natural#atLeastOne(int)
      */
     public static NonZero atLeastOne(BigInteger value) {
-        return atLeastOne(value, ZERO);
-    }
-
-    private static <N extends Number & Comparable<N>> Maybe<Natural> natural(N value, N zero) {
-        return gt(zero, value) ? just(NonZero.nonZero(value)) : lt(zero, value) ? nothing() : just(zero());
-    }
-
-    private static <N extends Number & Comparable<N>> Natural abs(N value, N zero, Fn1<? super N, ? extends N> negate) {
-        return natural(value, zero).orElseGet(() -> NonZero.nonZero(negate.apply(value)));
-    }
-
-    private static <N extends Number & Comparable<N>> Natural atLeastZero(N value, N zero) {
-        return natural(value, zero).orElse(zero());
-    }
-
-    private static <N extends Number & Comparable<N>> NonZero atLeastOne(N value, N zero) {
-        return atLeastZero(value, zero).match(constantly(one()), id());
+        return value.compareTo(BigInteger.ONE) > 0 ? NonZero.nonZero(value) : one();
     }
 
     /**
@@ -411,8 +395,13 @@ public abstract class Natural extends Number
 
         @Override
         public boolean equals(Object other) {
-            return other instanceof NonZero
-                    && equivalent(objectEquals(), bigIntegerValue(), ((NonZero) other).bigIntegerValue());
+            if (!(other instanceof NonZero))
+                return false;
+
+            NonZero otherNonZero = (NonZero) other;
+            return this instanceof B || other instanceof B
+                   ? bigIntegerValue().equals(otherNonZero.bigIntegerValue())
+                   : longValue() == otherNonZero.longValue();
         }
 
         @Override
@@ -425,22 +414,28 @@ public abstract class Natural extends Number
             return "NonZero{value=" + value() + '}';
         }
 
-        private static NonZero nonZero(Number n) {
-            if (n instanceof Integer) {
-                return new I((int) n);
-            } else if (n instanceof Long) {
-                long nLong = (Long) n;
-                return nLong <= Integer.MAX_VALUE ? new I((int) nLong) : new L(nLong);
-            } else {
-                BigInteger nBigInteger = (BigInteger) n;
-                return Try.<NonZero>trying(() -> new NonZero.I(nBigInteger.intValueExact()))
-                        .catchError(__ -> Try.trying(() -> new NonZero.L(nBigInteger.longValueExact())))
-                        .recover(__ -> new NonZero.B(nBigInteger));
-            }
+        // positive values only; picks the narrowest representation
+        private static NonZero nonZero(long n) {
+            return n <= Integer.MAX_VALUE ? I.valueOf((int) n) : new L(n);
+        }
+
+        // positive values only; picks the narrowest representation
+        private static NonZero nonZero(BigInteger n) {
+            int bitLength = n.bitLength();
+            if (bitLength < Integer.SIZE)
+                return I.valueOf(n.intValue());
+            return bitLength < Long.SIZE ? new L(n.longValue()) : new B(n);
+        }
+
+        // both non-negative, so the sum overflows exactly when its sign bit is set
+        private static NonZero sum(long augend, long addend) {
+            long sum = augend + addend;
+            return sum > 0 ? nonZero(sum) : new B(BigInteger.valueOf(augend).add(BigInteger.valueOf(addend)));
         }
 
         static final class I extends NonZero {
-            private static final I ONE = new I(1);
+            private static final I[] CACHE = cache(1_024);
+            private static final I   ONE   = CACHE[0];
 
             private final int value;
 
@@ -450,20 +445,22 @@ public abstract class Natural extends Number
 
             @Override
             public NonZero plus(Natural addend) {
-                int intSum = value + addend.intValue();
-                if (intSum > 0)
-                    return new I(intSum);
-
-                long longSum = value + addend.longValue();
-                if (longSum > 0)
-                    return new L(longSum);
-
-                return new B(bigIntegerValue().add(addend.bigIntegerValue()));
+                if (addend instanceof I) {
+                    int intSum = value + ((I) addend).value;
+                    return intSum > 0 ? valueOf(intSum) : new L((long) value + ((I) addend).value);
+                }
+                if (addend instanceof L)
+                    return sum(((L) addend).value, value);
+                return addend instanceof B ? ((B) addend).plus(this) : this;
             }
 
             @Override
             public Maybe<Natural> minus(NonZero subtrahend) {
-                return subtrahend instanceof I ? natural(value - ((I) subtrahend).value()) : nothing();
+                if (subtrahend instanceof I)
+                    return natural(value - ((I) subtrahend).value);
+                return subtrahend instanceof L
+                       ? nothing()
+                       : natural(bigIntegerValue().subtract(subtrahend.bigIntegerValue()));
             }
 
             @Override
@@ -485,6 +482,22 @@ public abstract class Natural extends Number
             Integer value() {
                 return value;
             }
+
+            @Override
+            public int hashCode() {
+                return Integer.hashCode(value);
+            }
+
+            static I valueOf(int value) {
+                return value <= CACHE.length ? CACHE[value - 1] : new I(value);
+            }
+
+            private static I[] cache(int size) {
+                I[] cache = new I[size];
+                for (int i = 0; i < size; i++)
+                    cache[i] = new I(i + 1);
+                return cache;
+            }
         }
 
         static final class L extends NonZero {
@@ -497,18 +510,20 @@ public abstract class Natural extends Number
 
             @Override
             public NonZero plus(Natural addend) {
-                long longSum = value + addend.longValue();
-                if (longSum > 0)
-                    return new L(longSum);
-
-                return new B(bigIntegerValue().add(addend.bigIntegerValue()));
+                if (addend instanceof I)
+                    return sum(value, ((I) addend).value);
+                if (addend instanceof L)
+                    return sum(value, ((L) addend).value);
+                return addend instanceof B ? ((B) addend).plus(this) : this;
             }
 
             @Override
             public Maybe<Natural> minus(NonZero subtrahend) {
-                return subtrahend instanceof I || subtrahend instanceof L
-                       ? natural(value - subtrahend.longValue())
-                       : nothing();
+                if (subtrahend instanceof I)
+                    return natural(value - ((I) subtrahend).value);
+                if (subtrahend instanceof L)
+                    return natural(value - ((L) subtrahend).value);
+                return natural(bigIntegerValue().subtract(subtrahend.bigIntegerValue()));
             }
 
             @Override
@@ -530,6 +545,11 @@ public abstract class Natural extends Number
             Long value() {
                 return value;
             }
+
+            @Override
+            public int hashCode() {
+                return Long.hashCode(value);
+            }
         }
 
         static final class B extends NonZero {
@@ -557,16 +577,12 @@ public abstract class Natural extends Number
 
             @Override
             public int intValue() {
-                return Try.trying(value::intValueExact)
-                        .catching(ArithmeticException.class, constantly(Integer.MAX_VALUE))
-                        .orThrow();
+                return value.bitLength() < Integer.SIZE ? value.intValue() : Integer.MAX_VALUE;
             }
 
             @Override
             public long longValue() {
-                return Try.trying(value::longValueExact)
-                        .catching(ArithmeticException.class, constantly(Long.MAX_VALUE))
-                        .orThrow();
+                return value.bitLength() < Long.SIZE ? value.longValue() : Long.MAX_VALUE;
             }
 
             @Override
@@ -0,0 +1,491 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.lambda.semigroup.Semigroup;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+import com.jnape.palatable.shoki.api.MultiSet;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Natural.NonZero;
+import com.jnape.palatable.shoki.api.Set;
+import com.jnape.palatable.shoki.api.SizeInfo.Known;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+import static com.jnape.palatable.shoki.api.HashingAlgorithm.objectHashCode;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static java.lang.String.format;
+
+/**
+ * An approximate {@link MultiSet} backed by a
+ * <a href="https://en.wikipedia.org/wiki/Count%E2%80%93min_sketch" target="_new">Count-Min sketch</a>: a fixed grid
+ * of <code>depth</code> rows of <code>width</code> counters, in which every element is counted once per row, in a
+ * column chosen by hashing it with the configured {@link HashingAlgorithm}. The
+ * {@link CountMinMultiSet#get(Object) multiplicity} of an element is estimated as the smallest of its counters, which
+ * never undercounts it, and overcounts it by more than <code>e / width</code> of the
+ * {@link CountMinMultiSet#sizeInfo() total} with probability at most <code>e<sup>-depth</sup></code>. Memory use is
+ * therefore bounded by the grid regardless of how many distinct elements are counted. These guarantees only hold as
+ * long as every {@link CountMinMultiSet#dec(Object, NonZero) decrement} takes away counts that were actually added.
+ * <p>
+ * The grid is split into chunks of 64 counters that are shared between versions and copied on write, so
+ * {@link CountMinMultiSet#inc(Object, NonZero) inc} and {@link CountMinMultiSet#dec(Object, NonZero) dec} copy at
+ * most <code>depth</code> chunks plus the chunk table. Two {@link CountMinMultiSet CountMinMultiSets} with the same
+ * dimensions and {@link HashingAlgorithm} can be {@link CountMinMultiSet#sum(MultiSet) summed},
+ * {@link CountMinMultiSet#union(MultiSet) unioned}, and {@link CountMinMultiSet#intersection(MultiSet) intersected}
+ * counter by counter.
+ * <p>
+ * Since a sketch does not remember which elements it has counted, it cannot enumerate them: {@link #unique()},
+ * {@link #head()}, {@link #tail()}, {@link #iterator()}, and any combination requiring them
+ * ({@link #difference(MultiSet) difference}, {@link #symmetricDifference(MultiSet) symmetric difference}, and
+ * arbitrary {@link #merge(MultiSet, Semigroup) merges}) throw {@link UnsupportedOperationException}. Counters
+ * saturate at {@link Long#MAX_VALUE}.
+ *
+ * @param <A> the element type
+ */
+public final class CountMinMultiSet<A> implements MultiSet<A> {
+
+    private static final int    CHUNK_BITS = 6;
+    private static final int    CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long[] ZEROS      = new long[CHUNK_SIZE];
+
+    private final HashingAlgorithm<? super A> hashingAlgorithm;
+    private final int                         widthBits;
+    private final int                         depth;
+    private final long[][]                    chunks;
+    private final Natural                     size;
+
+    private CountMinMultiSet(HashingAlgorithm<? super A> hashingAlgorithm, int widthBits, int depth,
+                             long[][] chunks, Natural size) {
+        this.hashingAlgorithm = hashingAlgorithm;
+        this.widthBits        = widthBits;
+        this.depth            = depth;
+        this.chunks           = chunks;
+        this.size             = size;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> inc(A a, NonZero k) {
+        return adjusted(a, k.longValue(), k);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Since only the estimated multiplicity of <code>a</code> is known, every counter of <code>a</code> is decremented
+     * by <code><em>min</em>(k, {@link CountMinMultiSet#get get}(a))</code>. This is only sound if <code>a</code> was
+     * actually counted at least that many times: otherwise, the excess is taken from the counts of whichever elements
+     * share any one of its counters, whose estimates may then undercount them, and the
+     * {@link CountMinMultiSet#sizeInfo() total} drops below the true total. <code>O(depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> dec(A a, NonZero k) {
+        long decrement = Math.min(k.longValue(), estimate(a));
+        return decrement == 0 ? this : adjusted(a, -decrement, abs(decrement));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> inc(A a) {
+        return (CountMinMultiSet<A>) MultiSet.super.inc(a);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> dec(A a) {
+        return (CountMinMultiSet<A>) MultiSet.super.dec(a);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Subject to the same caveat as {@link CountMinMultiSet#dec(Object, NonZero) dec}: if the estimated multiplicity
+     * of <code>a</code> overcounts it, removing it also takes away counts of other elements. <code>O(depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> remove(A a) {
+        return (CountMinMultiSet<A>) MultiSet.super.remove(a);
+    }
+
+    /**
+     * The estimated multiplicity of <code>a</code>: the smallest of its counters, which is never less than the number
+     * of times <code>a</code> was counted, provided no element was ever
+     * {@link CountMinMultiSet#dec(Object, NonZero) decremented} by more than it was counted. <code>O(depth)</code>.
+     *
+     * @param a the element for which to estimate the multiplicity
+     * @return the estimated multiplicity
+     */
+    @Override
+    public Natural get(A a) {
+        return abs(estimate(a));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The total is exact for sketches built by {@link CountMinMultiSet#inc(Object, NonZero) incrementing},
+     * {@link CountMinMultiSet#dec(Object, NonZero) decrementing}, and {@link CountMinMultiSet#sum(MultiSet) summing},
+     * a lower bound for {@link CountMinMultiSet#union(MultiSet) unions}, and an upper bound for
+     * {@link CountMinMultiSet#intersection(MultiSet) intersections}. <code>O(1)</code>.
+     */
+    @Override
+    public Known<Natural> sizeInfo() {
+        return known(size);
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Set<Natural, A> unique() {
+        throw unsupported("unique");
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Maybe<Tuple2<A, NonZero>> head() {
+        throw unsupported("head");
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public CountMinMultiSet<A> tail() {
+        throw unsupported("tail");
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Iterator<Tuple2<A, NonZero>> iterator() {
+        throw unsupported("iterator");
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <code>other</code> is a {@link CountMinMultiSet} with the same dimensions and {@link HashingAlgorithm}, the
+     * sketches are added counter by counter in <code>O(width * depth)</code>; otherwise, every element of
+     * <code>other</code> is counted in <code>O(o * depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> sum(MultiSet<A> other) {
+        if (!compatible(other)) {
+            CountMinMultiSet<A> sum = this;
+            for (Tuple2<A, NonZero> entry : other)
+                sum = sum.inc(entry._1(), entry._2());
+            return sum;
+        }
+
+        CountMinMultiSet<A> otherSketch = (CountMinMultiSet<A>) other;
+        long[][]            summed      = new long[chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            long[] chunk      = chunks[i];
+            long[] otherChunk = otherSketch.chunks[i];
+            if (chunk == ZEROS || otherChunk == ZEROS) {
+                summed[i] = chunk == ZEROS ? otherChunk : chunk;
+                continue;
+            }
+
+            summed[i] = new long[CHUNK_SIZE];
+            for (int j = 0; j < CHUNK_SIZE; j++)
+                summed[i][j] = saturatedAdd(chunk[j], otherChunk[j]);
+        }
+        return new CountMinMultiSet<>(hashingAlgorithm, widthBits, depth, summed, size.plus(otherSketch.size));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Both sketches are combined counter by counter, keeping the larger of each pair, so the estimated multiplicity
+     * of every element is at least the larger of its multiplicities in either {@link MultiSet}. If <code>other</code>
+     * is not a {@link CountMinMultiSet} with the same dimensions and {@link HashingAlgorithm}, it is first counted
+     * into one. <code>O(width * depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> union(MultiSet<A> other) {
+        return combined(sketchOf(other), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Both sketches are combined counter by counter, keeping the smaller of each pair, so the estimated multiplicity
+     * of every element is at least the smaller of its multiplicities in either {@link MultiSet}. If
+     * <code>other</code> is not a {@link CountMinMultiSet} with the same dimensions and {@link HashingAlgorithm}, it
+     * is first counted into one. <code>O(width * depth)</code>.
+     */
+    @Override
+    public CountMinMultiSet<A> intersection(MultiSet<A> other) {
+        return combined(sketchOf(other), false);
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public CountMinMultiSet<A> difference(MultiSet<A> other) {
+        throw unsupported("difference");
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public CountMinMultiSet<A> symmetricDifference(MultiSet<A> other) {
+        throw unsupported("symmetricDifference");
+    }
+
+    /**
+     * Unsupported, since a sketch does not remember which elements it has counted.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public CountMinMultiSet<A> merge(MultiSet<A> other, Semigroup<Natural> semigroup) {
+        throw unsupported("merge");
+    }
+
+    /**
+     * The number of counters per row.
+     *
+     * @return the width
+     */
+    public int width() {
+        return 1 << widthBits;
+    }
+
+    /**
+     * The number of rows, each counting every element once.
+     *
+     * @return the depth
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns <code>true</code> if <code>other</code> is a {@link CountMinMultiSet} with the same dimensions,
+     * {@link HashingAlgorithm}, and counters as this {@link CountMinMultiSet}; <code>false</code> otherwise.
+     * <code>O(width * depth)</code>.
+     *
+     * @param other the {@link Object} to check for equality
+     * @return the equality outcome
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CountMinMultiSet<?>))
+            return false;
+
+        CountMinMultiSet<?> that = (CountMinMultiSet<?>) other;
+        if (!sameShape(that) || !size.equals(that.size))
+            return false;
+
+        for (int i = 0; i < chunks.length; i++)
+            if (chunks[i] != that.chunks[i] && !java.util.Arrays.equals(chunks[i], that.chunks[i]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link CountMinMultiSet} from its
+     * counters. <code>O(width * depth)</code>.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = 31 * widthBits + depth;
+        for (long[] chunk : chunks)
+            hash = 31 * hash + java.util.Arrays.hashCode(chunk);
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public String toString() {
+        return format("CountMinMultiSet[width=%d, depth=%d, size=%s]", width(), depth, size.bigIntegerValue());
+    }
+
+    private CountMinMultiSet<A> adjusted(A a, long delta, Natural magnitude) {
+        long[][] adjusted = chunks.clone();
+        int      hash     = hashingAlgorithm.apply(a);
+        for (int row = 0; row < depth; row++) {
+            int    cell       = cell(hash, row);
+            int    chunkIndex = cell >>> CHUNK_BITS;
+            long[] chunk      = adjusted[chunkIndex];
+            if (chunk == chunks[chunkIndex])
+                adjusted[chunkIndex] = chunk = chunk.clone();
+            chunk[cell & (CHUNK_SIZE - 1)] = saturatedAdd(chunk[cell & (CHUNK_SIZE - 1)], delta);
+        }
+
+        Natural adjustedSize = delta > 0 ? size.plus(magnitude) : size.minus(magnitude).orElse(zero());
+        return new CountMinMultiSet<>(hashingAlgorithm, widthBits, depth, adjusted, adjustedSize);
+    }
+
+    private long estimate(A a) {
+        int  hash     = hashingAlgorithm.apply(a);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            estimate = Math.min(estimate, chunks[cell >>> CHUNK_BITS][cell & (CHUNK_SIZE - 1)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * The counter for <code>hash</code> in <code>row</code>, choosing columns by double hashing: two independent
+     * hashes are mixed out of <code>hash</code>, and each row steps a further odd multiple of the second away from
+     * the first, so that no two rows agree on which elements share a column.
+     */
+    private int cell(int hash, int row) {
+        int first  = mix(hash);
+        int second = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+        return (row << widthBits) | ((first + row * second) & ((1 << widthBits) - 1));
+    }
+
+    private CountMinMultiSet<A> combined(CountMinMultiSet<A> other, boolean keepLarger) {
+        long[][] combined = new long[chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            long[] chunk      = chunks[i];
+            long[] otherChunk = other.chunks[i];
+            if (chunk == otherChunk) {
+                combined[i] = chunk;
+                continue;
+            }
+
+            combined[i] = new long[CHUNK_SIZE];
+            for (int j = 0; j < CHUNK_SIZE; j++)
+                combined[i][j] = keepLarger ? Math.max(chunk[j], otherChunk[j]) : Math.min(chunk[j], otherChunk[j]);
+        }
+        return new CountMinMultiSet<>(hashingAlgorithm, widthBits, depth, combined,
+                                      tightestRowTotal(combined, keepLarger));
+    }
+
+    /**
+     * Every row of a sketch built only by counting elements adds up to the same total. Keeping the larger of each pair
+     * of counters sums the multiplicities of every element sharing a column before taking the maximum, so each row of
+     * a union adds up to at most the total of the union, and its largest row total is the tightest lower bound.
+     * Keeping the smaller of each pair likewise makes each row of an intersection add up to at least the total of the
+     * intersection, so its smallest row total is the tightest upper bound.
+     */
+    private Natural tightestRowTotal(long[][] chunks, boolean largest) {
+        int     width    = width();
+        Natural tightest = null;
+        for (int row = 0; row < depth; row++) {
+            NaturalAccumulator total = new NaturalAccumulator();
+            for (int column = 0; column < width; column++) {
+                int cell = (row << widthBits) | column;
+                total.add(chunks[cell >>> CHUNK_BITS][cell & (CHUNK_SIZE - 1)]);
+            }
+            Natural rowTotal = total.total();
+            if (tightest == null || (largest ? rowTotal.compareTo(tightest) > 0 : rowTotal.compareTo(tightest) < 0))
+                tightest = rowTotal;
+        }
+        return tightest;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CountMinMultiSet<A> sketchOf(MultiSet<A> other) {
+        return compatible(other)
+               ? (CountMinMultiSet<A>) other
+               : new CountMinMultiSet<A>(hashingAlgorithm, widthBits, depth, emptyChunks(widthBits, depth), zero())
+                       .sum(other);
+    }
+
+    private boolean compatible(MultiSet<A> other) {
+        return other instanceof CountMinMultiSet<?> && sameShape((CountMinMultiSet<?>) other);
+    }
+
+    private boolean sameShape(CountMinMultiSet<?> other) {
+        return widthBits == other.widthBits && depth == other.depth
+                && Objects.equals(hashingAlgorithm, other.hashingAlgorithm);
+    }
+
+    private static long saturatedAdd(long counter, long delta) {
+        long sum = counter + delta;
+        return delta > 0 && sum < counter ? Long.MAX_VALUE : sum;
+    }
+
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "CountMinMultiSet does not remember its elements, so " + operation + " is unsupported");
+    }
+
+    private static long[][] emptyChunks(int widthBits, int depth) {
+        long[][] chunks = new long[(int) (((long) depth << widthBits) + CHUNK_SIZE - 1 >>> CHUNK_BITS)][];
+        java.util.Arrays.fill(chunks, ZEROS);
+        return chunks;
+    }
+
+    /**
+     * Create an empty {@link CountMinMultiSet} of <code>depth</code> rows of <code>width</code> counters each, the
+     * latter rounded up to a power of two, choosing columns by hashing elements with <code>hashingAlgorithm</code>.
+     * Estimates then exceed true multiplicities by more than <code>e / width</code> of the total with probability at
+     * most <code>e<sup>-depth</sup></code>. <code>O(width * depth / 64)</code>.
+     *
+     * @param hashingAlgorithm the {@link HashingAlgorithm}
+     * @param width            the number of counters per row, between <code>1</code> and <code>2<sup>30</sup></code>
+     * @param depth            the number of rows, at least <code>1</code>
+     * @param <A>              the element type
+     * @return the empty {@link CountMinMultiSet}
+     * @throws IllegalArgumentException if <code>width</code> or <code>depth</code> is out of range, or the grid would
+     *                                  hold more than <code>2<sup>31</sup> - 1</code> counters
+     */
+    public static <A> CountMinMultiSet<A> countMinMultiSet(HashingAlgorithm<? super A> hashingAlgorithm, int width,
+                                                           int depth) {
+        if (width < 1 || width > 1 << 30)
+            throw new IllegalArgumentException("width must be between 1 and 2^30: " + width);
+        if (depth < 1)
+            throw new IllegalArgumentException("depth must be at least 1: " + depth);
+
+        int widthBits = Integer.SIZE - Integer.numberOfLeadingZeros(width - 1);
+        if (((long) depth << widthBits) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(format("width * depth must not exceed 2^31 - 1: %d * %d",
+                                                      1 << widthBits, depth));
+
+        return new CountMinMultiSet<>(hashingAlgorithm, widthBits, depth, emptyChunks(widthBits, depth), zero());
+    }
+
+    /**
+     * Create an empty {@link CountMinMultiSet} of <code>depth</code> rows of <code>width</code> counters each, using
+     * {@link Objects#hashCode(Object) Object hashCode} as the {@link HashingAlgorithm}.
+     * <code>O(width * depth / 64)</code>.
+     *
+     * @param width the number of counters per row, between <code>1</code> and <code>2<sup>30</sup></code>
+     * @param depth the number of rows, at least <code>1</code>
+     * @param <A>   the element type
+     * @return the empty {@link CountMinMultiSet}
+     * @throws IllegalArgumentException if <code>width</code> or <code>depth</code> is out of range
+     * @see CountMinMultiSet#countMinMultiSet(HashingAlgorithm, int, int)
+     */
+    public static <A> CountMinMultiSet<A> countMinMultiSet(int width, int depth) {
+        return countMinMultiSet(objectHashCode(), width, depth);
+    }
+}
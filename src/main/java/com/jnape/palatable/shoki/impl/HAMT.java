@@ -1,51 +1,153 @@
 package com.jnape.palatable.shoki.impl;
 
+import com.jnape.palatable.lambda.adt.hlist.HList;
 import com.jnape.palatable.lambda.adt.hlist.Tuple2;
 import com.jnape.palatable.lambda.adt.product.Product2;
+import com.jnape.palatable.lambda.functions.Fn1;
+import com.jnape.palatable.lambda.functions.Fn2;
+import com.jnape.palatable.lambda.semigroup.Semigroup;
 import com.jnape.palatable.shoki.api.EquivalenceRelation;
-import com.jnape.palatable.shoki.api.HashingAlgorithm;
 
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
-import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
-import static com.jnape.palatable.lambda.functions.builtin.fn1.Flatten.flatten;
-import static com.jnape.palatable.lambda.functions.builtin.fn2.Eq.eq;
-import static com.jnape.palatable.lambda.functions.builtin.fn2.Find.find;
-import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
-import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
-import static com.jnape.palatable.shoki.api.Natural.one;
 import static com.jnape.palatable.shoki.impl.Bitmap32.bitIsSet;
 import static com.jnape.palatable.shoki.impl.Bitmap32.lowerBits;
 import static com.jnape.palatable.shoki.impl.Bitmap32.setBit;
 import static com.jnape.palatable.shoki.impl.Bitmap32.unsetBit;
 import static com.jnape.palatable.shoki.impl.StrictStack.strictStack;
 import static java.lang.Integer.bitCount;
-import static java.util.Arrays.asList;
-import static java.util.Collections.singleton;
 
 interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
 
     int LEVEL_SIZE = 5;
 
-    HAMT<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel,
-                   HashingAlgorithm<? super K> keyHashAlg, int shift);
+    HAMT<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift, Object owner);
 
     V get(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift);
 
-    HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift);
+    Entry<K, V> entry(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift);
+
+    long size();
+
+    int entriesHash();
+
+    /**
+     * The sum of the key hashes of every entry, maintained alongside {@link HAMT#entriesHash()} so that a trie can be
+     * hashed and compared by its keys alone without visiting them.
+     */
+    int keysHash();
+
+    HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift, Object owner);
+
+    /**
+     * Remove the entry that iteration would produce first, by following the first populated slot of each node down to
+     * it rather than hashing its key. If <code>removed</code> is not <code>null</code>, the removed key and value are
+     * written to its first two slots.
+     */
+    HAMT<K, V> removeFirst(Object[] removed);
+
+    default HAMT<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+        return put(key, value, keyHash, keyEqRel, shift, null);
+    }
+
+    default HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+        return remove(key, keyHash, keyEqRel, shift, null);
+    }
+
+    /**
+     * Whether <code>left</code> and <code>right</code> associate the same keys (according to <code>keyEqRel</code>)
+     * to {@link Object#equals(Object) equal} values, assuming both were built using the same
+     * {@link EquivalenceRelation}, the same key hashes, and the same node layout. Since tries of either layout are kept
+     * in a canonical shape, equal tries are compared node by node, answering <code>true</code> as soon as the same
+     * sub-trie is reached from both sides and <code>false</code> as soon as any size, hash, or bitmap differs.
+     */
+    static <K> boolean sameEntries(HAMT<K, ?> left, HAMT<K, ?> right, EquivalenceRelation<? super K> keyEqRel) {
+        return sameEntries(left, right, keyEqRel, true);
+    }
+
+    /**
+     * Whether <code>left</code> and <code>right</code> hold the same keys, regardless of the values associated to
+     * them, under the same assumptions as {@link HAMT#sameEntries(HAMT, HAMT, EquivalenceRelation)}. Only sizes, key
+     * hashes, and bitmaps can answer <code>false</code> early, since the maintained entry hashes depend on the values.
+     */
+    static <K> boolean sameKeys(HAMT<K, ?> left, HAMT<K, ?> right, EquivalenceRelation<? super K> keyEqRel) {
+        return sameEntries(left, right, keyEqRel, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> boolean sameEntries(HAMT<K, ?> left, HAMT<K, ?> right, EquivalenceRelation<? super K> keyEqRel,
+                                   boolean compareValues) {
+        if (left == right)
+            return true;
+
+        if (left.size() != right.size() || left.keysHash() != right.keysHash()
+                || compareValues && left.entriesHash() != right.entriesHash())
+            return false;
+
+        if (left instanceof Node<?, ?> || right instanceof Node<?, ?>)
+            return left instanceof Node<?, ?> && right instanceof Node<?, ?>
+                    && Node.sameEntries((Node<K, ?>) left, (Node<K, ?>) right, keyEqRel, compareValues);
+
+        if (left instanceof CompactNode<?, ?> || right instanceof CompactNode<?, ?>)
+            return left instanceof CompactNode<?, ?> && right instanceof CompactNode<?, ?>
+                    && CompactNode.sameEntries((CompactNode<K, ?>) left, (CompactNode<K, ?>) right, keyEqRel,
+                                               compareValues);
+
+        for (Entry<K, ?> entry : Node.entries(left)) {
+            Entry<K, ?> match = right.entry(entry.k, entry.keyHash, keyEqRel, 0);
+            if (match == null || compareValues && !Objects.equals(entry.v, match.v))
+                return false;
+        }
+        return true;
+    }
 
     final class Node<K, V> implements HAMT<K, V> {
 
         private static final Node<?, ?> ROOT = new Node<>(0, new Object[0]);
+        private static final Fn1<?, ?>  KEEP = x -> x;
+        private static final Fn1<?, ?>  DROP = x -> null;
 
-        private final int      bitmap;
-        private final Object[] table;
+        private final Object   owner;
+        private       int      bitmap;
+        private       Object[] table;
+        private       long     size;
+        private       int      hash;
+        private       int      keysHash;
 
         public Node(int bitmap, Object[] table) {
-            this.bitmap = bitmap;
-            this.table  = table;
+            this(bitmap, table, null);
+        }
+
+        Node(int bitmap, Object[] table, Object owner) {
+            this(bitmap, table, sizeOf(table), entriesHashOf(table), keysHashOf(table), owner);
+        }
+
+        private Node(int bitmap, Object[] table, long size, int hash, int keysHash, Object owner) {
+            this.bitmap   = bitmap;
+            this.table    = table;
+            this.size     = size;
+            this.hash     = hash;
+            this.keysHash = keysHash;
+            this.owner    = owner;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public int entriesHash() {
+            return hash;
+        }
+
+        @Override
+        public int keysHash() {
+            return keysHash;
         }
 
         @Override
@@ -56,33 +158,75 @@ interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
                    : null;
         }
 
+        @Override
+        public Entry<K, V> entry(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            int bitmapIndex = bitmapIndex(keyHash, shift);
+            return bitIsSet(bitmap, bitmapIndex)
+                   ? valueAtIndex(tableIndex(bitmapIndex)).entry(key, keyHash, keyEqRel, shift + LEVEL_SIZE)
+                   : null;
+        }
+
+        @Override
+        public Node<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            return put(key, value, keyHash, keyEqRel, shift, null);
+        }
+
         @Override
         public Node<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel,
-                              HashingAlgorithm<? super K> keyHashAlg, int shift) {
+                              int shift, Object owner) {
             int bitmapIndex = bitmapIndex(keyHash, shift);
             int tableIndex  = tableIndex(bitmapIndex);
-            return bitIsSet(bitmap, bitmapIndex)
-                   ? overrideAt(tableIndex,
-                                valueAtIndex(tableIndex).put(key, value, keyHash, keyEqRel, keyHashAlg, shift + LEVEL_SIZE))
-                   : insertAt(tableIndex, bitmapIndex, new Entry<>(key, value));
+            if (!bitIsSet(bitmap, bitmapIndex))
+                return insertAt(tableIndex, bitmapIndex, new Entry<>(key, value, keyHash), owner);
+
+            HAMT<K, V> existing         = valueAtIndex(tableIndex);
+            long       existingSize     = existing.size();
+            int        existingHash     = existing.entriesHash();
+            int        existingKeysHash = existing.keysHash();
+            HAMT<K, V> override         = existing.put(key, value, keyHash, keyEqRel, shift + LEVEL_SIZE, owner);
+            return override == existing
+                   ? adjusted(override, existingSize, existingHash, existingKeysHash)
+                   : overrideAt(tableIndex, override, existingSize, existingHash, existingKeysHash, owner);
         }
 
         @Override
         public Iterator<Tuple2<K, V>> iterator() {
-            @SuppressWarnings("unchecked")
-            List<HAMT<K, V>> bodies = (List<HAMT<K, V>>) (Object) asList(table);
-            return flatten(bodies).iterator();
+            return new Cursor<>(this);
         }
 
         @Override
-        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift,
+                                 Object owner) {
             int bitmapIndex = bitmapIndex(keyHash, shift);
             if (!bitIsSet(bitmap, bitmapIndex))
                 return this;
 
-            int        tableIndex = tableIndex(bitmapIndex);
-            HAMT<K, V> override   = valueAtIndex(tableIndex).remove(key, keyHash, keyEqRel, shift + LEVEL_SIZE);
-            return override == null ? deleteAt(bitmapIndex, tableIndex) : overrideAt(tableIndex, override);
+            int        tableIndex       = tableIndex(bitmapIndex);
+            HAMT<K, V> existing         = valueAtIndex(tableIndex);
+            long       existingSize     = existing.size();
+            int        existingHash     = existing.entriesHash();
+            int        existingKeysHash = existing.keysHash();
+            HAMT<K, V> override         = canonical(existing.remove(key, keyHash, keyEqRel, shift + LEVEL_SIZE,
+                                                                    owner));
+            if (override == existing)
+                return adjusted(override, existingSize, existingHash, existingKeysHash);
+
+            return override == null
+                   ? deleteAt(bitmapIndex, tableIndex, existingSize, existingHash, existingKeysHash, owner)
+                   : overrideAt(tableIndex, override, existingSize, existingHash, existingKeysHash, owner);
+        }
+
+        @Override
+        public HAMT<K, V> removeFirst(Object[] removed) {
+            if (table.length == 0)
+                return this;
+
+            HAMT<K, V> first    = valueAtIndex(0);
+            HAMT<K, V> override = canonical(first.removeFirst(removed));
+            return override == null
+                   ? deleteAt(Integer.numberOfTrailingZeros(bitmap), 0, first.size(), first.entriesHash(),
+                              first.keysHash(), null)
+                   : overrideAt(0, override, first.size(), first.entriesHash(), first.keysHash(), null);
         }
 
         @Override
@@ -104,16 +248,97 @@ interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
             return (HAMT<K, V>) table[tableIndex];
         }
 
-        private Node<K, V> insertAt(int tableIndex, int bitmapIndex, HAMT<K, V> valueForSlot) {
-            return new Node<>(setBit(bitmap, bitmapIndex), Arrays.insertAt(tableIndex, table, valueForSlot));
+        private boolean ownedBy(Object owner) {
+            return owner != null && owner == this.owner;
         }
 
-        private Node<K, V> overrideAt(int tableIndex, HAMT<K, V> valueForSlot) {
-            return new Node<>(bitmap, Arrays.overrideAt(tableIndex, table, valueForSlot));
+        private Node<K, V> insertAt(int tableIndex, int bitmapIndex, HAMT<K, V> valueForSlot, Object owner) {
+            long newSize     = size + valueForSlot.size();
+            int  newHash     = hash + valueForSlot.entriesHash();
+            int  newKeysHash = keysHash + valueForSlot.keysHash();
+            if (ownedBy(owner)) {
+                table    = Arrays.insertAt(tableIndex, table, valueForSlot);
+                bitmap   = setBit(bitmap, bitmapIndex);
+                size     = newSize;
+                hash     = newHash;
+                keysHash = newKeysHash;
+                return this;
+            }
+            return new Node<>(setBit(bitmap, bitmapIndex), Arrays.insertAt(tableIndex, table, valueForSlot),
+                              newSize, newHash, newKeysHash, owner);
         }
 
-        private Node<K, V> deleteAt(int bitmapIndex, int tableIndex) {
-            return new Node<>(unsetBit(bitmap, bitmapIndex), Arrays.deleteAt(tableIndex, table));
+        private Node<K, V> adjusted(HAMT<K, V> child, long previousSize, int previousHash, int previousKeysHash) {
+            // only an owned child can change in place, and only beneath an owned parent
+            long sizeDelta     = child.size() - previousSize;
+            int  hashDelta     = child.entriesHash() - previousHash;
+            int  keysHashDelta = child.keysHash() - previousKeysHash;
+            if (sizeDelta != 0 || hashDelta != 0 || keysHashDelta != 0) {
+                size     += sizeDelta;
+                hash     += hashDelta;
+                keysHash += keysHashDelta;
+            }
+            return this;
+        }
+
+        private Node<K, V> overrideAt(int tableIndex, HAMT<K, V> valueForSlot, long previousSize, int previousHash,
+                                      int previousKeysHash, Object owner) {
+            long newSize     = size - previousSize + valueForSlot.size();
+            int  newHash     = hash - previousHash + valueForSlot.entriesHash();
+            int  newKeysHash = keysHash - previousKeysHash + valueForSlot.keysHash();
+            if (ownedBy(owner)) {
+                table[tableIndex] = valueForSlot;
+                size              = newSize;
+                hash              = newHash;
+                keysHash          = newKeysHash;
+                return this;
+            }
+            return new Node<>(bitmap, Arrays.overrideAt(tableIndex, table, valueForSlot), newSize, newHash,
+                              newKeysHash, owner);
+        }
+
+        private Node<K, V> deleteAt(int bitmapIndex, int tableIndex, long previousSize, int previousHash,
+                                    int previousKeysHash, Object owner) {
+            long newSize     = size - previousSize;
+            int  newHash     = hash - previousHash;
+            int  newKeysHash = keysHash - previousKeysHash;
+            if (ownedBy(owner)) {
+                table    = Arrays.deleteAt(tableIndex, table);
+                bitmap   = unsetBit(bitmap, bitmapIndex);
+                size     = newSize;
+                hash     = newHash;
+                keysHash = newKeysHash;
+                return this;
+            }
+            return new Node<>(unsetBit(bitmap, bitmapIndex), Arrays.deleteAt(tableIndex, table), newSize, newHash,
+                              newKeysHash, owner);
+        }
+
+        /**
+         * A sub-trie left holding a single leaf is replaced by that leaf, and an emptied sub-trie is dropped, so that
+         * removal always leaves a trie in the same shape as inserting its remaining entries would.
+         */
+        @SuppressWarnings("unchecked")
+        private static <K, V> HAMT<K, V> canonical(HAMT<K, V> subTrie) {
+            if (subTrie instanceof Node<?, ?>) {
+                Node<K, V> node = (Node<K, V>) subTrie;
+                if (node.table.length == 0)
+                    return null;
+                if (node.table.length == 1 && !(node.table[0] instanceof Node<?, ?>))
+                    return node.valueAtIndex(0);
+            }
+            return subTrie;
+        }
+
+        private static <K> boolean sameEntries(Node<K, ?> left, Node<K, ?> right,
+                                               EquivalenceRelation<? super K> keyEqRel, boolean compareValues) {
+            if (left.bitmap != right.bitmap)
+                return false;
+
+            for (int i = 0; i < left.table.length; i++)
+                if (!HAMT.sameEntries(left.valueAtIndex(i), right.valueAtIndex(i), keyEqRel, compareValues))
+                    return false;
+            return true;
         }
 
         @SuppressWarnings("unchecked")
@@ -121,19 +346,1032 @@ interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
             return (HAMT<K, V>) ROOT;
         }
 
+        /**
+         * Merge two tries occupying the same position, combining the values of keys present in both via
+         * <code>semigroup</code> (<code>left</code> value first) and keeping the <code>right</code> key. Slots
+         * populated on only one side are reused as-is, and whichever input the result turns out to be identical to is
+         * returned in place of a copy.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> merge(HAMT<K, V> left, HAMT<K, V> right, Semigroup<V> semigroup,
+                                       EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (left instanceof Node<?, ?> && right instanceof Node<?, ?>)
+                return mergeNodes((Node<K, V>) left, (Node<K, V>) right, semigroup, keyEqRel, shift);
+
+            if (!(right instanceof Node<?, ?>)) {
+                int        keyHash = keyHash(right);
+                HAMT<K, V> merged  = left;
+                for (Entry<K, V> entry : entries(right))
+                    merged = mergeIntoLeft(merged, entry.k, entry.v, keyHash, semigroup, keyEqRel, shift);
+                return merged;
+            }
+
+            int        keyHash = keyHash(left);
+            HAMT<K, V> merged  = right;
+            for (Entry<K, V> entry : entries(left))
+                merged = mergeIntoRight(merged, entry.k, entry.v, keyHash, semigroup, keyEqRel, shift);
+            return merged;
+        }
+
+        private static <K, V> Node<K, V> mergeNodes(Node<K, V> left, Node<K, V> right, Semigroup<V> semigroup,
+                                                    EquivalenceRelation<? super K> keyEqRel, int shift) {
+            int      bitmap      = left.bitmap | right.bitmap;
+            Object[] table       = new Object[bitCount(bitmap)];
+            boolean  sameAsLeft  = bitmap == left.bitmap;
+            boolean  sameAsRight = bitmap == right.bitmap;
+            int      leftIndex   = 0;
+            int      rightIndex  = 0;
+            int      tableIndex  = 0;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int        bit = remaining & -remaining;
+                HAMT<K, V> merged;
+                if ((left.bitmap & bit) == 0) {
+                    merged     = right.valueAtIndex(rightIndex++);
+                    sameAsLeft = false;
+                } else if ((right.bitmap & bit) == 0) {
+                    merged      = left.valueAtIndex(leftIndex++);
+                    sameAsRight = false;
+                } else {
+                    HAMT<K, V> leftBody  = left.valueAtIndex(leftIndex++);
+                    HAMT<K, V> rightBody = right.valueAtIndex(rightIndex++);
+                    merged      = merge(leftBody, rightBody, semigroup, keyEqRel, shift + LEVEL_SIZE);
+                    sameAsLeft  = sameAsLeft && merged == leftBody;
+                    sameAsRight = sameAsRight && merged == rightBody;
+                }
+                table[tableIndex++] = merged;
+            }
+            return sameAsLeft ? left : sameAsRight ? right : new Node<>(bitmap, table);
+        }
+
+        private static <K, V> HAMT<K, V> mergeIntoLeft(HAMT<K, V> left, K key, V value, int keyHash,
+                                                       Semigroup<V> semigroup,
+                                                       EquivalenceRelation<? super K> keyEqRel, int shift) {
+            Entry<K, V> existing = left.entry(key, keyHash, keyEqRel, shift);
+            if (existing == null)
+                return left.put(key, value, keyHash, keyEqRel, shift);
+
+            V merged = semigroup.apply(existing.v, value);
+            return merged == existing.v && key == existing.k
+                   ? left
+                   : left.put(key, merged, keyHash, keyEqRel, shift);
+        }
+
+        private static <K, V> HAMT<K, V> mergeIntoRight(HAMT<K, V> right, K key, V value, int keyHash,
+                                                        Semigroup<V> semigroup,
+                                                        EquivalenceRelation<? super K> keyEqRel, int shift) {
+            Entry<K, V> existing = right.entry(key, keyHash, keyEqRel, shift);
+            if (existing == null)
+                return right.put(key, value, keyHash, keyEqRel, shift);
+
+            V merged = semigroup.apply(value, existing.v);
+            return merged == existing.v
+                   ? right
+                   : right.put(existing.k, merged, keyHash, keyEqRel, shift);
+        }
+
+        /**
+         * The entries of <code>left</code> whose keys are also present in <code>right</code>, or <code>null</code> if
+         * there are none.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> intersection(HAMT<K, V> left, HAMT<K, ?> right,
+                                              EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (left instanceof Node<?, ?> && right instanceof Node<?, ?>) {
+                Node<K, V> leftNode   = (Node<K, V>) left;
+                Node<K, ?> rightNode  = (Node<K, ?>) right;
+                int        bitmap     = leftNode.bitmap & rightNode.bitmap;
+                Object[]   table      = new Object[bitCount(bitmap)];
+                boolean    sameAsLeft = bitmap == leftNode.bitmap;
+                int        tableIndex = 0;
+                for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                    int        bit      = remaining & -remaining;
+                    HAMT<K, V> leftBody = leftNode.valueAtIndex(bitCount(leftNode.bitmap & (bit - 1)));
+                    HAMT<K, V> retained = intersection(leftBody,
+                                                       rightNode.valueAtIndex(bitCount(rightNode.bitmap & (bit - 1))),
+                                                       keyEqRel, shift + LEVEL_SIZE);
+                    sameAsLeft = sameAsLeft && retained == leftBody;
+                    if (retained == null)
+                        bitmap &= ~bit;
+                    else
+                        table[tableIndex++] = retained;
+                }
+                return sameAsLeft ? left : compact(bitmap, table, tableIndex, shift);
+            }
+
+            if (!(left instanceof Node<?, ?>))
+                return retainEntries(left, right, true, keyEqRel, shift);
+
+            int                      keyHash  = keyHash(right);
+            StrictStack<Entry<K, V>> retained = strictStack();
+            int                      size     = 0;
+            for (Entry<K, ?> entry : entries(right)) {
+                Entry<K, V> leftEntry = left.entry(entry.k, keyHash, keyEqRel, shift);
+                if (leftEntry != null) {
+                    retained = retained.cons(leftEntry);
+                    size++;
+                }
+            }
+            return leaf(keyHash, retained, size);
+        }
+
+        /**
+         * The entries of <code>left</code> whose keys are absent from <code>right</code>, or <code>null</code> if there
+         * are none.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> difference(HAMT<K, V> left, HAMT<K, ?> right,
+                                            EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (left instanceof Node<?, ?> && right instanceof Node<?, ?>) {
+                Node<K, V> leftNode   = (Node<K, V>) left;
+                Node<K, ?> rightNode  = (Node<K, ?>) right;
+                int        bitmap     = leftNode.bitmap;
+                Object[]   table      = new Object[bitCount(bitmap)];
+                boolean    sameAsLeft = true;
+                int        tableIndex = 0;
+                int        leftIndex  = 0;
+                for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                    int        bit      = remaining & -remaining;
+                    HAMT<K, V> leftBody = leftNode.valueAtIndex(leftIndex++);
+                    HAMT<K, V> retained = (rightNode.bitmap & bit) == 0
+                                          ? leftBody
+                                          : difference(leftBody,
+                                                       rightNode.valueAtIndex(bitCount(rightNode.bitmap & (bit - 1))),
+                                                       keyEqRel, shift + LEVEL_SIZE);
+                    sameAsLeft = sameAsLeft && retained == leftBody;
+                    if (retained == null)
+                        bitmap &= ~bit;
+                    else
+                        table[tableIndex++] = retained;
+                }
+                return sameAsLeft ? left : compact(bitmap, table, tableIndex, shift);
+            }
+
+            if (!(left instanceof Node<?, ?>))
+                return retainEntries(left, right, false, keyEqRel, shift);
+
+            int        keyHash   = keyHash(right);
+            HAMT<K, V> remaining = left;
+            for (Entry<K, ?> entry : entries(right))
+                remaining = remaining.remove(entry.k, keyHash, keyEqRel, shift);
+            if (remaining == left)
+                return left;
+
+            Node<K, V> remainingNode = (Node<K, V>) remaining;
+            return compact(remainingNode.bitmap, remainingNode.table, remainingNode.table.length, shift);
+        }
+
+        /**
+         * The entries of <code>left</code> and <code>right</code> whose keys are absent from the other side, or
+         * <code>null</code> if there are none.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> symmetricDifference(HAMT<K, V> left, HAMT<K, V> right,
+                                                     EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (!(left instanceof Node<?, ?>) || !(right instanceof Node<?, ?>)) {
+                HAMT<K, V> leftOnly  = difference(left, right, keyEqRel, shift);
+                HAMT<K, V> rightOnly = difference(right, left, keyEqRel, shift);
+                return leftOnly == null
+                       ? rightOnly
+                       : rightOnly == null
+                         ? leftOnly
+                         : merge(leftOnly, rightOnly, (x, y) -> x, keyEqRel, shift);
+            }
+
+            Node<K, V> leftNode    = (Node<K, V>) left;
+            Node<K, V> rightNode   = (Node<K, V>) right;
+            int        bitmap      = leftNode.bitmap | rightNode.bitmap;
+            Object[]   table       = new Object[bitCount(bitmap)];
+            boolean    sameAsLeft  = bitmap == leftNode.bitmap;
+            boolean    sameAsRight = bitmap == rightNode.bitmap;
+            int        tableIndex  = 0;
+            int        leftIndex   = 0;
+            int        rightIndex  = 0;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int        bit = remaining & -remaining;
+                HAMT<K, V> retained;
+                if ((leftNode.bitmap & bit) == 0) {
+                    retained   = rightNode.valueAtIndex(rightIndex++);
+                    sameAsLeft = false;
+                } else if ((rightNode.bitmap & bit) == 0) {
+                    retained    = leftNode.valueAtIndex(leftIndex++);
+                    sameAsRight = false;
+                } else {
+                    HAMT<K, V> leftBody  = leftNode.valueAtIndex(leftIndex++);
+                    HAMT<K, V> rightBody = rightNode.valueAtIndex(rightIndex++);
+                    retained    = symmetricDifference(leftBody, rightBody, keyEqRel, shift + LEVEL_SIZE);
+                    sameAsLeft  = sameAsLeft && retained == leftBody;
+                    sameAsRight = sameAsRight && retained == rightBody;
+                }
+                if (retained == null)
+                    bitmap &= ~bit;
+                else
+                    table[tableIndex++] = retained;
+            }
+            return sameAsLeft ? left : sameAsRight ? right : compact(bitmap, table, tableIndex, shift);
+        }
+
+        /**
+         * Combine two tries occupying the same position key by key, or <code>null</code> if nothing is left: keys
+         * present on both sides are associated to <code>both</code> of their <code>left</code> and <code>right</code>
+         * values (keeping the <code>right</code> key), and keys present on only one side to <code>onlyLeft</code> or
+         * <code>onlyRight</code> of their value, where a <code>null</code> result drops the key. A sub-trie populated
+         * on only one side is reused or dropped without being visited if the corresponding function is
+         * {@link Node#keep()} or {@link Node#drop()}, and whichever input the result turns out to be identical to is
+         * returned in place of a copy.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> zip(HAMT<K, V> left, HAMT<K, V> right, Fn2<V, V, V> both, Fn1<V, V> onlyLeft,
+                                     Fn1<V, V> onlyRight, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (left instanceof Entry<?, ?> && right instanceof Entry<?, ?>) {
+                Entry<K, V> leftEntry  = (Entry<K, V>) left;
+                Entry<K, V> rightEntry = (Entry<K, V>) right;
+                if (rightEntry.matches(leftEntry.k, leftEntry.keyHash, keyEqRel)) {
+                    V value = both.apply(leftEntry.v, rightEntry.v);
+                    return value == null
+                           ? null
+                           : value == rightEntry.v
+                             ? right
+                             : value == leftEntry.v && leftEntry.k == rightEntry.k
+                               ? left
+                               : new Entry<>(rightEntry.k, value, rightEntry.keyHash);
+                }
+            }
+
+            if (!(left instanceof Node<?, ?>) || !(right instanceof Node<?, ?>)) {
+                HAMT<K, V> leftOnly  = mapValues(difference(left, right, keyEqRel, shift), onlyLeft, shift);
+                HAMT<K, V> rightOnly = mapValues(difference(right, left, keyEqRel, shift), onlyRight, shift);
+                HAMT<K, V> zipped    = leftOnly == null
+                                       ? rightOnly
+                                       : rightOnly == null
+                                         ? leftOnly
+                                         : merge(leftOnly, rightOnly, (x, y) -> x, keyEqRel, shift);
+
+                boolean    leftIsLeaf = !(left instanceof Node<?, ?>);
+                HAMT<K, V> leaf       = leftIsLeaf ? left : right;
+                HAMT<K, V> other      = leftIsLeaf ? right : left;
+                int        keyHash    = keyHash(leaf);
+                for (Entry<K, V> entry : entries(leaf)) {
+                    Entry<K, V> match = other.entry(entry.k, keyHash, keyEqRel, shift);
+                    if (match == null)
+                        continue;
+
+                    Entry<K, V> leftEntry  = leftIsLeaf ? entry : match;
+                    Entry<K, V> rightEntry = leftIsLeaf ? match : entry;
+                    V           value      = both.apply(leftEntry.v, rightEntry.v);
+                    if (value != null)
+                        zipped = zipped == null
+                                 ? new Entry<>(rightEntry.k, value, keyHash)
+                                 : zipped.put(rightEntry.k, value, keyHash, keyEqRel, shift);
+                }
+                return zipped;
+            }
+
+            Node<K, V> leftNode    = (Node<K, V>) left;
+            Node<K, V> rightNode   = (Node<K, V>) right;
+            int        bitmap      = leftNode.bitmap | rightNode.bitmap;
+            Object[]   table       = new Object[bitCount(bitmap)];
+            boolean    sameAsLeft  = true;
+            boolean    sameAsRight = true;
+            int        tableIndex  = 0;
+            int        leftIndex   = 0;
+            int        rightIndex  = 0;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int        bit       = remaining & -remaining;
+                HAMT<K, V> leftBody  = (leftNode.bitmap & bit) == 0 ? null : leftNode.valueAtIndex(leftIndex++);
+                HAMT<K, V> rightBody = (rightNode.bitmap & bit) == 0 ? null : rightNode.valueAtIndex(rightIndex++);
+                HAMT<K, V> zipped    = leftBody == null
+                                       ? mapValues(rightBody, onlyRight, shift + LEVEL_SIZE)
+                                       : rightBody == null
+                                         ? mapValues(leftBody, onlyLeft, shift + LEVEL_SIZE)
+                                         : zip(leftBody, rightBody, both, onlyLeft, onlyRight, keyEqRel,
+                                               shift + LEVEL_SIZE);
+                sameAsLeft  = sameAsLeft && zipped == leftBody;
+                sameAsRight = sameAsRight && zipped == rightBody;
+                if (zipped == null)
+                    bitmap &= ~bit;
+                else
+                    table[tableIndex++] = zipped;
+            }
+            return sameAsLeft ? left : sameAsRight ? right : compact(bitmap, table, tableIndex, shift);
+        }
+
+        /**
+         * Associate every key of a trie occupying position <code>shift</code> to <code>fn</code> of its value, dropping
+         * keys for which <code>fn</code> returns <code>null</code>, or <code>null</code> if nothing is left. Sub-tries
+         * none of whose values change are reused as-is.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> mapValues(HAMT<K, V> trie, Fn1<V, V> fn, int shift) {
+            if (trie == null || fn == KEEP)
+                return trie;
+            if (fn == DROP)
+                return null;
+
+            if (trie instanceof Node<?, ?>) {
+                Node<K, V> node       = (Node<K, V>) trie;
+                int        bitmap     = node.bitmap;
+                Object[]   table      = new Object[node.table.length];
+                boolean    same       = true;
+                int        tableIndex = 0;
+                int        nodeIndex  = 0;
+                for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                    HAMT<K, V> body   = node.valueAtIndex(nodeIndex++);
+                    HAMT<K, V> mapped = mapValues(body, fn, shift + LEVEL_SIZE);
+                    same = same && mapped == body;
+                    if (mapped == null)
+                        bitmap &= ~(remaining & -remaining);
+                    else
+                        table[tableIndex++] = mapped;
+                }
+                return same ? trie : compact(bitmap, table, tableIndex, shift);
+            }
+
+            int                      keyHash = keyHash(trie);
+            StrictStack<Entry<K, V>> mapped  = strictStack();
+            int                      size    = 0;
+            boolean                  same    = true;
+            for (Entry<K, V> entry : entries(trie)) {
+                V value = fn.apply(entry.v);
+                same = same && value == entry.v;
+                if (value != null) {
+                    mapped = mapped.cons(value == entry.v ? entry : new Entry<>(entry.k, value, keyHash));
+                    size++;
+                }
+            }
+            return same ? trie : leaf(keyHash, mapped, size);
+        }
+
+        /**
+         * The function {@link Node#zip} and {@link Node#mapValues} recognize as keeping every value unchanged.
+         */
+        @SuppressWarnings("unchecked")
+        static <V> Fn1<V, V> keep() {
+            return (Fn1<V, V>) KEEP;
+        }
+
+        /**
+         * The function {@link Node#zip} and {@link Node#mapValues} recognize as dropping every key.
+         */
+        @SuppressWarnings("unchecked")
+        static <V> Fn1<V, V> drop() {
+            return (Fn1<V, V>) DROP;
+        }
+
+        /**
+         * The part of a trie occupying position <code>shift</code> holding exactly the entries whose key hashes agree
+         * with <code>prefix</code> in their lowest <code>prefixBits</code> bits, or <code>null</code> if there are
+         * none. Since the lowest hash bits select the slots nearest the root, every level wholly covered by the prefix
+         * narrows to a single slot, the first level only partly covered narrows to the slots agreeing with the
+         * remaining bits, and every sub-trie beneath that is shared as-is.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> slice(HAMT<K, V> trie, int prefix, int prefixBits, int shift) {
+            if (shift >= prefixBits)
+                return trie;
+
+            if (!(trie instanceof Node<?, ?>))
+                return samePrefix(keyHash(trie), prefix, prefixBits) ? trie : null;
+
+            Node<K, V> node       = (Node<K, V>) trie;
+            int        candidates = node.bitmap & slots(prefix, prefixBits, shift);
+            Object[]   table      = new Object[bitCount(candidates)];
+            int        bitmap     = 0;
+            int        tableSize  = 0;
+            for (int remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+                int        bitmapIndex = Integer.numberOfTrailingZeros(remaining);
+                HAMT<K, V> sliced      = slice(node.valueAtIndex(node.tableIndex(bitmapIndex)), prefix, prefixBits,
+                                               shift + LEVEL_SIZE);
+                if (sliced != null) {
+                    table[tableSize++] = sliced;
+                    bitmap             = setBit(bitmap, bitmapIndex);
+                }
+            }
+
+            if (bitmap == node.bitmap) {
+                boolean shared = true;
+                for (int i = 0; shared && i < tableSize; i++)
+                    shared = table[i] == node.table[i];
+                if (shared)
+                    return node;
+            }
+            return compact(bitmap, table, tableSize, shift);
+        }
+
+        private static <K, V> HAMT<K, V> compact(int bitmap, Object[] table, int tableSize, int shift) {
+            if (tableSize == 0)
+                return null;
+
+            if (shift > 0 && tableSize == 1 && !(table[0] instanceof Node<?, ?>)) {
+                @SuppressWarnings("unchecked")
+                HAMT<K, V> onlyChild = (HAMT<K, V>) table[0];
+                return onlyChild;
+            }
+
+            return new Node<>(bitmap, tableSize == table.length ? table : java.util.Arrays.copyOf(table, tableSize));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K, V> HAMT<K, V> retainEntries(HAMT<K, V> leaf, HAMT<K, ?> other, boolean ifPresent,
+                                                       EquivalenceRelation<? super K> keyEqRel, int shift) {
+            int                      keyHash  = keyHash(leaf);
+            StrictStack<Entry<K, V>> retained = strictStack();
+            int                      size     = 0;
+            boolean                  dropped  = false;
+            for (Entry<K, V> entry : entries(leaf)) {
+                if ((other.entry(entry.k, keyHash, keyEqRel, shift) != null) == ifPresent) {
+                    retained = retained.cons(entry);
+                    size++;
+                } else {
+                    dropped = true;
+                }
+            }
+            return dropped ? leaf(keyHash, retained, size) : leaf;
+        }
+
+        private static <K, V> HAMT<K, V> leaf(int keyHash, StrictStack<Entry<K, V>> entries, int size) {
+            return size == 0
+                   ? null
+                   : size == 1
+                     ? entries.iterator().next()
+                     : new Collision<>(keyHash, entries);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K, V> int keyHash(HAMT<K, V> leaf) {
+            return leaf instanceof Collision<?, ?>
+                   ? ((Collision<K, V>) leaf).keyHash
+                   : ((Entry<K, V>) leaf).keyHash;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K, V> Iterable<Entry<K, V>> entries(HAMT<K, V> leaf) {
+            return leaf instanceof Collision<?, ?>
+                   ? ((Collision<K, V>) leaf).entries()
+                   : strictStack((Entry<K, V>) leaf);
+        }
+
+        private static boolean samePrefix(int keyHash, int prefix, int prefixBits) {
+            int mask = prefixBits >= Integer.SIZE ? -1 : (1 << prefixBits) - 1;
+            return ((keyHash ^ prefix) & mask) == 0;
+        }
+
+        private static int slots(int prefix, int prefixBits, int shift) {
+            int remainingBits = prefixBits - shift;
+            if (remainingBits >= LEVEL_SIZE)
+                return 1 << bitmapIndex(prefix, shift);
+
+            int mask  = (1 << remainingBits) - 1;
+            int slot  = bitmapIndex(prefix, shift) & mask;
+            int slots = 0;
+            for (int bitmapIndex = slot; bitmapIndex < 32; bitmapIndex += mask + 1)
+                slots = setBit(slots, bitmapIndex);
+            return slots;
+        }
+
+        private static long sizeOf(Object[] table) {
+            long size = 0;
+            for (Object body : table)
+                size += ((HAMT<?, ?>) body).size();
+            return size;
+        }
+
+        private static int entriesHashOf(Object[] table) {
+            int hash = 0;
+            for (Object body : table)
+                hash += ((HAMT<?, ?>) body).entriesHash();
+            return hash;
+        }
+
+        private static int keysHashOf(Object[] table) {
+            int keysHash = 0;
+            for (Object body : table)
+                keysHash += ((HAMT<?, ?>) body).keysHash();
+            return keysHash;
+        }
+
         private static int bitmapIndex(int keyHash, int shift) {
             return (keyHash >>> shift) & 31;
         }
     }
 
+    /**
+     * A {@link HAMT} node in the CHAMP layout, which tracks entries and sub-tries in two separate bitmaps: keys and
+     * values stored directly in this node sit inline at the front of its array as adjacent pairs, in
+     * <code>dataMap</code> order, while sub-tries are stored from the back of the array, in <code>nodeMap</code>
+     * order. Since no {@link Entry} is allocated per inline mapping, the key hashes that would otherwise be cached on
+     * each {@link Entry} are kept in a parallel <code>int[]</code>.
+     * <p>
+     * Removal moves the last remaining entry of a sub-trie back up into its parent, so any set of keys has exactly
+     * one {@link CompactNode} representation regardless of the history of edits that produced it, and two
+     * {@link CompactNode CompactNodes} can be {@link CompactNode#equals(Object) compared} structurally.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    final class CompactNode<K, V> implements HAMT<K, V> {
+
+        private static final CompactNode<?, ?> EMPTY = new CompactNode<>(0, 0, new Object[0], new int[0], 0, 0, 0,
+                                                                          null);
+
+        private final Object   owner;
+        private       int      dataMap;
+        private       int      nodeMap;
+        private       Object[] content;
+        private       int[]    keyHashes;
+        private       long     size;
+        private       int      hash;
+        private       int      keysHash;
+
+        private CompactNode(int dataMap, int nodeMap, Object[] content, int[] keyHashes, long size, int hash,
+                            int keysHash, Object owner) {
+            this.dataMap   = dataMap;
+            this.nodeMap   = nodeMap;
+            this.content   = content;
+            this.keyHashes = keyHashes;
+            this.size      = size;
+            this.hash      = hash;
+            this.keysHash  = keysHash;
+            this.owner     = owner;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public int entriesHash() {
+            return hash;
+        }
+
+        @Override
+        public int keysHash() {
+            return keysHash;
+        }
+
+        @Override
+        public V get(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            int bit = bit(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndex(bit);
+                return matches(dataIndex, key, keyHash, keyEqRel) ? valueAt(dataIndex) : null;
+            }
+            return (nodeMap & bit) != 0
+                   ? nodeAt(nodeIndex(bit)).get(key, keyHash, keyEqRel, shift + LEVEL_SIZE)
+                   : null;
+        }
+
+        @Override
+        public Entry<K, V> entry(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            int bit = bit(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndex(bit);
+                return matches(dataIndex, key, keyHash, keyEqRel)
+                       ? new Entry<>(keyAt(dataIndex), valueAt(dataIndex), keyHash)
+                       : null;
+            }
+            return (nodeMap & bit) != 0
+                   ? nodeAt(nodeIndex(bit)).entry(key, keyHash, keyEqRel, shift + LEVEL_SIZE)
+                   : null;
+        }
+
+        @Override
+        public CompactNode<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel,
+                                     int shift) {
+            return put(key, value, keyHash, keyEqRel, shift, null);
+        }
+
+        @Override
+        public CompactNode<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel,
+                                     int shift, Object owner) {
+            int bit = bit(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndex(bit);
+                if (matches(dataIndex, key, keyHash, keyEqRel))
+                    return replaceData(dataIndex, key, value, owner);
+
+                HAMT<K, V> subTrie = pair(keyAt(dataIndex), valueAt(dataIndex), keyHashes[dataIndex],
+                                          key, value, keyHash, shift + LEVEL_SIZE, owner);
+                return migrateDataToNode(bit, dataIndex, subTrie, owner);
+            }
+
+            if ((nodeMap & bit) == 0)
+                return insertData(bit, key, value, keyHash, owner);
+
+            int        nodeIndex        = nodeIndex(bit);
+            HAMT<K, V> existing         = nodeAt(nodeIndex);
+            long       existingSize     = existing.size();
+            int        existingHash     = existing.entriesHash();
+            int        existingKeysHash = existing.keysHash();
+            HAMT<K, V> override         = existing.put(key, value, keyHash, keyEqRel, shift + LEVEL_SIZE, owner);
+            return override == existing
+                   ? adjusted(override, existingSize, existingHash, existingKeysHash)
+                   : replaceNode(nodeIndex, override, existingSize, existingHash, existingKeysHash, owner);
+        }
+
+        @Override
+        public CompactNode<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift,
+                                        Object owner) {
+            int bit = bit(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int dataIndex = dataIndex(bit);
+                return matches(dataIndex, key, keyHash, keyEqRel) ? removeData(bit, dataIndex, owner) : this;
+            }
+
+            if ((nodeMap & bit) == 0)
+                return this;
+
+            int        nodeIndex        = nodeIndex(bit);
+            HAMT<K, V> existing         = nodeAt(nodeIndex);
+            long       existingSize     = existing.size();
+            int        existingHash     = existing.entriesHash();
+            int        existingKeysHash = existing.keysHash();
+            HAMT<K, V> override         = existing.remove(key, keyHash, keyEqRel, shift + LEVEL_SIZE, owner);
+            return shrunkNode(bit, nodeIndex, existing, existingSize, existingHash, existingKeysHash, override,
+                              owner);
+        }
+
+        @Override
+        public CompactNode<K, V> removeFirst(Object[] removed) {
+            if (dataMap != 0) {
+                if (removed != null) {
+                    removed[0] = keyAt(0);
+                    removed[1] = valueAt(0);
+                }
+                return removeData(Integer.lowestOneBit(dataMap), 0, null);
+            }
+
+            if (nodeMap == 0)
+                return this;
+
+            // sub-tries are stored from the back in nodeMap order, so the first one iterated is the last in nodeMap
+            int        nodeIndex = bitCount(nodeMap) - 1;
+            HAMT<K, V> existing  = nodeAt(nodeIndex);
+            return shrunkNode(Integer.highestOneBit(nodeMap), nodeIndex, existing, existing.size(),
+                              existing.entriesHash(), existing.keysHash(), existing.removeFirst(removed), null);
+        }
+
+        @Override
+        public Iterator<Tuple2<K, V>> iterator() {
+            return new Cursor<>(this);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof CompactNode<?, ?>) {
+                CompactNode<?, ?> node = (CompactNode<?, ?>) other;
+                return dataMap == node.dataMap &&
+                        nodeMap == node.nodeMap &&
+                        java.util.Arrays.equals(content, node.content);
+            }
+            return false;
+        }
+
+        private int dataIndex(int bit) {
+            return bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return bitCount(nodeMap & (bit - 1));
+        }
+
+        private int dataLength() {
+            return bitCount(dataMap) * 2;
+        }
+
+        @SuppressWarnings("unchecked")
+        private K keyAt(int dataIndex) {
+            return (K) content[dataIndex * 2];
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueAt(int dataIndex) {
+            return (V) content[dataIndex * 2 + 1];
+        }
+
+        @SuppressWarnings("unchecked")
+        private HAMT<K, V> nodeAt(int nodeIndex) {
+            return (HAMT<K, V>) content[content.length - 1 - nodeIndex];
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompactNode<K, V> shrunkNode(int bit, int nodeIndex, HAMT<K, V> existing, long existingSize,
+                                             int existingHash, int existingKeysHash, HAMT<K, V> override,
+                                             Object owner) {
+            if (override.size() == 1) {
+                if (override instanceof Entry<?, ?>) {
+                    Entry<K, V> entry = (Entry<K, V>) override;
+                    return migrateNodeToData(bit, nodeIndex, entry.k, entry.v, entry.keyHash, existingSize,
+                                             existingHash, existingKeysHash, owner);
+                }
+                CompactNode<K, V> onlyEntry = (CompactNode<K, V>) override;
+                return migrateNodeToData(bit, nodeIndex, onlyEntry.keyAt(0), onlyEntry.valueAt(0),
+                                         onlyEntry.keyHashes[0], existingSize, existingHash, existingKeysHash, owner);
+            }
+            return override == existing
+                   ? adjusted(override, existingSize, existingHash, existingKeysHash)
+                   : replaceNode(nodeIndex, override, existingSize, existingHash, existingKeysHash, owner);
+        }
+
+        private boolean matches(int dataIndex, K key, int keyHash, EquivalenceRelation<? super K> keyEqRel) {
+            return keyHashes[dataIndex] == keyHash && keyEqRel.apply(key, keyAt(dataIndex));
+        }
+
+        private boolean ownedBy(Object owner) {
+            return owner != null && owner == this.owner;
+        }
+
+        private CompactNode<K, V> adjusted(HAMT<K, V> child, long previousSize, int previousHash,
+                                           int previousKeysHash) {
+            // only an owned child can change in place, and only beneath an owned parent
+            long sizeDelta     = child.size() - previousSize;
+            int  hashDelta     = child.entriesHash() - previousHash;
+            int  keysHashDelta = child.keysHash() - previousKeysHash;
+            if (sizeDelta != 0 || hashDelta != 0 || keysHashDelta != 0) {
+                size     += sizeDelta;
+                hash     += hashDelta;
+                keysHash += keysHashDelta;
+            }
+            return this;
+        }
+
+        private CompactNode<K, V> replaceData(int dataIndex, K key, V value, Object owner) {
+            int newHash = hash - entryHash(keyHashes[dataIndex], valueAt(dataIndex))
+                    + entryHash(keyHashes[dataIndex], value);
+            if (ownedBy(owner)) {
+                content[dataIndex * 2]     = key;
+                content[dataIndex * 2 + 1] = value;
+                hash                       = newHash;
+                return this;
+            }
+            Object[] newContent = content.clone();
+            newContent[dataIndex * 2]     = key;
+            newContent[dataIndex * 2 + 1] = value;
+            return new CompactNode<>(dataMap, nodeMap, newContent, keyHashes, size, newHash, keysHash, owner);
+        }
+
+        private CompactNode<K, V> replaceNode(int nodeIndex, HAMT<K, V> subTrie, long previousSize,
+                                              int previousHash, int previousKeysHash, Object owner) {
+            long newSize     = size - previousSize + subTrie.size();
+            int  newHash     = hash - previousHash + subTrie.entriesHash();
+            int  newKeysHash = keysHash - previousKeysHash + subTrie.keysHash();
+            if (ownedBy(owner)) {
+                content[content.length - 1 - nodeIndex] = subTrie;
+                size                                     = newSize;
+                hash                                     = newHash;
+                keysHash                                 = newKeysHash;
+                return this;
+            }
+            Object[] newContent = content.clone();
+            newContent[content.length - 1 - nodeIndex] = subTrie;
+            return new CompactNode<>(dataMap, nodeMap, newContent, keyHashes, newSize, newHash, newKeysHash, owner);
+        }
+
+        private CompactNode<K, V> insertData(int bit, K key, V value, int keyHash, Object owner) {
+            int      dataIndex  = dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, dataIndex * 2);
+            newContent[dataIndex * 2]     = key;
+            newContent[dataIndex * 2 + 1] = value;
+            System.arraycopy(content, dataIndex * 2, newContent, dataIndex * 2 + 2, content.length - dataIndex * 2);
+            return edited(dataMap | bit, nodeMap, newContent, insertHash(dataIndex, keyHash),
+                          size + 1, hash + entryHash(keyHash, value), keysHash + keyHash, owner);
+        }
+
+        private CompactNode<K, V> removeData(int bit, int dataIndex, Object owner) {
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, dataIndex * 2);
+            System.arraycopy(content, dataIndex * 2 + 2, newContent, dataIndex * 2,
+                             content.length - dataIndex * 2 - 2);
+            return edited(dataMap & ~bit, nodeMap, newContent, removeHash(dataIndex),
+                          size - 1, hash - entryHash(keyHashes[dataIndex], valueAt(dataIndex)),
+                          keysHash - keyHashes[dataIndex], owner);
+        }
+
+        private CompactNode<K, V> migrateDataToNode(int bit, int dataIndex, HAMT<K, V> subTrie, Object owner) {
+            int      nodeIndex  = nodeIndex(bit);
+            Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, dataIndex * 2);
+            System.arraycopy(content, dataIndex * 2 + 2, newContent, dataIndex * 2,
+                             content.length - nodeIndex - dataIndex * 2 - 2);
+            newContent[newContent.length - 1 - nodeIndex] = subTrie;
+            System.arraycopy(content, content.length - nodeIndex, newContent, newContent.length - nodeIndex,
+                             nodeIndex);
+            return edited(dataMap & ~bit, nodeMap | bit, newContent, removeHash(dataIndex),
+                          size - 1 + subTrie.size(),
+                          hash - entryHash(keyHashes[dataIndex], valueAt(dataIndex)) + subTrie.entriesHash(),
+                          keysHash - keyHashes[dataIndex] + subTrie.keysHash(), owner);
+        }
+
+        private CompactNode<K, V> migrateNodeToData(int bit, int nodeIndex, K key, V value, int keyHash,
+                                                    long previousSize, int previousHash, int previousKeysHash,
+                                                    Object owner) {
+            int      dataIndex  = dataIndex(bit);
+            Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, dataIndex * 2);
+            newContent[dataIndex * 2]     = key;
+            newContent[dataIndex * 2 + 1] = value;
+            System.arraycopy(content, dataIndex * 2, newContent, dataIndex * 2 + 2,
+                             content.length - 1 - nodeIndex - dataIndex * 2);
+            System.arraycopy(content, content.length - nodeIndex, newContent, newContent.length - nodeIndex,
+                             nodeIndex);
+            return edited(dataMap | bit, nodeMap & ~bit, newContent, insertHash(dataIndex, keyHash),
+                          size - previousSize + 1, hash - previousHash + entryHash(keyHash, value),
+                          keysHash - previousKeysHash + keyHash, owner);
+        }
+
+        private CompactNode<K, V> edited(int dataMap, int nodeMap, Object[] content, int[] keyHashes, long size,
+                                         int hash, int keysHash, Object owner) {
+            if (ownedBy(owner)) {
+                this.dataMap   = dataMap;
+                this.nodeMap   = nodeMap;
+                this.content   = content;
+                this.keyHashes = keyHashes;
+                this.size      = size;
+                this.hash      = hash;
+                this.keysHash  = keysHash;
+                return this;
+            }
+            return new CompactNode<>(dataMap, nodeMap, content, keyHashes, size, hash, keysHash, owner);
+        }
+
+        private int[] insertHash(int dataIndex, int keyHash) {
+            int[] newKeyHashes = new int[keyHashes.length + 1];
+            System.arraycopy(keyHashes, 0, newKeyHashes, 0, dataIndex);
+            newKeyHashes[dataIndex] = keyHash;
+            System.arraycopy(keyHashes, dataIndex, newKeyHashes, dataIndex + 1, keyHashes.length - dataIndex);
+            return newKeyHashes;
+        }
+
+        private int[] removeHash(int dataIndex) {
+            int[] newKeyHashes = new int[keyHashes.length - 1];
+            System.arraycopy(keyHashes, 0, newKeyHashes, 0, dataIndex);
+            System.arraycopy(keyHashes, dataIndex + 1, newKeyHashes, dataIndex, keyHashes.length - dataIndex - 1);
+            return newKeyHashes;
+        }
+
+        private static <K> boolean sameEntries(CompactNode<K, ?> left, CompactNode<K, ?> right,
+                                               EquivalenceRelation<? super K> keyEqRel, boolean compareValues) {
+            if (left.dataMap != right.dataMap || left.nodeMap != right.nodeMap)
+                return false;
+
+            int dataCount = bitCount(left.dataMap);
+            for (int i = 0; i < dataCount; i++)
+                if (left.keyHashes[i] != right.keyHashes[i]
+                        || !keyEqRel.apply(left.keyAt(i), right.keyAt(i))
+                        || compareValues && !Objects.equals(left.valueAt(i), right.valueAt(i)))
+                    return false;
+
+            int nodeCount = bitCount(left.nodeMap);
+            for (int i = 0; i < nodeCount; i++)
+                if (!HAMT.sameEntries(left.nodeAt(i), right.nodeAt(i), keyEqRel, compareValues))
+                    return false;
+            return true;
+        }
+
+        /**
+         * The CHAMP counterpart of {@link Node#slice(HAMT, int, int, int)}: inline entries are kept only if their whole
+         * key hash agrees with the prefix, and a sliced sub-trie left holding a single entry is moved back up inline,
+         * so that the slice is in the same shape as inserting its entries would produce. A slice holding a single
+         * entry below the root is answered as an {@link Entry} for its parent to inline.
+         */
+        @SuppressWarnings("unchecked")
+        static <K, V> HAMT<K, V> slice(HAMT<K, V> trie, int prefix, int prefixBits, int shift) {
+            if (shift >= prefixBits)
+                return trie;
+
+            CompactNode<K, V> node       = (CompactNode<K, V>) trie;
+            int               candidates = (node.dataMap | node.nodeMap) & Node.slots(prefix, prefixBits, shift);
+            int               capacity   = bitCount(candidates);
+            Object[]          data       = new Object[capacity * 2];
+            int[]             keyHashes  = new int[capacity];
+            Object[]          nodes      = new Object[capacity];
+            int               dataMap    = 0;
+            int               nodeMap    = 0;
+            int               dataCount  = 0;
+            int               nodeCount  = 0;
+            long              size       = 0;
+            int               hash       = 0;
+            int               keysHash   = 0;
+            boolean           shared     = true;
+            for (int remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+                int bit = Integer.lowestOneBit(remaining);
+                if ((node.dataMap & bit) != 0) {
+                    int dataIndex = node.dataIndex(bit);
+                    int keyHash   = node.keyHashes[dataIndex];
+                    if (Node.samePrefix(keyHash, prefix, prefixBits)) {
+                        data[dataCount * 2]     = node.keyAt(dataIndex);
+                        data[dataCount * 2 + 1] = node.valueAt(dataIndex);
+                        keyHashes[dataCount++]  = keyHash;
+                        dataMap |= bit;
+                        size++;
+                        hash     += entryHash(keyHash, node.valueAt(dataIndex));
+                        keysHash += keyHash;
+                    }
+                    continue;
+                }
+
+                HAMT<K, V> subTrie = node.nodeAt(node.nodeIndex(bit));
+                HAMT<K, V> sliced  = slice(subTrie, prefix, prefixBits, shift + LEVEL_SIZE);
+                shared &= sliced == subTrie;
+                if (sliced instanceof Entry<?, ?>) {
+                    Entry<K, V> entry = (Entry<K, V>) sliced;
+                    data[dataCount * 2]     = entry.k;
+                    data[dataCount * 2 + 1] = entry.v;
+                    keyHashes[dataCount++]  = entry.keyHash;
+                    dataMap |= bit;
+                } else if (sliced != null) {
+                    nodes[nodeCount++] = sliced;
+                    nodeMap |= bit;
+                }
+                if (sliced != null) {
+                    size     += sliced.size();
+                    hash     += sliced.entriesHash();
+                    keysHash += sliced.keysHash();
+                }
+            }
+
+            if (shared && dataMap == node.dataMap && nodeMap == node.nodeMap)
+                return node;
+
+            if (nodeCount == 0 && dataCount == 0)
+                return shift > 0 ? null : emptyCompactNode();
+
+            if (shift > 0 && nodeCount == 0 && dataCount == 1)
+                return new Entry<>((K) data[0], (V) data[1], keyHashes[0]);
+
+            Object[] content = new Object[dataCount * 2 + nodeCount];
+            System.arraycopy(data, 0, content, 0, dataCount * 2);
+            for (int i = 0; i < nodeCount; i++)
+                content[content.length - 1 - i] = nodes[i];
+            return new CompactNode<>(dataMap, nodeMap, content, java.util.Arrays.copyOf(keyHashes, dataCount), size,
+                                     hash, keysHash, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        static <K, V> CompactNode<K, V> emptyCompactNode() {
+            return (CompactNode<K, V>) EMPTY;
+        }
+
+        private static <K, V> HAMT<K, V> pair(K k0, V v0, int keyHash0, K k1, V v1, int keyHash1, int shift,
+                                              Object owner) {
+            if (shift > 30)
+                return new Collision<>(keyHash1, strictStack(new Entry<>(k0, v0, keyHash0),
+                                                             new Entry<>(k1, v1, keyHash1)));
+
+            int bit0 = bit(keyHash0, shift);
+            int bit1 = bit(keyHash1, shift);
+            int hash     = entryHash(keyHash0, v0) + entryHash(keyHash1, v1);
+            int keysHash = keyHash0 + keyHash1;
+            if (bit0 == bit1)
+                return new CompactNode<>(0, bit0,
+                                         new Object[]{pair(k0, v0, keyHash0, k1, v1, keyHash1, shift + LEVEL_SIZE,
+                                                           owner)},
+                                         new int[0], 2, hash, keysHash, owner);
+
+            return Integer.compareUnsigned(bit0, bit1) < 0
+                   ? new CompactNode<>(bit0 | bit1, 0, new Object[]{k0, v0, k1, v1}, new int[]{keyHash0, keyHash1},
+                                       2, hash, keysHash, owner)
+                   : new CompactNode<>(bit0 | bit1, 0, new Object[]{k1, v1, k0, v0}, new int[]{keyHash1, keyHash0},
+                                       2, hash, keysHash, owner);
+        }
+
+        private static int bit(int keyHash, int shift) {
+            return 1 << Node.bitmapIndex(keyHash, shift);
+        }
+
+        private static int entryHash(int keyHash, Object value) {
+            return keyHash ^ Objects.hashCode(value);
+        }
+    }
+
     final class Entry<K, V> implements HAMT<K, V>, Product2<K, V> {
 
-        private final K k;
-        private final V v;
+        private final K   k;
+        private final V   v;
+        private final int keyHash;
+        private final int hash;
+
+        Entry(K k, V v, int keyHash) {
+            this.k       = k;
+            this.v       = v;
+            this.keyHash = keyHash;
+            this.hash    = keyHash ^ Objects.hashCode(v);
+        }
 
-        Entry(K k, V v) {
-            this.k = k;
-            this.v = v;
+        @Override
+        public long size() {
+            return 1;
+        }
+
+        @Override
+        public int entriesHash() {
+            return hash;
+        }
+
+        @Override
+        public int keysHash() {
+            return keyHash;
         }
 
         @Override
@@ -147,34 +1385,50 @@ interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
         }
 
         @Override
-        public HAMT<K, V> put(K newKey, V newValue, int keyHash,
-                              EquivalenceRelation<? super K> keyEqRel, HashingAlgorithm<? super K> keyHashAlg,
-                              int shift) {
-            if (keyEqRel.apply(newKey, k))
-                return new Entry<>(newKey, newValue);
+        public HAMT<K, V> put(K newKey, V newValue, int keyHash, EquivalenceRelation<? super K> keyEqRel,
+                              int shift, Object owner) {
+            if (matches(newKey, keyHash, keyEqRel))
+                return new Entry<>(newKey, newValue, keyHash);
 
-            if (shift > 30)
-                return new Collision<>(keyHash, strictStack(this, new Entry<>(newKey, newValue)));
+            if (keyHash == this.keyHash || shift > 30)
+                return new Collision<>(keyHash, strictStack(this, new Entry<>(newKey, newValue, keyHash)));
 
-            Integer existingKeyHash = keyHashAlg.apply(k);
-            return Node.<K, V>rootNode()
-                    .put(k, v, existingKeyHash, keyEqRel, keyHashAlg, shift)
-                    .put(newKey, newValue, keyHash, keyEqRel, keyHashAlg, shift);
+            return new Node<K, V>(setBit(0, Node.bitmapIndex(this.keyHash, shift)), new Object[]{this}, owner)
+                    .put(newKey, newValue, keyHash, keyEqRel, shift, owner);
         }
 
         @Override
         public Iterator<Tuple2<K, V>> iterator() {
-            return singleton(tuple(k, v)).iterator();
+            return new Cursor<>(this);
         }
 
         @Override
         public V get(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
-            return keyEqRel.apply(key, k) ? v : null;
+            return matches(key, keyHash, keyEqRel) ? v : null;
+        }
+
+        @Override
+        public Entry<K, V> entry(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            return matches(key, keyHash, keyEqRel) ? this : null;
+        }
+
+        @Override
+        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift,
+                                 Object owner) {
+            return !matches(key, keyHash, keyEqRel) ? this : null;
         }
 
         @Override
-        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
-            return !keyEqRel.apply(key, k) ? this : null;
+        public HAMT<K, V> removeFirst(Object[] removed) {
+            if (removed != null) {
+                removed[0] = k;
+                removed[1] = v;
+            }
+            return null;
+        }
+
+        private boolean matches(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel) {
+            return keyHash == this.keyHash && keyEqRel.apply(key, k);
         }
 
         @Override
@@ -187,57 +1441,634 @@ interface HAMT<K, V> extends Iterable<Tuple2<K, V>> {
         }
     }
 
+    /**
+     * A bucket of entries whose keys share the same full 32-bit hash, stored as a flat array of alternating keys and
+     * values. Every edit copies the array once; lookups scan it linearly without allocating. Once a bucket grows past
+     * {@link Collision#SORTED_THRESHOLD} entries whose keys are all instances of the same {@link Comparable} class and
+     * are being compared by {@link EquivalenceRelation#objectEquals() object equality}, its entries are kept sorted by
+     * key and looked up by binary search instead.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
     final class Collision<K, V> implements HAMT<K, V> {
-        private final int                      keyHash;
-        private final StrictStack<Entry<K, V>> kvPairs;
+        static final int SORTED_THRESHOLD = 8;
 
-        Collision(int keyHash,
-                  StrictStack<Entry<K, V>> kvPairs) {
-            this.keyHash = keyHash;
-            this.kvPairs = kvPairs;
+        private static final EquivalenceRelation<Object> OBJECT_EQUALS = EquivalenceRelation.objectEquals();
+
+        private final int      keyHash;
+        private final Object[] keysAndValues;
+        private final boolean  sorted;
+        private final int      hash;
+
+        Collision(int keyHash, StrictStack<Entry<K, V>> kvPairs) {
+            this(keyHash, keysAndValues(kvPairs), false, entriesHashOf(kvPairs));
+        }
+
+        private Collision(int keyHash, Object[] keysAndValues, boolean sorted, int hash) {
+            this.keyHash       = keyHash;
+            this.keysAndValues = keysAndValues;
+            this.sorted        = sorted;
+            this.hash          = hash;
+        }
+
+        @Override
+        public long size() {
+            return keysAndValues.length / 2;
+        }
+
+        @Override
+        public int entriesHash() {
+            return hash;
+        }
+
+        @Override
+        public int keysHash() {
+            return keyHash * (int) size();
         }
 
         @Override
         public HAMT<K, V> put(K key, V value, int keyHash, EquivalenceRelation<? super K> keyEqRel,
-                              HashingAlgorithm<? super K> keyHashAlg, int shift) {
-            return new Collision<>(keyHash, foldLeft(((s, kv) -> !keyEqRel.apply(key, kv._1()) ? s.cons(kv) : s),
-                                                     strictStack(new Entry<>(key, value)),
-                                                     kvPairs));
+                              int shift, Object owner) {
+            if (keyHash != this.keyHash)
+                return new Node<K, V>(setBit(0, Node.bitmapIndex(this.keyHash, shift)), new Object[]{this}, owner)
+                        .put(key, value, keyHash, keyEqRel, shift, owner);
+
+            int index = indexOf(key, keyEqRel);
+            if (index >= 0) {
+                Object[] copy = keysAndValues.clone();
+                copy[index * 2]     = key;
+                copy[index * 2 + 1] = value;
+                return new Collision<>(keyHash, copy, sorted,
+                                       hash - entryHash(valueAt(index)) + entryHash(value));
+            }
+
+            boolean  stillSorted = sorted && sortable(key, keyEqRel);
+            int      insertion   = stillSorted ? -(index + 1) : (int) size();
+            Object[] grown       = new Object[keysAndValues.length + 2];
+            System.arraycopy(keysAndValues, 0, grown, 0, insertion * 2);
+            System.arraycopy(keysAndValues, insertion * 2, grown, insertion * 2 + 2,
+                             keysAndValues.length - insertion * 2);
+            grown[insertion * 2]     = key;
+            grown[insertion * 2 + 1] = value;
+
+            int grownHash = hash + entryHash(value);
+            if (!stillSorted && grown.length / 2 > SORTED_THRESHOLD && allSortable(grown, keyEqRel))
+                return new Collision<>(keyHash, sortedByKey(grown), true, grownHash);
+            return new Collision<>(keyHash, grown, stillSorted, grownHash);
         }
 
         @Override
         public Iterator<Tuple2<K, V>> iterator() {
-            return map(Tuple2::fromEntry, kvPairs).iterator();
+            return new Cursor<>(this);
         }
 
         @Override
         public V get(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
-            return keyHash == this.keyHash
-                   ? find(kvPair -> keyEqRel.apply(key, kvPair._1()), kvPairs).fmap(Entry::_2).orElse(null)
-                   : null;
+            if (keyHash != this.keyHash)
+                return null;
+            int index = indexOf(key, keyEqRel);
+            return index >= 0 ? valueAt(index) : null;
         }
 
         @Override
-        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+        public Entry<K, V> entry(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift) {
+            if (keyHash != this.keyHash)
+                return null;
+            int index = indexOf(key, keyEqRel);
+            return index >= 0 ? new Entry<>(keyAt(index), valueAt(index), keyHash) : null;
+        }
+
+        @Override
+        public HAMT<K, V> remove(K key, int keyHash, EquivalenceRelation<? super K> keyEqRel, int shift,
+                                 Object owner) {
             if (keyHash != this.keyHash)
                 return this;
 
-            StrictStack<Entry<K, V>> withoutKey = foldLeft(((s, kv) -> !keyEqRel.apply(key, kv._1()) ? s.cons(kv) : s),
-                                                           strictStack(),
-                                                           kvPairs);
-            return eq(withoutKey.sizeInfo().getSize(), one())
-                   ? withoutKey.iterator().next()
-                   : new Collision<>(keyHash, withoutKey);
+            int index = indexOf(key, keyEqRel);
+            return index < 0 ? this : removeAt(index);
+        }
+
+        @Override
+        public HAMT<K, V> removeFirst(Object[] removed) {
+            if (removed != null) {
+                removed[0] = keyAt(0);
+                removed[1] = valueAt(0);
+            }
+            return removeAt(0);
+        }
+
+        private HAMT<K, V> removeAt(int index) {
+            if (keysAndValues.length == 4) {
+                int remaining = 1 - index;
+                return new Entry<>(keyAt(remaining), valueAt(remaining), keyHash);
+            }
+
+            Object[] shrunk = new Object[keysAndValues.length - 2];
+            System.arraycopy(keysAndValues, 0, shrunk, 0, index * 2);
+            System.arraycopy(keysAndValues, index * 2 + 2, shrunk, index * 2, shrunk.length - index * 2);
+            return new Collision<>(keyHash, shrunk, sorted, hash - entryHash(valueAt(index)));
+        }
+
+        StrictStack<Entry<K, V>> entries() {
+            StrictStack<Entry<K, V>> entries = strictStack();
+            for (int i = (int) size() - 1; i >= 0; i--)
+                entries = entries.cons(new Entry<>(keyAt(i), valueAt(i), keyHash));
+            return entries;
         }
 
         @Override
         public boolean equals(Object other) {
             if (other instanceof Collision<?, ?>) {
                 Collision<?, ?> collision = (Collision<?, ?>) other;
-                return Objects.equals(keyHash, collision.keyHash) &&
-                        Objects.equals(kvPairs, collision.kvPairs);
+                if (keyHash != collision.keyHash || keysAndValues.length != collision.keysAndValues.length)
+                    return false;
+                for (int i = 0; i < keysAndValues.length; i += 2)
+                    if (!collision.containsEntry(keysAndValues[i], keysAndValues[i + 1]))
+                        return false;
+                return true;
             }
             return false;
         }
+
+        private boolean containsEntry(Object key, Object value) {
+            for (int i = 0; i < keysAndValues.length; i += 2)
+                if (Objects.equals(key, keysAndValues[i]) && Objects.equals(value, keysAndValues[i + 1]))
+                    return true;
+            return false;
+        }
+
+        private int indexOf(K key, EquivalenceRelation<? super K> keyEqRel) {
+            if (sorted && sortable(key, keyEqRel))
+                return binarySearch(key, keyEqRel);
+
+            for (int i = 0; i < keysAndValues.length; i += 2)
+                if (keyEqRel.apply(key, keyAt(i / 2)))
+                    return i / 2;
+            return -(int) size() - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int binarySearch(K key, EquivalenceRelation<? super K> keyEqRel) {
+            Comparable<Object> probe = (Comparable<Object>) key;
+            int                low   = 0;
+            int                high  = (int) size() - 1;
+            while (low <= high) {
+                int mid        = (low + high) >>> 1;
+                int comparison = probe.compareTo(keyAt(mid));
+                if (comparison > 0)
+                    low = mid + 1;
+                else if (comparison < 0)
+                    high = mid - 1;
+                else {
+                    for (int i = mid; i >= 0 && probe.compareTo(keyAt(i)) == 0; i--)
+                        if (keyEqRel.apply(key, keyAt(i)))
+                            return i;
+                    for (int i = mid + 1; i <= high && probe.compareTo(keyAt(i)) == 0; i++)
+                        if (keyEqRel.apply(key, keyAt(i)))
+                            return i;
+                    return -mid - 1;
+                }
+            }
+            return -low - 1;
+        }
+
+        private boolean sortable(K key, EquivalenceRelation<? super K> keyEqRel) {
+            return keyEqRel == OBJECT_EQUALS && key instanceof Comparable<?>
+                    && key.getClass() == keysAndValues[0].getClass();
+        }
+
+        private int entryHash(V value) {
+            return keyHash ^ Objects.hashCode(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private K keyAt(int index) {
+            return (K) keysAndValues[index * 2];
+        }
+
+        @SuppressWarnings("unchecked")
+        private V valueAt(int index) {
+            return (V) keysAndValues[index * 2 + 1];
+        }
+
+        private static boolean allSortable(Object[] keysAndValues, EquivalenceRelation<?> keyEqRel) {
+            if (keyEqRel != OBJECT_EQUALS || !(keysAndValues[0] instanceof Comparable<?>))
+                return false;
+            for (int i = 2; i < keysAndValues.length; i += 2)
+                if (keysAndValues[i] == null || keysAndValues[i].getClass() != keysAndValues[0].getClass())
+                    return false;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object[] sortedByKey(Object[] keysAndValues) {
+            Object[][] pairs = new Object[keysAndValues.length / 2][];
+            for (int i = 0; i < pairs.length; i++)
+                pairs[i] = new Object[]{keysAndValues[i * 2], keysAndValues[i * 2 + 1]};
+            java.util.Arrays.sort(pairs, (x, y) -> ((Comparable<Object>) x[0]).compareTo(y[0]));
+
+            Object[] sorted = new Object[keysAndValues.length];
+            for (int i = 0; i < pairs.length; i++) {
+                sorted[i * 2]     = pairs[i][0];
+                sorted[i * 2 + 1] = pairs[i][1];
+            }
+            return sorted;
+        }
+
+        private static <K, V> Object[] keysAndValues(StrictStack<Entry<K, V>> kvPairs) {
+            Object[] keysAndValues = new Object[kvPairs.sizeInfo().getSize().intValue() * 2];
+            int      i             = 0;
+            for (Entry<K, V> kvPair : kvPairs) {
+                keysAndValues[i++] = kvPair.k;
+                keysAndValues[i++] = kvPair.v;
+            }
+            return keysAndValues;
+        }
+
+        private static <K, V> int entriesHashOf(StrictStack<Entry<K, V>> kvPairs) {
+            int hash = 0;
+            for (Entry<K, V> kvPair : kvPairs)
+                hash += kvPair.hash;
+            return hash;
+        }
+    }
+
+    /**
+     * Builds a {@link HAMT} of given keys and values bottom-up rather than by repeated insertion: entries are stably
+     * partitioned by the bits of their key hashes one level at a time, most significant level first, and every node is
+     * allocated exactly once, already in the canonical shape that inserting the same entries one by one into an empty
+     * trie of the same layout would produce. Later entries override earlier entries with equivalent keys, just as
+     * later insertions would. <code>O(n)</code> for well-distributed hashes.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    final class Builder<K, V> {
+        private static final int MAX_LEVELS = (Integer.SIZE + LEVEL_SIZE - 1) / LEVEL_SIZE;
+
+        private final Object[]                       keys;
+        private final Object[]                       values;
+        private final int[]                          keyHashes;
+        private final EquivalenceRelation<? super K> keyEqRel;
+        private final int[]                          indices;
+        private final int[]                          scratch;
+        private final int[][]                        offsets = new int[MAX_LEVELS][33];
+        private final int[]                          cursors = new int[32];
+
+        Builder(Object[] keys, Object[] values, int[] keyHashes, EquivalenceRelation<? super K> keyEqRel) {
+            this.keys      = keys;
+            this.values    = values;
+            this.keyHashes = keyHashes;
+            this.keyEqRel  = keyEqRel;
+            this.indices   = new int[keys.length];
+            this.scratch   = new int[keys.length];
+            for (int i = 0; i < indices.length; i++)
+                indices[i] = i;
+        }
+
+        Node<K, V> node() {
+            return node(0, indices.length, 0);
+        }
+
+        CompactNode<K, V> compactNode() {
+            return compactNode(0, indices.length, 0);
+        }
+
+        private Node<K, V> node(int from, int to, int shift) {
+            int[]    offsets    = partition(from, to, shift);
+            int      bitmap     = bitmap(offsets);
+            Object[] table      = new Object[bitCount(bitmap)];
+            int      tableIndex = 0;
+            for (int slot = 0; slot < 32; slot++) {
+                int slotFrom = from + offsets[slot];
+                int slotTo   = from + offsets[slot + 1];
+                if (slotFrom != slotTo)
+                    table[tableIndex++] = sameKeyHash(slotFrom, slotTo)
+                                          ? leaf(slotFrom, slotTo)
+                                          : node(slotFrom, slotTo, shift + LEVEL_SIZE);
+            }
+            return new Node<>(bitmap, table);
+        }
+
+        private CompactNode<K, V> compactNode(int from, int to, int shift) {
+            int[]    offsets  = partition(from, to, shift);
+            Object[] children = new Object[bitCount(bitmap(offsets))];
+            int      dataMap  = 0;
+            int      nodeMap  = 0;
+            int      index    = 0;
+            for (int slot = 0; slot < 32; slot++) {
+                int slotFrom = from + offsets[slot];
+                int slotTo   = from + offsets[slot + 1];
+                if (slotFrom == slotTo)
+                    continue;
+
+                // a single entry is inlined, and colliding entries only become a Collision beneath the last level
+                HAMT<K, V> child = sameKeyHash(slotFrom, slotTo) ? leaf(slotFrom, slotTo) : null;
+                if (child == null || !(child instanceof Entry<?, ?>) && shift + LEVEL_SIZE <= 30)
+                    child = compactNode(slotFrom, slotTo, shift + LEVEL_SIZE);
+
+                children[index++] = child;
+                if (child instanceof Entry<?, ?>)
+                    dataMap |= 1 << slot;
+                else
+                    nodeMap |= 1 << slot;
+            }
+
+            int      dataCount = bitCount(dataMap);
+            Object[] content   = new Object[dataCount * 2 + bitCount(nodeMap)];
+            int[]    hashes    = new int[dataCount];
+            long     size      = 0;
+            int      hash      = 0;
+            int      keysHash  = 0;
+            int      dataIndex = 0;
+            int      nodeIndex = 0;
+            for (Object child : children) {
+                HAMT<?, ?> subTrie = (HAMT<?, ?>) child;
+                size     += subTrie.size();
+                hash     += subTrie.entriesHash();
+                keysHash += subTrie.keysHash();
+                if (subTrie instanceof Entry<?, ?>) {
+                    Entry<?, ?> entry = (Entry<?, ?>) subTrie;
+                    content[dataIndex * 2]     = entry.k;
+                    content[dataIndex * 2 + 1] = entry.v;
+                    hashes[dataIndex++]        = entry.keyHash;
+                } else {
+                    content[content.length - 1 - nodeIndex++] = subTrie;
+                }
+            }
+            return new CompactNode<>(dataMap, nodeMap, content, hashes, size, hash, keysHash, null);
+        }
+
+        /**
+         * Stably reorder the indices between <code>from</code> and <code>to</code> by the bitmap index of their key
+         * hashes at <code>shift</code>, returning where each bitmap index begins relative to <code>from</code>. The
+         * returned offsets are only reused for the next partition at the same level.
+         */
+        private int[] partition(int from, int to, int shift) {
+            int[] offsets = this.offsets[shift / LEVEL_SIZE];
+            java.util.Arrays.fill(offsets, 0);
+            for (int i = from; i < to; i++)
+                offsets[Node.bitmapIndex(keyHashes[indices[i]], shift) + 1]++;
+            for (int slot = 0; slot < 32; slot++)
+                offsets[slot + 1] += offsets[slot];
+
+            System.arraycopy(offsets, 0, cursors, 0, 32);
+            for (int i = from; i < to; i++)
+                scratch[from + cursors[Node.bitmapIndex(keyHashes[indices[i]], shift)]++] = indices[i];
+            System.arraycopy(scratch, from, indices, from, to - from);
+            return offsets;
+        }
+
+        private boolean sameKeyHash(int from, int to) {
+            int keyHash = keyHashes[indices[from]];
+            for (int i = from + 1; i < to; i++)
+                if (keyHashes[indices[i]] != keyHash)
+                    return false;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private HAMT<K, V> leaf(int from, int to) {
+            int        keyHash = keyHashes[indices[from]];
+            HAMT<K, V> leaf    = new Entry<>((K) keys[indices[from]], (V) values[indices[from]], keyHash);
+            for (int i = from + 1; i < to; i++)
+                leaf = leaf.put((K) keys[indices[i]], (V) values[indices[i]], keyHash, keyEqRel, 0, null);
+            return leaf;
+        }
+
+        private static int bitmap(int[] offsets) {
+            int bitmap = 0;
+            for (int slot = 0; slot < 32; slot++)
+                if (offsets[slot + 1] != offsets[slot])
+                    bitmap = setBit(bitmap, slot);
+            return bitmap;
+        }
+    }
+
+    /**
+     * A depth-first {@link Iterator} over any {@link HAMT} that tracks its position with an explicit stack of node
+     * tables and offsets rather than nested iterators, so the only per-element allocation is whatever the caller
+     * projects each key and value into. Since every node consumes {@link HAMT#LEVEL_SIZE} bits of a 32-bit hash, no
+     * path through a {@link HAMT} visits more than {@link Cursor#MAX_DEPTH} nodes, counting the {@link Collision} that
+     * may sit at the bottom of it.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    final class Cursor<K, V> implements Iterator<Tuple2<K, V>> {
+        private static final int MAX_DEPTH = (Integer.SIZE + LEVEL_SIZE - 1) / LEVEL_SIZE + 1;
+
+        private final Object[][] tables     = new Object[MAX_DEPTH][];
+        private final int[]      offsets    = new int[MAX_DEPTH];
+        private final int[]      dataLimits = new int[MAX_DEPTH];
+
+        private int     depth;
+        private boolean hasNext;
+        private K       nextKey;
+        private V       nextValue;
+
+        Cursor(HAMT<K, V> root) {
+            if (root instanceof Node<?, ?> || root instanceof CompactNode<?, ?>)
+                descend(root);
+            else
+                tables[0] = new Object[]{root};
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public Tuple2<K, V> next() {
+            return next(HList::tuple);
+        }
+
+        <A> A next(Fn2<? super K, ? super V, ? extends A> projection) {
+            if (!hasNext)
+                throw new NoSuchElementException();
+
+            K key   = nextKey;
+            V value = nextValue;
+            advance();
+            return projection.apply(key, value);
+        }
+
+        private void descend(Object node) {
+            if (node instanceof CompactNode<?, ?>) {
+                CompactNode<?, ?> compactNode = (CompactNode<?, ?>) node;
+                tables[depth]     = compactNode.content;
+                dataLimits[depth] = compactNode.dataLength();
+            } else if (node instanceof Collision<?, ?>) {
+                Collision<?, ?> collision = (Collision<?, ?>) node;
+                tables[depth]     = collision.keysAndValues;
+                dataLimits[depth] = collision.keysAndValues.length;
+            } else {
+                tables[depth]     = ((Node<?, ?>) node).table;
+                dataLimits[depth] = 0;
+            }
+            offsets[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (true) {
+                if (depth < 0) {
+                    hasNext   = false;
+                    nextKey   = null;
+                    nextValue = null;
+                    return;
+                }
+
+                Object[] table  = tables[depth];
+                int      offset = offsets[depth];
+                if (offset < dataLimits[depth]) {
+                    offsets[depth] = offset + 2;
+                    emit((K) table[offset], (V) table[offset + 1]);
+                    return;
+                }
+
+                if (offset == table.length) {
+                    tables[depth--] = null;
+                    continue;
+                }
+
+                Object body = table[offsets[depth]++];
+                if (body instanceof Entry<?, ?>) {
+                    Entry<K, V> entry = (Entry<K, V>) body;
+                    emit(entry.k, entry.v);
+                    return;
+                }
+
+                depth++;
+                descend(body);
+            }
+        }
+
+        private void emit(K key, V value) {
+            hasNext   = true;
+            nextKey   = key;
+            nextValue = value;
+        }
+    }
+
+    /**
+     * A {@link Spliterator} over any {@link HAMT} that splits along node table boundaries, descending into a lone
+     * remaining sub-trie when there is nothing left to split at the current level. The table of a {@link CompactNode}
+     * is treated as its inline entries followed by its sub-tries. Each element is produced by applying a projection
+     * to a key and value. Since every {@link HAMT} knows its own size, every {@link Splitter} knows its exact size as
+     * well.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param <A> the element type
+     */
+    final class Splitter<K, V, A> implements Spliterator<A> {
+        private static final int CHARACTERISTICS = SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+        private final Fn2<? super K, ? super V, ? extends A> projection;
+
+        private Object[]     table;
+        private int          dataCount;
+        private boolean      compact;
+        private int          from;
+        private int          to;
+        private long         size;
+        private Cursor<K, V> cursor;
+
+        private Splitter(Object[] table, int dataCount, boolean compact, int from, int to, long size,
+                         Fn2<? super K, ? super V, ? extends A> projection) {
+            this.table      = table;
+            this.dataCount  = dataCount;
+            this.compact    = compact;
+            this.from       = from;
+            this.to         = to;
+            this.size       = size;
+            this.projection = projection;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super A> action) {
+            while (cursor == null || !cursor.hasNext()) {
+                if (from == to)
+                    return false;
+
+                int unit = from++;
+                if (unit < dataCount) {
+                    size--;
+                    action.accept(projection.apply((K) table[unit * 2], (V) table[unit * 2 + 1]));
+                    return true;
+                }
+                cursor = new Cursor<>((HAMT<K, V>) subTrie(unit));
+            }
+
+            size--;
+            action.accept(cursor.next(projection));
+            return true;
+        }
+
+        @Override
+        public Spliterator<A> trySplit() {
+            if (to - from == 1 && from >= dataCount) {
+                Object only = subTrie(from);
+                if (only instanceof Node<?, ?> || only instanceof CompactNode<?, ?>) {
+                    focus(only);
+                    from = 0;
+                }
+            }
+
+            if (to - from < 2)
+                return null;
+
+            int  prefixFrom = from;
+            int  mid        = (from + to) >>> 1;
+            long prefixSize = 0;
+            for (int unit = prefixFrom; unit < mid; unit++)
+                prefixSize += unit < dataCount ? 1 : ((HAMT<?, ?>) subTrie(unit)).size();
+            from = mid;
+            size -= prefixSize;
+            return new Splitter<>(table, dataCount, compact, prefixFrom, mid, prefixSize, projection);
+        }
+
+        @Override
+        public long estimateSize() {
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        private Object subTrie(int unit) {
+            return compact ? table[table.length - 1 - (unit - dataCount)] : table[unit];
+        }
+
+        private void focus(Object node) {
+            if (node instanceof CompactNode<?, ?>) {
+                CompactNode<?, ?> compactNode = (CompactNode<?, ?>) node;
+                table     = compactNode.content;
+                dataCount = bitCount(compactNode.dataMap);
+                compact   = true;
+                to        = dataCount + bitCount(compactNode.nodeMap);
+            } else {
+                table     = ((Node<?, ?>) node).table;
+                dataCount = 0;
+                compact   = false;
+                to        = table.length;
+            }
+        }
+
+        static <K, V, A> Splitter<K, V, A> splitter(HAMT<K, V> root,
+                                                    Fn2<? super K, ? super V, ? extends A> projection) {
+            Splitter<K, V, A> splitter = new Splitter<>(new Object[]{root}, 0, false, 0, 1, root.size(),
+                                                        projection);
+            if (root instanceof Node<?, ?> || root instanceof CompactNode<?, ?>)
+                splitter.focus(root);
+            return splitter;
+        }
     }
 }
@@ -1,38 +1,46 @@
 package com.jnape.palatable.shoki.impl;
 
 import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.lambda.adt.hlist.HList;
 import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.lambda.functions.Fn1;
+import com.jnape.palatable.lambda.functions.Fn2;
 import com.jnape.palatable.lambda.functions.builtin.fn1.Empty;
 import com.jnape.palatable.lambda.functions.builtin.fn1.Head;
 import com.jnape.palatable.lambda.semigroup.Semigroup;
+import com.jnape.palatable.shoki.api.Collection;
 import com.jnape.palatable.shoki.api.EquivalenceRelation;
 import com.jnape.palatable.shoki.api.HashingAlgorithm;
 import com.jnape.palatable.shoki.api.Map;
 import com.jnape.palatable.shoki.api.Natural;
 import com.jnape.palatable.shoki.api.Set;
 import com.jnape.palatable.shoki.api.SizeInfo.Known;
+import com.jnape.palatable.shoki.impl.HAMT.Builder;
+import com.jnape.palatable.shoki.impl.HAMT.CompactNode;
+import com.jnape.palatable.shoki.impl.HAMT.Node;
 
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
 
+import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.maybe;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.lambda.adt.Try.trying;
-import static com.jnape.palatable.lambda.functions.Fn2.curried;
 import static com.jnape.palatable.lambda.functions.builtin.fn1.Constantly.constantly;
 import static com.jnape.palatable.lambda.functions.builtin.fn1.Downcast.downcast;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
-import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.equivalent;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
-import static com.jnape.palatable.shoki.api.HashingAlgorithm.hash;
 import static com.jnape.palatable.shoki.api.HashingAlgorithm.objectHashCode;
 import static com.jnape.palatable.shoki.api.Map.EquivalenceRelations.entries;
-import static com.jnape.palatable.shoki.api.Map.HashingAlgorithms.entries;
-import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.Natural.abs;
 import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HAMT.CompactNode.emptyCompactNode;
 import static com.jnape.palatable.shoki.impl.HAMT.Node.rootNode;
-import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.HAMT.Splitter.splitter;
 import static com.jnape.palatable.shoki.impl.StrictQueue.strictQueue;
 import static java.lang.String.format;
 import static java.lang.String.join;
@@ -103,6 +111,14 @@ import static java.lang.String.join;
  * of distribution from <code>K -&gt; {@link Integer}</code> is important to maintain optimal performance
  * characteristics.
  * <p>
+ * Alternatively, a {@link HashMap} created via {@link HashMap#compactHashMap(Tuple2[]) compactHashMap} uses the
+ * <a href="https://michael.steindorfer.name/publications/oopsla15.pdf" target="_new">CHAMP</a> node layout, which
+ * tracks values and sub-tries in two separate bitmaps, stores keys and values inline rather than wrapping each pair in
+ * an entry object, and keeps every trie in a canonical shape on removal. This roughly halves the memory spent per entry
+ * and improves iteration locality, at the cost of more array shuffling when an inline entry is pushed down into a new
+ * sub-trie. Operations between two {@link HashMap HashMaps} that walk both tries together require both to share a
+ * layout, and otherwise fall back to entry-by-entry implementations.
+ * <p>
  * Finally, a {@link HashMap} can be configured upon creation with custom {@link EquivalenceRelation equality} and
  * {@link HashingAlgorithm hashing} semantics, obviating the need to rely on
  * {@link Object#equals(Object) Object equality} and {@link Object#hashCode() Object hashCode} unless specifically
@@ -116,17 +132,16 @@ import static java.lang.String.join;
  */
 public final class HashMap<K, V> implements Map<Natural, K, V> {
 
-    private static final HashMap<?, ?> EMPTY_OBJECT_DEFAULTS =
+    private static final HashMap<?, ?> EMPTY_OBJECT_DEFAULTS         =
             new HashMap<>(objectEquals(), objectHashCode(), rootNode());
+    private static final HashMap<?, ?> EMPTY_COMPACT_OBJECT_DEFAULTS =
+            new HashMap<>(objectEquals(), objectHashCode(), emptyCompactNode());
 
     private final EquivalenceRelation<? super K> keyEqRel;
     private final HashingAlgorithm<? super K>    keyHashAlg;
     private final HAMT<K, V>                     hamt;
 
-    private volatile Natural size;
-    private volatile Integer hashCode;
-
-    private HashMap(EquivalenceRelation<? super K> keyEqRel, HashingAlgorithm<? super K> keyHashAlg, HAMT<K, V> hamt) {
+    HashMap(EquivalenceRelation<? super K> keyEqRel, HashingAlgorithm<? super K> keyHashAlg, HAMT<K, V> hamt) {
         this.keyEqRel   = keyEqRel;
         this.keyHashAlg = keyHashAlg;
         this.hamt       = hamt;
@@ -143,7 +158,22 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
      */
     @Override
     public Maybe<V> get(K key) {
-        return maybe(hamt.get(key, keyHashAlg.apply(key), keyEqRel, 0));
+        return maybe(getOrNull(key));
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link HashMap}, retrieve the value it maps to;
+     * otherwise, return <code>defaultValue</code>. Unlike {@link HashMap#get(Object)}, this lookup allocates nothing.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if <code>key</code> is not associated to a value
+     * @return the value associated to <code>key</code>, or <code>defaultValue</code>
+     * @see HashMap#get(Object)
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        V value = getOrNull(key);
+        return value != null ? value : defaultValue;
     }
 
     /**
@@ -158,7 +188,7 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
     @Override
     public HashMap<K, V> put(K key, V value) {
         return new HashMap<>(keyEqRel, keyHashAlg,
-                             hamt.put(key, value, keyHashAlg.apply(key), keyEqRel, keyHashAlg, 0));
+                             hamt.put(key, value, keyHashAlg.apply(key), keyEqRel, 0));
     }
 
     /**
@@ -183,25 +213,27 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
      */
     @Override
     public boolean contains(K key) {
-        return get(key).match(constantly(false), constantly(true));
+        return getOrNull(key) != null;
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n)</code>.
+     * The returned {@link HashSet} shares the trie of this {@link HashMap}, in which the keys are already hashed and
+     * indexed, rather than copying it. <code>O(1)</code>.
      */
     @Override
     public HashSet<K> keys() {
-        return foldLeft((keys, kv) -> keys.add(kv._1()), hashSet(keyEqRel, keyHashAlg), this);
+        return HashSet.keyView(this);
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n)</code>.
+     * The returned {@link Collection} is a view over the trie of this {@link HashMap}, producing the values lazily in
+     * iteration order. <code>O(1)</code>.
      */
     @Override
-    public StrictQueue<V> values() {
-        return foldLeft((values, kv) -> values.snoc(kv._2()), strictQueue(), this);
+    public Collection<Natural, V> values() {
+        return new Values<>(this);
     }
 
     /**
@@ -215,13 +247,29 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
 
     /**
      * {@inheritDoc}
-     * <code>O(1)</code>.
+     * The {@link HashMap#head() head} entry is found by following the first populated slot of each trie node, so its
+     * key is never rehashed. <code>O(1)</code>.
      */
     @Override
     public HashMap<K, V> tail() {
-        return head()
-                .fmap(into(curried(headKey -> constantly(remove(headKey)))))
-                .orElse(this);
+        return withHAMT(hamt.removeFirst(null));
+    }
+
+    /**
+     * If this {@link HashMap} is not empty, retrieve {@link Maybe#just(Object) just} its {@link HashMap#head() head}
+     * entry together with its {@link HashMap#tail() tail}, found in a single walk down to the head entry; otherwise,
+     * return {@link Maybe#nothing() nothing}. <code>O(1)</code>.
+     *
+     * @return {@link Maybe} the head entry and the tail
+     */
+    @SuppressWarnings("unchecked")
+    public Maybe<Tuple2<Tuple2<K, V>, HashMap<K, V>>> uncons() {
+        if (isEmpty())
+            return nothing();
+
+        Object[]      removed = new Object[2];
+        HashMap<K, V> tail    = withHAMT(hamt.removeFirst(removed));
+        return just(tuple(tuple((K) removed[0], (V) removed[1]), tail));
     }
 
     /**
@@ -235,10 +283,17 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
 
     /**
      * {@inheritDoc}
-     * Amortized <code>O(o)</code>.
+     * If <code>other</code> is also a {@link HashMap} using the same {@link EquivalenceRelation},
+     * {@link HashingAlgorithm}, and node layout for its keys, both tries are merged in a single simultaneous walk,
+     * reusing any sub-trie populated on only one side without visiting it; otherwise, amortized <code>O(o)</code>.
      */
     @Override
     public HashMap<K, V> merge(Map<Natural, K, V> other, Semigroup<V> semigroup) {
+        if (other instanceof HashMap<?, ?> && trieCompatible((HashMap<?, ?>) other)) {
+            HashMap<K, V> otherHashMap = (HashMap<K, V>) other;
+            HAMT<K, V>    merged       = Node.merge(hamt, otherHashMap.hamt, semigroup, keyEqRel, 0);
+            return merged == otherHashMap.hamt ? otherHashMap : withHAMT(merged);
+        }
         return (HashMap<K, V>) Map.super.merge(other, semigroup);
     }
 
@@ -253,21 +308,11 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
 
     /**
      * {@inheritDoc}
-     * Amortized <code>O(1)</code>.
+     * <code>O(1)</code>.
      */
     @Override
-    @SuppressWarnings("DuplicatedCode")
     public Known<Natural> sizeInfo() {
-        Natural size = this.size;
-        if (size == null) {
-            synchronized (this) {
-                size = this.size;
-                if (size == null) {
-                    this.size = size = foldLeft((s, __) -> s.inc(), (Natural) zero(), this);
-                }
-            }
-        }
-        return known(size);
+        return known(abs(hamt.size()));
     }
 
     /**
@@ -278,10 +323,25 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
         return hamt.iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     * The returned {@link Spliterator} splits along the internal trie structure, so independent sub-tries may be
+     * traversed in parallel.
+     */
+    @Override
+    public Spliterator<Tuple2<K, V>> spliterator() {
+        return splitter(hamt, HList::tuple);
+    }
+
     /**
      * Determine if <code>other</code> is a {@link HashMap} with the
      * {@link Map.EquivalenceRelations#entries(EquivalenceRelation) same entries} as this {@link HashMap}, using
-     * {@link Object#equals(Object) Object equality} to determine value equivalence. <code>O(n)</code>.
+     * {@link Object#equals(Object) Object equality} to determine value equivalence.
+     * <p>
+     * If <code>other</code> uses the same {@link EquivalenceRelation}, {@link HashingAlgorithm}, and node layout for
+     * its keys, both tries are compared node by node, skipping any sub-trie the two share and stopping at the first
+     * differing bitmap; otherwise, each entry of this {@link HashMap} is looked up in <code>other</code>.
+     * <code>O(n)</code>.
      *
      * @param other the {@link Object} to check for equality
      * @return the equality outcome
@@ -289,6 +349,16 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
      */
     @Override
     public boolean equals(Object other) {
+        if (other == this)
+            return true;
+
+        if (other instanceof HashMap<?, ?> && sameLayout((HashMap<?, ?>) other)) {
+            @SuppressWarnings("unchecked") HashMap<K, ?> otherHashMap = (HashMap<K, ?>) other;
+            return trying(() -> HAMT.sameEntries(hamt, otherHashMap.hamt, keyEqRel))
+                    .catching(ClassCastException.class, constantly(false))
+                    .orThrow();
+        }
+
         return other instanceof HashMap<?, ?> &&
                 trying(() -> equivalent(entries(objectEquals()), this, downcast(other)))
                         .catching(ClassCastException.class, constantly(false))
@@ -296,23 +366,138 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
     }
 
     /**
-     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link HashMap}.
-     * Amortized <code>O(1)</code>.
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link HashMap}, agreeing with
+     * {@link Map.HashingAlgorithms#entries(HashingAlgorithm, HashingAlgorithm) entries} hashing under this
+     * {@link HashMap HashMap's} key {@link HashingAlgorithm} and {@link Object#hashCode() Object hashCode} for values.
+     * Since entry hashes are combined by summation, every node keeps a running total of the entries beneath it, updated
+     * in constant time per node along the path of each {@link HashMap#put(Object, Object) put} or
+     * {@link HashMap#remove(Object) remove}. <code>O(1)</code>.
      *
      * @return the hash code
      */
     @Override
     public int hashCode() {
-        Integer hashCode = this.hashCode;
-        if (hashCode == null) {
-            synchronized (this) {
-                hashCode = this.hashCode;
-                if (hashCode == null) {
-                    this.hashCode = hashCode = hash(entries(keyHashAlg, objectHashCode()), this);
-                }
-            }
-        }
-        return hashCode;
+        return hamt.entriesHash();
+    }
+
+    boolean sameKeys(HashMap<?, ?> other) {
+        @SuppressWarnings("unchecked") HashMap<K, ?> otherHashMap = (HashMap<K, ?>) other;
+        return trying(() -> sameLayout(other)
+                            ? HAMT.sameKeys(hamt, otherHashMap.hamt, keyEqRel)
+                            : hamt.size() == otherHashMap.hamt.size() && otherHashMap.containsKeysOf(this))
+                .catching(ClassCastException.class, constantly(false))
+                .orThrow();
+    }
+
+    int keysHashCode() {
+        return hamt.keysHash();
+    }
+
+    V getOrNull(K key) {
+        return hamt.get(key, keyHashAlg.apply(key), keyEqRel, 0);
+    }
+
+    boolean sameKey(K key, K otherKey) {
+        return keyEqRel.apply(key, otherKey);
+    }
+
+    boolean trieCompatible(HashMap<?, ?> other) {
+        return hamt instanceof Node<?, ?> && sameLayout(other);
+    }
+
+    private boolean sameLayout(HashMap<?, ?> other) {
+        return hamt.getClass() == other.hamt.getClass()
+                && Objects.equals(keyEqRel, other.keyEqRel) && Objects.equals(keyHashAlg, other.keyHashAlg);
+    }
+
+    Spliterator<K> keySpliterator() {
+        return splitter(hamt, (k, __) -> k);
+    }
+
+    HashMap<K, V> retainKeys(HashMap<K, ?> other) {
+        return withHAMT(Node.intersection(hamt, other.hamt, keyEqRel, 0));
+    }
+
+    HashMap<K, V> removeKeys(HashMap<K, ?> other) {
+        return withHAMT(Node.difference(hamt, other.hamt, keyEqRel, 0));
+    }
+
+    HashMap<K, V> symmetricDifference(HashMap<K, V> other) {
+        HAMT<K, V> symmetricDifference = Node.symmetricDifference(hamt, other.hamt, keyEqRel, 0);
+        return symmetricDifference == other.hamt ? other : withHAMT(symmetricDifference);
+    }
+
+    HashMap<K, V> zip(HashMap<K, V> other, Fn2<V, V, V> both, Fn1<V, V> onlyThis, Fn1<V, V> onlyOther) {
+        HAMT<K, V> zipped = Node.zip(hamt, other.hamt, both, onlyThis, onlyOther, keyEqRel, 0);
+        return zipped == other.hamt ? other : withHAMT(zipped);
+    }
+
+    private boolean containsKeysOf(HashMap<K, ?> other) {
+        for (Tuple2<K, ?> kv : other)
+            if (!contains(kv._1()))
+                return false;
+        return true;
+    }
+
+    private HashMap<K, V> withHAMT(HAMT<K, V> hamt) {
+        return hamt == this.hamt
+               ? this
+               : new HashMap<>(keyEqRel, keyHashAlg, hamt != null ? hamt : rootNode());
+    }
+
+    /**
+     * Produce the sub-map of this {@link HashMap} holding exactly the entries whose key hashes, according to its
+     * {@link HashingAlgorithm}, agree with <code>prefix</code> in their lowest <code>prefixBits</code> bits. Since the
+     * trie branches on the lowest hash bits first, the slice is found by walking <code>prefixBits</code> bits down from
+     * the root, and every sub-trie beneath that point is shared with this {@link HashMap} rather than scanned or
+     * copied. <code>O(1)</code>.
+     *
+     * @param prefix     the hash prefix, of which only the lowest <code>prefixBits</code> bits are considered
+     * @param prefixBits the number of hash bits to match, between <code>0</code> and <code>32</code>
+     * @return the sub-map
+     * @throws IllegalArgumentException if <code>prefixBits</code> is out of range
+     * @see HashMap#partition(int)
+     */
+    public HashMap<K, V> slice(int prefix, int prefixBits) {
+        if (prefixBits < 0 || prefixBits > Integer.SIZE)
+            throw new IllegalArgumentException("prefixBits must be between 0 and 32: " + prefixBits);
+
+        return withHAMT(hamt instanceof CompactNode<?, ?>
+                        ? CompactNode.slice(hamt, prefix, prefixBits, 0)
+                        : Node.slice(hamt, prefix, prefixBits, 0));
+    }
+
+    /**
+     * Split this {@link HashMap} into <code>2^bits</code> disjoint sub-maps by the lowest <code>bits</code> bits of
+     * their key hashes, such that the sub-map at index <code>i</code> is this {@link HashMap}
+     * {@link HashMap#slice(int, int) sliced} by <code>i</code>. Each sub-map shares its sub-tries with this
+     * {@link HashMap}, so <code>O(2^bits)</code> regardless of the number of entries.
+     *
+     * @param bits the number of hash bits to partition by, between <code>0</code> and <code>30</code>
+     * @return the sub-maps, in order of their hash prefix
+     * @throws IllegalArgumentException if <code>bits</code> is out of range
+     * @see HashMap#slice(int, int)
+     */
+    public StrictQueue<HashMap<K, V>> partition(int bits) {
+        if (bits < 0 || bits > Integer.SIZE - 2)
+            throw new IllegalArgumentException("bits must be between 0 and 30: " + bits);
+
+        StrictQueue<HashMap<K, V>> partitions = strictQueue();
+        for (int prefix = 0; prefix < 1 << bits; prefix++)
+            partitions = partitions.snoc(slice(prefix, bits));
+        return partitions;
+    }
+
+    /**
+     * Produce a {@link TransientHashMap} seeded with the entries of this {@link HashMap}, suitable for performing a
+     * batch of edits without copying every trie node along the path of each individual edit. This {@link HashMap} is
+     * unaffected by any edits made against the {@link TransientHashMap}. <code>O(1)</code>.
+     *
+     * @return the {@link TransientHashMap}
+     * @see TransientHashMap#persistent()
+     */
+    public TransientHashMap<K, V> toTransient() {
+        return new TransientHashMap<>(keyEqRel, keyHashAlg, hamt);
     }
 
     /**
@@ -358,10 +543,113 @@ public final class HashMap<K, V> implements Map<Natural, K, V> {
         return hashMap(empty, entries);
     }
 
+    /**
+     * Create a {@link HashMap} with the {@link HashMap CHAMP node layout} using the given {@link EquivalenceRelation}
+     * and {@link HashingAlgorithm} for its keys, populated by zero or more given entries.
+     *
+     * @param keyEquivalenceRelation the {@link EquivalenceRelation}
+     * @param keyHashingAlgorithm    the {@link HashingAlgorithm}
+     * @param entries                the entries
+     * @param <K>                    the key type
+     * @param <V>                    the value type
+     * @return the {@link HashMap}
+     */
+    @SafeVarargs
+    public static <K, V> HashMap<K, V> compactHashMap(EquivalenceRelation<? super K> keyEquivalenceRelation,
+                                                      HashingAlgorithm<? super K> keyHashingAlgorithm,
+                                                      Tuple2<K, V>... entries) {
+        return hashMap(new HashMap<>(keyEquivalenceRelation, keyHashingAlgorithm, emptyCompactNode()), entries);
+    }
+
+    /**
+     * Create a {@link HashMap} with the {@link HashMap CHAMP node layout} using
+     * {@link Objects#equals(Object, Object) Object equality} and {@link Objects#hashCode(Object) Object hashCode} as
+     * the {@link EquivalenceRelation} and {@link HashingAlgorithm}, respectively, for its keys, populated by zero or
+     * more given entries.
+     *
+     * @param entries the entries
+     * @param <K>     the key type
+     * @param <V>     the value type
+     * @return the {@link HashMap}
+     */
+    @SafeVarargs
+    public static <K, V> HashMap<K, V> compactHashMap(Tuple2<K, V>... entries) {
+        @SuppressWarnings("unchecked") HashMap<K, V> empty = (HashMap<K, V>) EMPTY_COMPACT_OBJECT_DEFAULTS;
+        return hashMap(empty, entries);
+    }
+
     @SafeVarargs
     private static <K, V> HashMap<K, V> hashMap(HashMap<K, V> hashMap, Tuple2<K, V>... entries) {
-        for (Tuple2<K, V> entry : entries)
-            hashMap = entry.into(hashMap::put);
-        return hashMap;
+        if (entries.length == 0)
+            return hashMap;
+
+        Object[] keys   = new Object[entries.length];
+        Object[] values = new Object[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i]   = entries[i]._1();
+            values[i] = entries[i]._2();
+        }
+        return build(hashMap, keys, values);
+    }
+
+    /**
+     * Build a {@link HashMap} with the same key semantics and node layout as the empty <code>hashMap</code>,
+     * associating each of <code>keys</code> to the value at the same index in <code>values</code>. The trie is built
+     * bottom-up in one pass, rather than by copying the path of every individual insertion. Later keys override
+     * earlier equivalent keys, just as successive {@link HashMap#put(Object, Object) puts} would.
+     */
+    static <K, V> HashMap<K, V> build(HashMap<K, V> hashMap, Object[] keys, Object[] values) {
+        int[] keyHashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked") K key = (K) keys[i];
+            keyHashes[i] = hashMap.keyHashAlg.apply(key);
+        }
+        Builder<K, V> builder = new Builder<>(keys, values, keyHashes, hashMap.keyEqRel);
+        HAMT<K, V>    hamt    = hashMap.hamt instanceof CompactNode<?, ?> ? builder.compactNode() : builder.node();
+        return new HashMap<>(hashMap.keyEqRel, hashMap.keyHashAlg, hamt);
+    }
+
+    private static final class Values<V> implements Collection<Natural, V> {
+        private final HashMap<?, V> hashMap;
+
+        private Values(HashMap<?, V> hashMap) {
+            this.hashMap = hashMap;
+        }
+
+        @Override
+        public Known<Natural> sizeInfo() {
+            return hashMap.sizeInfo();
+        }
+
+        @Override
+        public Maybe<V> head() {
+            return hashMap.head().fmap(Tuple2::_2);
+        }
+
+        @Override
+        public Values<V> tail() {
+            HashMap<?, V> tail = hashMap.tail();
+            return tail == hashMap ? this : new Values<>(tail);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return hashMap.isEmpty();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return map(Tuple2::_2, hashMap).iterator();
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return splitter(hashMap.hamt, (__, v) -> v);
+        }
+
+        @Override
+        public String toString() {
+            return "Values[" + join(", ", map(Object::toString, this)) + "]";
+        }
     }
 }
@@ -12,15 +12,18 @@ import com.jnape.palatable.shoki.api.SizeInfo.Known;
 
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
 
-import static com.jnape.palatable.lambda.functions.builtin.fn1.Constantly.constantly;
-import static com.jnape.palatable.lambda.functions.builtin.fn1.Id.id;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
-import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
+import static com.jnape.palatable.shoki.api.Natural.abs;
 import static com.jnape.palatable.shoki.api.Natural.zero;
 import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HAMT.Node.drop;
+import static com.jnape.palatable.shoki.impl.HAMT.Node.keep;
 import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
+import static com.jnape.palatable.shoki.impl.StrictQueue.strictQueue;
 import static java.lang.String.format;
 import static java.lang.String.join;
 
@@ -28,33 +31,52 @@ import static java.lang.String.join;
  * A {@link MultiSet} that stores elements internally in a {@link HashMap}, supporting the same time/space performance
  * characteristics. As with {@link HashMap}, a {@link HashMultiSet} can be configured upon creation with custom
  * {@link EquivalenceRelation equality} and {@link HashingAlgorithm hashing} semantics.
+ * <p>
+ * The total of all multiplicities is maintained incrementally as a primitive <code>long</code>, switching over to an
+ * arbitrary-precision {@link Natural} only if it outgrows one, so that {@link HashMultiSet#sizeInfo() sizeInfo} is
+ * <code>O(1)</code>. Multiplicities of up to 1,024 are shared {@link NonZero} instances, so incrementing or
+ * decrementing a small multiplicity allocates no new {@link Natural}; only larger multiplicities are allocated per
+ * update.
  *
  * @param <A> the element type
  */
 public final class HashMultiSet<A> implements MultiSet<A> {
 
-    private static final HashMultiSet<?> EMPTY_OBJECT_DEFAULTS = new HashMultiSet<>(hashMap());
+    private static final HashMultiSet<?> EMPTY_OBJECT_DEFAULTS = new HashMultiSet<>(hashMap(), 0, null, null);
 
-    private final HashMap<A, NonZero> multiplicityMap;
+    private final    HashMap<A, NonZero> multiplicityMap;
+    private final    long                size;
+    private final    Natural             largeSize;
+    private volatile TopK<A>             topK;
 
-    private volatile Natural size;
-
-    private HashMultiSet(HashMap<A, NonZero> multiplicityMap) {
+    private HashMultiSet(HashMap<A, NonZero> multiplicityMap, long size, Natural largeSize, TopK<A> topK) {
         this.multiplicityMap = multiplicityMap;
+        this.size            = size;
+        this.largeSize       = largeSize;
+        this.topK            = topK;
     }
 
     /**
      * {@inheritDoc}
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, reusing any sub-trie populated on only one side without visiting it; otherwise,
      * <code>O(o)</code>.
      */
     @Override
     public HashMultiSet<A> sum(MultiSet<A> other) {
-        return (HashMultiSet<A>) MultiSet.super.sum(other);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.sum(other);
+
+        HashMultiSet<A> otherHashMultiSet = (HashMultiSet<A>) other;
+        return combined(otherHashMultiSet,
+                        multiplicityMap.zip(otherHashMultiSet.multiplicityMap, NonZero::plus, keep(), keep()),
+                        sizeInfo().getSize().plus(otherHashMultiSet.sizeInfo().getSize()));
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n)</code>.
+     * The returned {@link HashSet} shares the trie of this {@link HashMultiSet} rather than copying it; see
+     * {@link HashMap#keys()}. <code>O(1)</code>.
      */
     @Override
     public HashSet<A> unique() {
@@ -67,7 +89,9 @@ public final class HashMultiSet<A> implements MultiSet<A> {
      */
     @Override
     public HashMultiSet<A> inc(A a, NonZero k) {
-        return new HashMultiSet<>(multiplicityMap.put(a, multiplicityMap.get(a).fmap(k::plus).orElse(k)));
+        NonZero multiplicity = multiplicityMap.getOrNull(a);
+        NonZero incremented  = multiplicity == null ? k : multiplicity.plus(k);
+        return resized(multiplicityMap.put(a, incremented), a, incremented, zero(), k);
     }
 
     /**
@@ -76,12 +100,14 @@ public final class HashMultiSet<A> implements MultiSet<A> {
      */
     @Override
     public HashMultiSet<A> dec(A a, NonZero k) {
-        return multiplicityMap.get(a)
-                .fmap(n -> new HashMultiSet<>(n.minus(k).orElse(zero())
-                                                      .match(zero -> multiplicityMap.remove(a),
-                                                             difference -> multiplicityMap.put(a, difference))
-                ))
-                .orElse(this);
+        NonZero multiplicity = multiplicityMap.getOrNull(a);
+        if (multiplicity == null)
+            return this;
+
+        return multiplicity.minus(k).orElse(zero())
+                .match(zero -> resized(multiplicityMap.remove(a), a, zero, multiplicity, zero),
+                       difference -> resized(multiplicityMap.put(a, difference), a, difference, multiplicity,
+                                             difference));
     }
 
     /**
@@ -99,7 +125,8 @@ public final class HashMultiSet<A> implements MultiSet<A> {
      */
     @Override
     public HashMultiSet<A> remove(A a) {
-        return new HashMultiSet<>(multiplicityMap.remove(a));
+        NonZero multiplicity = multiplicityMap.getOrNull(a);
+        return multiplicity == null ? this : resized(multiplicityMap.remove(a), a, zero(), multiplicity, zero());
     }
 
     /**
@@ -126,25 +153,17 @@ public final class HashMultiSet<A> implements MultiSet<A> {
      */
     @Override
     public Natural get(A a) {
-        return multiplicityMap.get(a).match(constantly(zero()), id());
+        NonZero multiplicity = multiplicityMap.getOrNull(a);
+        return multiplicity != null ? multiplicity : zero();
     }
 
     /**
      * {@inheritDoc}
-     * Amortized <code>O(1)</code>.
+     * <code>O(1)</code>.
      */
     @Override
     public Known<Natural> sizeInfo() {
-        Natural size = this.size;
-        if (size == null) {
-            synchronized (this) {
-                size = this.size;
-                if (size == null) {
-                    this.size = size = foldLeft(Natural::plus, (Natural) zero(), multiplicityMap.values());
-                }
-            }
-        }
-        return known(size);
+        return known(largeSize != null ? largeSize : abs(size));
     }
 
     /**
@@ -153,7 +172,9 @@ public final class HashMultiSet<A> implements MultiSet<A> {
      */
     @Override
     public HashMultiSet<A> tail() {
-        return new HashMultiSet<>(multiplicityMap.tail());
+        return multiplicityMap.uncons()
+                .fmap(into((head, tail) -> resized(tail, head._1(), zero(), head._2(), zero())))
+                .orElse(this);
     }
 
     /**
@@ -167,47 +188,151 @@ public final class HashMultiSet<A> implements MultiSet<A> {
 
     /**
      * {@inheritDoc}
-     * <code>O(n + o)</code>.
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, skipping any sub-trie absent from either side; otherwise, <code>O(n + o)</code>.
      */
     @Override
     public HashMultiSet<A> intersection(MultiSet<A> other) {
-        return (HashMultiSet<A>) MultiSet.super.intersection(other);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.intersection(other);
+
+        HashMultiSet<A>     otherHashMultiSet = (HashMultiSet<A>) other;
+        NaturalAccumulator  overlap           = new NaturalAccumulator();
+        HashMap<A, NonZero> intersection      = multiplicityMap.zip(otherHashMultiSet.multiplicityMap,
+                                                                    (x, y) -> overlap.count(min(x, y)), drop(), drop());
+        return combined(otherHashMultiSet, intersection, overlap.total());
     }
 
     /**
      * {@inheritDoc}
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, reusing any sub-trie populated on only one side without visiting it; otherwise,
      * <code>O(n + o)</code>.
      */
     @Override
     public HashMultiSet<A> union(MultiSet<A> other) {
-        return (HashMultiSet<A>) MultiSet.super.union(other);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.union(other);
+
+        HashMultiSet<A>     otherHashMultiSet = (HashMultiSet<A>) other;
+        NaturalAccumulator  overlap           = new NaturalAccumulator();
+        HashMap<A, NonZero> union             = multiplicityMap.zip(otherHashMultiSet.multiplicityMap, (x, y) -> {
+            overlap.count(min(x, y));
+            return max(x, y);
+        }, keep(), keep());
+        return combined(otherHashMultiSet, union, sizeInfo().getSize().plus(otherHashMultiSet.sizeInfo().getSize())
+                .minus(overlap.total()).orElse(zero()));
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n + o)</code>.
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, reusing any sub-trie populated only in this {@link HashMultiSet} and skipping any sub-trie
+     * populated only in <code>other</code> without visiting either; otherwise, <code>O(n + o)</code>.
      */
     @Override
     public HashMultiSet<A> difference(MultiSet<A> other) {
-        return (HashMultiSet<A>) MultiSet.super.difference(other);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.difference(other);
+
+        HashMultiSet<A>     otherHashMultiSet = (HashMultiSet<A>) other;
+        NaturalAccumulator  overlap           = new NaturalAccumulator();
+        HashMap<A, NonZero> difference        = multiplicityMap.zip(otherHashMultiSet.multiplicityMap, (x, y) -> {
+            overlap.count(min(x, y));
+            return nonZeroOrNull(x.minus(y));
+        }, keep(), drop());
+        return combined(otherHashMultiSet, difference, sizeInfo().getSize().minus(overlap.total()).orElse(zero()));
     }
 
     /**
      * {@inheritDoc}
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, reusing any sub-trie populated on only one side without visiting it; otherwise,
      * <code>O(n + o)</code>.
      */
     @Override
     public HashMultiSet<A> symmetricDifference(MultiSet<A> other) {
-        return (HashMultiSet<A>) MultiSet.super.symmetricDifference(other);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.symmetricDifference(other);
+
+        HashMultiSet<A>     otherHashMultiSet   = (HashMultiSet<A>) other;
+        NaturalAccumulator  overlap             = new NaturalAccumulator();
+        HashMap<A, NonZero> symmetricDifference = multiplicityMap.zip(otherHashMultiSet.multiplicityMap, (x, y) -> {
+            NonZero min = overlap.count(min(x, y));
+            return nonZeroOrNull(max(x, y).minus(min));
+        }, keep(), keep());
+        Natural             overlapTotal        = overlap.total();
+        Natural             size                = sizeInfo().getSize().plus(otherHashMultiSet.sizeInfo().getSize())
+                .minus(overlapTotal.plus(overlapTotal)).orElse(zero());
+        return combined(otherHashMultiSet, symmetricDifference, size);
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n + o)</code>.
+     * If <code>other</code> is a {@link HashMultiSet} with the same element semantics, both multiplicity tries are
+     * walked simultaneously, applying <code>semigroup</code> once per element and reusing any sub-trie whose
+     * multiplicities all come out unchanged; otherwise, <code>O(n + o)</code>.
      */
     @Override
     public HashMultiSet<A> merge(MultiSet<A> other, Semigroup<Natural> semigroup) {
-        return (HashMultiSet<A>) MultiSet.super.merge(other, semigroup);
+        if (!trieCompatible(other))
+            return (HashMultiSet<A>) MultiSet.super.merge(other, semigroup);
+
+        HashMultiSet<A>     otherHashMultiSet = (HashMultiSet<A>) other;
+        NaturalAccumulator  tally             = new NaturalAccumulator();
+        HashMap<A, NonZero> merged            = multiplicityMap.zip(
+                otherHashMultiSet.multiplicityMap,
+                (x, y) -> tally.count(nonZeroOrNull(semigroup.apply(x, y))),
+                x -> tally.count(nonZeroOrNull(semigroup.apply(x, zero()))),
+                y -> tally.count(nonZeroOrNull(semigroup.apply(zero(), y))));
+        return combined(otherHashMultiSet, merged, tally.total());
+    }
+
+    /**
+     * The (at most) <code>k</code> most frequent elements of this {@link HashMultiSet} paired with their
+     * multiplicities, from most to least frequent, with ties broken arbitrarily. Unless this {@link HashMultiSet} is
+     * {@link HashMultiSet#trackingTopK(int) tracking} at least <code>k</code> elements, selects them with a single
+     * pass through a bounded heap in <code>O(n log k)</code>; otherwise, <code>O(k)</code>.
+     *
+     * @param k the maximum number of elements to produce
+     * @return the most frequent elements and their multiplicities
+     * @throws IllegalArgumentException if <code>k</code> is negative
+     */
+    public StrictQueue<Tuple2<A, NonZero>> topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative: " + k);
+
+        TopK<A> topK = this.topK;
+        if (topK == null || topK.k < k)
+            return TopK.rank(this, k).first(k);
+
+        if (topK.isStale())
+            this.topK = topK = TopK.rank(this, topK.k);
+        return topK.first(k);
+    }
+
+    /**
+     * Produce a {@link HashMultiSet} with the same elements as this one that keeps its <code>k</code> most frequent
+     * elements ranked, so that subsequent calls to {@link HashMultiSet#topK(int) topK} for up to <code>k</code>
+     * elements don't need to scan. The ranking is carried through {@link HashMultiSet#inc(Object, NonZero) inc},
+     * {@link HashMultiSet#dec(Object, NonZero) dec}, {@link HashMultiSet#remove(Object) remove}, and
+     * {@link HashMultiSet#tail() tail} in <code>O(k)</code>, and any other operation hands it on to be rebuilt by
+     * the next query. A decrement that might let an element outside the ranking overtake one inside it also defers
+     * the ranking to the next query, which rebuilds it in <code>O(n log k)</code> once for every subsequent query
+     * against the same {@link HashMultiSet}. <code>O(n log k)</code>.
+     *
+     * @param k the number of elements to keep ranked
+     * @return the tracking {@link HashMultiSet}
+     * @throws IllegalArgumentException if <code>k</code> is negative
+     */
+    public HashMultiSet<A> trackingTopK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative: " + k);
+
+        TopK<A> topK = this.topK;
+        return topK != null && topK.k == k && !topK.isStale()
+               ? this
+               : new HashMultiSet<>(multiplicityMap, size, largeSize, TopK.rank(this, k));
     }
 
     /**
@@ -218,6 +343,16 @@ public final class HashMultiSet<A> implements MultiSet<A> {
         return multiplicityMap.iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     * The returned {@link Spliterator} splits along the internal trie structure, so independent sub-tries may be
+     * traversed in parallel.
+     */
+    @Override
+    public Spliterator<Tuple2<A, NonZero>> spliterator() {
+        return multiplicityMap.spliterator();
+    }
+
     /**
      * Returns <code>true</code> if <code>other</code> is a {@link HashMultiSet} and
      * {@link EquivalenceRelation equivalent} to this {@link HashMultiSet} according to the underlying
@@ -234,7 +369,7 @@ public final class HashMultiSet<A> implements MultiSet<A> {
 
     /**
      * Compute the corresponding {@link Object#hashCode() hash code} for this {@link HashMultiSet}.
-     * Amortized <code>O(1)</code>.
+     * Maintained incrementally by the backing {@link HashMap}; see {@link HashMap#hashCode()}. <code>O(1)</code>.
      *
      * @return the hash code
      */
@@ -267,7 +402,71 @@ public final class HashMultiSet<A> implements MultiSet<A> {
     public static <A> HashMultiSet<A> hashMultiSet(EquivalenceRelation<? super A> equivalenceRelation,
                                                    HashingAlgorithm<? super A> hashingAlgorithm,
                                                    A... as) {
-        return hashMultiSet(new HashMultiSet<>(hashMap(equivalenceRelation, hashingAlgorithm)), as);
+        return hashMultiSet(new HashMultiSet<>(hashMap(equivalenceRelation, hashingAlgorithm), 0, null, null), as);
+    }
+
+    /**
+     * Swap in <code>multiplicityMap</code>, in which <code>a</code> now occurs <code>multiplicity</code> times,
+     * adjusting the running total by the difference between <code>next</code> and <code>previous</code>. The total
+     * stays in a <code>long</code> unless either multiplicity or the result does not fit in one.
+     */
+    private HashMultiSet<A> resized(HashMap<A, NonZero> multiplicityMap, A a, Natural multiplicity, Natural previous,
+                                    Natural next) {
+        if (multiplicityMap == this.multiplicityMap)
+            return this;
+
+        TopK<A> topK         = this.topK;
+        TopK<A> updatedTopK  = topK == null ? null : topK.updated(a, multiplicity, multiplicityMap);
+        long    previousLong = previous.longValue();
+        long    nextLong     = next.longValue();
+        if (largeSize == null && previousLong != Long.MAX_VALUE && nextLong != Long.MAX_VALUE) {
+            long delta = nextLong - previousLong;
+            long sum   = size + delta;
+            if (((size ^ sum) & (delta ^ sum)) >= 0 && sum != Long.MAX_VALUE)
+                return new HashMultiSet<>(multiplicityMap, sum, null, updatedTopK);
+        }
+
+        return sized(multiplicityMap, sizeInfo().getSize().plus(next).minus(previous).orElse(zero()), updatedTopK);
+    }
+
+    private boolean trieCompatible(MultiSet<A> other) {
+        return other instanceof HashMultiSet<?>
+                && multiplicityMap.trieCompatible(((HashMultiSet<?>) other).multiplicityMap);
+    }
+
+    private HashMultiSet<A> combined(HashMultiSet<A> other, HashMap<A, NonZero> multiplicityMap, Natural size) {
+        return multiplicityMap == this.multiplicityMap
+               ? this
+               : multiplicityMap == other.multiplicityMap
+                 ? other
+                 : sized(multiplicityMap, size, topK == null ? null : TopK.stale(topK.k));
+    }
+
+    private static <A> HashMultiSet<A> sized(HashMap<A, NonZero> multiplicityMap, Natural size, TopK<A> topK) {
+        long sizeLong = size.longValue();
+        return sizeLong != Long.MAX_VALUE
+               ? new HashMultiSet<>(multiplicityMap, sizeLong, null, topK)
+               : new HashMultiSet<>(multiplicityMap, 0, size, topK);
+    }
+
+    private static NonZero min(NonZero x, NonZero y) {
+        return lte(x, y) ? x : y;
+    }
+
+    private static NonZero max(NonZero x, NonZero y) {
+        return lte(x, y) ? y : x;
+    }
+
+    private static boolean lte(NonZero x, NonZero y) {
+        return x.compareTo(y) <= 0;
+    }
+
+    private static NonZero nonZeroOrNull(Natural natural) {
+        return natural.projectB().orElse(null);
+    }
+
+    private static NonZero nonZeroOrNull(Maybe<Natural> natural) {
+        return natural.flatMap(Natural::projectB).orElse(null);
     }
 
     private static <A> HashMultiSet<A> hashMultiSet(HashMultiSet<A> hashMultiSet, A[] as) {
@@ -291,4 +490,167 @@ public final class HashMultiSet<A> implements MultiSet<A> {
         HashMultiSet<A> emptyObjectDefaults = (HashMultiSet<A>) EMPTY_OBJECT_DEFAULTS;
         return hashMultiSet(emptyObjectDefaults, as);
     }
+
+    /**
+     * The most frequent elements of a {@link HashMultiSet} and their multiplicities, from most to least frequent:
+     * either all of its elements if it has at most <code>k</code>, or <code>k</code> of them none of which is
+     * outnumbered by an element left out. A ranking that an edit may have invalidated is marked stale instead.
+     */
+    private static final class TopK<A> {
+        private final int       k;
+        private final Object[]  elements;
+        private final NonZero[] multiplicities;
+
+        private TopK(int k, Object[] elements, NonZero[] multiplicities) {
+            this.k              = k;
+            this.elements       = elements;
+            this.multiplicities = multiplicities;
+        }
+
+        boolean isStale() {
+            return elements == null;
+        }
+
+        /**
+         * The ranking after <code>a</code> has come to occur <code>multiplicity</code> times in
+         * <code>multiplicityMap</code>.
+         */
+        TopK<A> updated(A a, Natural multiplicity, HashMap<A, NonZero> multiplicityMap) {
+            if (isStale())
+                return this;
+
+            NonZero nonZero = nonZeroOrNull(multiplicity);
+            boolean full    = elements.length == k;
+            int     index   = indexOf(a, multiplicityMap);
+            if (index == -1) {
+                if (nonZero == null || k == 0 || full && lte(nonZero, multiplicities[k - 1]))
+                    return this;
+                return ranked(full ? k - 1 : -1, a, nonZero);
+            }
+
+            if (nonZero == null)
+                return full ? stale(k) : ranked(index, null, null);
+            return full && !lte(multiplicities[k - 1], nonZero) ? stale(k) : ranked(index, a, nonZero);
+        }
+
+        StrictQueue<Tuple2<A, NonZero>> first(int count) {
+            StrictQueue<Tuple2<A, NonZero>> first = strictQueue();
+            for (int i = 0; i < count && i < elements.length; i++) {
+                @SuppressWarnings("unchecked")
+                A element = (A) elements[i];
+                first = first.snoc(tuple(element, multiplicities[i]));
+            }
+            return first;
+        }
+
+        private int indexOf(A a, HashMap<A, NonZero> multiplicityMap) {
+            for (int i = 0; i < elements.length; i++) {
+                @SuppressWarnings("unchecked")
+                A element = (A) elements[i];
+                if (multiplicityMap.sameKey(a, element))
+                    return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Copy this ranking without the element at <code>vacated</code> (if any), then rank <code>a</code> after
+         * every element at least as frequent, unless its <code>multiplicity</code> is <code>null</code>.
+         */
+        private TopK<A> ranked(int vacated, A a, NonZero multiplicity) {
+            int       length            = elements.length + (vacated == -1 ? 1 : 0) - (multiplicity == null ? 1 : 0);
+            Object[]  newElements       = new Object[length];
+            NonZero[] newMultiplicities = new NonZero[length];
+            boolean   placed            = multiplicity == null;
+            int       newIndex          = 0;
+            for (int i = 0; i < elements.length; i++) {
+                if (i == vacated)
+                    continue;
+                if (!placed && !lte(multiplicity, multiplicities[i])) {
+                    newElements[newIndex]         = a;
+                    newMultiplicities[newIndex++] = multiplicity;
+                    placed                        = true;
+                }
+                newElements[newIndex]         = elements[i];
+                newMultiplicities[newIndex++] = multiplicities[i];
+            }
+            if (!placed) {
+                newElements[newIndex]       = a;
+                newMultiplicities[newIndex] = multiplicity;
+            }
+            return new TopK<>(k, newElements, newMultiplicities);
+        }
+
+        static <A> TopK<A> stale(int k) {
+            return new TopK<>(k, null, null);
+        }
+
+        /**
+         * Rank the <code>k</code> most frequent elements of <code>hashMultiSet</code> by streaming them through a
+         * min-heap holding the best <code>k</code> seen so far, then draining the heap back to front.
+         */
+        static <A> TopK<A> rank(HashMultiSet<A> hashMultiSet, int k) {
+            Object[]  heapElements       = new Object[k];
+            NonZero[] heapMultiplicities = new NonZero[k];
+            int       heapSize           = 0;
+            for (Tuple2<A, NonZero> entry : hashMultiSet) {
+                if (heapSize < k) {
+                    heapElements[heapSize]       = entry._1();
+                    heapMultiplicities[heapSize] = entry._2();
+                    siftUp(heapElements, heapMultiplicities, heapSize++);
+                } else if (k > 0 && !lte(entry._2(), heapMultiplicities[0])) {
+                    heapElements[0]       = entry._1();
+                    heapMultiplicities[0] = entry._2();
+                    siftDown(heapElements, heapMultiplicities, heapSize);
+                }
+            }
+
+            Object[]  elements       = new Object[heapSize];
+            NonZero[] multiplicities = new NonZero[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                elements[i]           = heapElements[0];
+                multiplicities[i]     = heapMultiplicities[0];
+                heapElements[0]       = heapElements[i];
+                heapMultiplicities[0] = heapMultiplicities[i];
+                siftDown(heapElements, heapMultiplicities, i);
+            }
+            return new TopK<>(k, elements, multiplicities);
+        }
+
+        private static void siftUp(Object[] elements, NonZero[] multiplicities, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (lte(multiplicities[parent], multiplicities[index]))
+                    return;
+                swap(elements, multiplicities, parent, index);
+                index = parent;
+            }
+        }
+
+        private static void siftDown(Object[] elements, NonZero[] multiplicities, int size) {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left     = 2 * index + 1;
+                int right    = left + 1;
+                if (left < size && !lte(multiplicities[smallest], multiplicities[left]))
+                    smallest = left;
+                if (right < size && !lte(multiplicities[smallest], multiplicities[right]))
+                    smallest = right;
+                if (smallest == index)
+                    return;
+                swap(elements, multiplicities, smallest, index);
+                index = smallest;
+            }
+        }
+
+        private static void swap(Object[] elements, NonZero[] multiplicities, int i, int j) {
+            Object  element      = elements[i];
+            NonZero multiplicity = multiplicities[i];
+            elements[i]       = elements[j];
+            multiplicities[i] = multiplicities[j];
+            elements[j]       = element;
+            multiplicities[j] = multiplicity;
+        }
+    }
 }
@@ -11,8 +11,10 @@ import com.jnape.palatable.shoki.api.SizeInfo.Known;
 
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
 
 import static com.jnape.palatable.lambda.adt.Unit.UNIT;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
 import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
@@ -30,10 +32,11 @@ public final class HashSet<A> implements Set<Natural, A> {
 
     private static final HashSet<?> EMPTY_OBJECT_DEFAULTS = new HashSet<>(hashMap());
 
-    private final HashMap<A, Unit> map;
+    private final HashMap<A, Object> map;
 
-    private HashSet(HashMap<A, Unit> map) {
-        this.map = map;
+    @SuppressWarnings("unchecked")
+    private HashSet(HashMap<A, ?> map) {
+        this.map = (HashMap<A, Object>) map;
     }
 
     /**
@@ -56,7 +59,7 @@ public final class HashSet<A> implements Set<Natural, A> {
 
     /**
      * {@inheritDoc}
-     * Amortized <code>O(1)</code>.
+     * <code>O(1)</code>.
      */
     @Override
     public Known<Natural> sizeInfo() {
@@ -78,7 +81,19 @@ public final class HashSet<A> implements Set<Natural, A> {
      */
     @Override
     public HashSet<A> tail() {
-        return new HashSet<>(map.tail());
+        return withMap(map.tail());
+    }
+
+    /**
+     * If this {@link HashSet} is not empty, retrieve {@link Maybe#just(Object) just} its {@link HashSet#head() head}
+     * together with its {@link HashSet#tail() tail}, found in a single walk down to the head element; otherwise,
+     * return {@link Maybe#nothing() nothing}. <code>O(1)</code>.
+     *
+     * @return {@link Maybe} the head and the tail
+     * @see HashMap#uncons()
+     */
+    public Maybe<Tuple2<A, HashSet<A>>> uncons() {
+        return map.uncons().fmap(into((head, tail) -> tuple(head._1(), withMap(tail))));
     }
 
     /**
@@ -102,37 +117,59 @@ public final class HashSet<A> implements Set<Natural, A> {
 
     /**
      * {@inheritDoc}
-     * <code>O(o)</code>.
+     * If <code>other</code> is a {@link HashSet} with the same {@link EquivalenceRelation} and
+     * {@link HashingAlgorithm}, both tries are walked simultaneously, skipping any sub-trie absent from either side;
+     * otherwise, <code>O(o)</code>.
      */
     @Override
     public HashSet<A> intersection(Set<Natural, A> other) {
-        return (HashSet<A>) Set.super.intersection(other);
+        return compatibleHashSet(other)
+               ? withMap(map.retainKeys(((HashSet<A>) other).map))
+               : (HashSet<A>) Set.super.intersection(other);
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(o)</code>.
+     * If <code>other</code> is a {@link HashSet} with the same {@link EquivalenceRelation} and
+     * {@link HashingAlgorithm}, both tries are walked simultaneously, reusing any sub-trie present on only one side;
+     * otherwise, <code>O(o)</code>.
      */
     @Override
     public HashSet<A> union(Set<Natural, A> other) {
+        if (compatibleHashSet(other)) {
+            HashSet<A>         otherHashSet = (HashSet<A>) other;
+            HashMap<A, Object> union        = map.merge(otherHashSet.map, (x, y) -> x);
+            return union == otherHashSet.map ? otherHashSet : withMap(union);
+        }
         return (HashSet<A>) Set.super.union(other);
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(o)</code>.
+     * If <code>other</code> is a {@link HashSet} with the same {@link EquivalenceRelation} and
+     * {@link HashingAlgorithm}, both tries are walked simultaneously, reusing any sub-trie absent from
+     * <code>other</code>; otherwise, <code>O(o)</code>.
      */
     @Override
     public HashSet<A> difference(Set<Natural, A> other) {
-        return (HashSet<A>) Set.super.difference(other);
+        return compatibleHashSet(other)
+               ? withMap(map.removeKeys(((HashSet<A>) other).map))
+               : (HashSet<A>) Set.super.difference(other);
     }
 
     /**
      * {@inheritDoc}
-     * <code>O(n + o + min(n, o))</code>.
+     * If <code>other</code> is a {@link HashSet} with the same {@link EquivalenceRelation} and
+     * {@link HashingAlgorithm}, both tries are walked simultaneously, reusing any sub-trie present on only one side;
+     * otherwise, <code>O(n + o + min(n, o))</code>.
      */
     @Override
     public HashSet<A> symmetricDifference(Set<Natural, A> other) {
+        if (compatibleHashSet(other)) {
+            HashSet<A>         otherHashSet        = (HashSet<A>) other;
+            HashMap<A, Object> symmetricDifference = map.symmetricDifference(otherHashSet.map);
+            return symmetricDifference == otherHashSet.map ? otherHashSet : withMap(symmetricDifference);
+        }
         return (HashSet<A>) Set.super.symmetricDifference(other);
     }
 
@@ -144,6 +181,16 @@ public final class HashSet<A> implements Set<Natural, A> {
         return map(Tuple2::_1, map).iterator();
     }
 
+    /**
+     * {@inheritDoc}
+     * The returned {@link Spliterator} splits along the internal trie structure, so independent sub-tries may be
+     * traversed in parallel.
+     */
+    @Override
+    public Spliterator<A> spliterator() {
+        return map.keySpliterator();
+    }
+
     /**
      * Determine if <code>other</code> is a {@link HashSet} with the same elements as this {@link HashSet} (according to
      * the underlying {@link HashMap}). <code>O(n)</code>
@@ -154,18 +201,19 @@ public final class HashSet<A> implements Set<Natural, A> {
      */
     @Override
     public boolean equals(Object other) {
-        return other instanceof HashSet<?> && map.equals(((HashSet<?>) other).map);
+        return other instanceof HashSet<?> && map.sameKeys(((HashSet<?>) other).map);
     }
 
     /**
-     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link HashSet}.
-     * Amortized <code>O(1)</code>.
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link HashSet}: the sum of the hashes of
+     * its elements under its {@link HashingAlgorithm}. Maintained incrementally by the backing {@link HashMap},
+     * alongside its entry hash; see {@link HashMap#hashCode()}. <code>O(1)</code>.
      *
      * @return the hash code
      */
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return map.keysHashCode();
     }
 
     /**
@@ -177,6 +225,14 @@ public final class HashSet<A> implements Set<Natural, A> {
         return "HashSet[" + join(", ", map(into((e, __) -> e.toString()), map)) + ']';
     }
 
+    private boolean compatibleHashSet(Set<Natural, A> other) {
+        return other instanceof HashSet<?> && map.trieCompatible(((HashSet<?>) other).map);
+    }
+
+    private HashSet<A> withMap(HashMap<A, Object> map) {
+        return map == this.map ? this : new HashSet<>(map);
+    }
+
     /**
      * Create a {@link HashSet} using the given {@link EquivalenceRelation} and {@link HashingAlgorithm}, populated by
      * zero or more given entries. <code>O(n)</code>.
@@ -212,9 +268,20 @@ public final class HashSet<A> implements Set<Natural, A> {
                : new HashSet<>(backingHashMap(hashMap(), as));
     }
 
+    /**
+     * A {@link HashSet} of the keys of <code>map</code>, sharing its trie. Since a {@link HashSet} compares and hashes
+     * its trie by keys alone, the values in a shared trie are never consulted.
+     */
+    static <A> HashSet<A> keyView(HashMap<A, ?> map) {
+        return new HashSet<>(map);
+    }
+
     private static <A> HashMap<A, Unit> backingHashMap(HashMap<A, Unit> hashMap, A[] as) {
-        for (A a : as)
-            hashMap = hashMap.put(a, UNIT);
-        return hashMap;
+        if (as.length == 0)
+            return hashMap;
+
+        Object[] units = new Object[as.length];
+        java.util.Arrays.fill(units, UNIT);
+        return HashMap.build(hashMap, as, units);
     }
 }
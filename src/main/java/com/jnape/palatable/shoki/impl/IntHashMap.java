@@ -0,0 +1,312 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.lambda.functions.builtin.fn1.Head;
+import com.jnape.palatable.lambda.semigroup.Semigroup;
+import com.jnape.palatable.shoki.api.EquivalenceRelation;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+import com.jnape.palatable.shoki.api.Map;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Set;
+import com.jnape.palatable.shoki.api.SizeInfo.Known;
+
+import java.util.Iterator;
+
+import static com.jnape.palatable.lambda.adt.Maybe.maybe;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
+import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.LongHAMT.emptyLongHAMT;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static com.jnape.palatable.shoki.impl.StrictQueue.strictQueue;
+import static java.lang.String.format;
+import static java.lang.String.join;
+
+/**
+ * A {@link Map} from primitive <code>int</code> keys to values, structured as a
+ * <a href="https://michael.steindorfer.name/publications/oopsla15.pdf" target="_new">CHAMP</a> trie like a
+ * {@link HashMap#compactHashMap(Tuple2[]) compact} {@link HashMap}, but storing its keys unboxed inside the trie nodes
+ * and hashing them with a fixed mixing function rather than a {@link HashingAlgorithm}. Keys are compared by value, so
+ * no {@link EquivalenceRelation} is involved either.
+ * <p>
+ * The <code>int</code> overloads of {@link IntHashMap#get(int) get}, {@link IntHashMap#remove(int) remove}, and
+ * {@link IntHashMap#contains(int) contains}, and {@link IntHashMap#putInt(int, Object) putInt}, never box their key;
+ * the {@link Integer} overloads required by {@link Map} simply unbox and delegate to them. The primitive
+ * <code>put</code> is named apart so that it stays unambiguous when the value type is itself a boxed primitive.
+ *
+ * @param <V> the value type
+ * @see HashMap
+ * @see LongHashMap
+ */
+public final class IntHashMap<V> implements Map<Natural, Integer, V> {
+
+    private static final IntHashMap<?> EMPTY = new IntHashMap<>(emptyLongHAMT());
+
+    private final LongHAMT<V> hamt;
+
+    private IntHashMap(LongHAMT<V> hamt) {
+        this.hamt = hamt;
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link IntHashMap}, retrieve
+     * {@link Maybe#just(Object) just} the value it maps to; otherwise, return {@link Maybe#nothing() nothing}.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return {@link Maybe} the value associated to <code>key</code>
+     */
+    public Maybe<V> get(int key) {
+        return maybe(getOrNull(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashMap#get(int)
+     */
+    @Override
+    public Maybe<V> get(Integer key) {
+        return get(key.intValue());
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link IntHashMap}, retrieve the value it maps to;
+     * otherwise, return <code>defaultValue</code>. This lookup allocates nothing. Amortized <code>O(1)</code>.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if <code>key</code> is not associated to a value
+     * @return the value associated to <code>key</code>, or <code>defaultValue</code>
+     */
+    public V getOrDefault(int key, V defaultValue) {
+        V value = getOrNull(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Associate <code>key</code> to <code>value</code>, overriding any existing association for <code>key</code>.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the updated {@link IntHashMap}
+     */
+    public IntHashMap<V> putInt(int key, V value) {
+        long widened = widen(key);
+        return withHAMT(hamt.put(widened, value, mix(widened), 0, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashMap#putInt(int, Object)
+     */
+    @Override
+    public IntHashMap<V> put(Integer key, V value) {
+        return putInt(key.intValue(), value);
+    }
+
+    /**
+     * Remove any association for <code>key</code>. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return the updated {@link IntHashMap}
+     */
+    public IntHashMap<V> remove(int key) {
+        long widened = widen(key);
+        return withHAMT(hamt.remove(widened, mix(widened), 0, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashMap#remove(int)
+     */
+    @Override
+    public IntHashMap<V> remove(Integer key) {
+        return remove(key.intValue());
+    }
+
+    /**
+     * <code>True</code> if <code>key</code> is associated to a value in this {@link IntHashMap}; <code>false</code>
+     * otherwise. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return true if <code>key</code> is associated to a value; false otherwise
+     */
+    public boolean contains(int key) {
+        return getOrNull(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashMap#contains(int)
+     */
+    @Override
+    public boolean contains(Integer key) {
+        return contains(key.intValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public HashSet<Integer> keys() {
+        return foldLeft((keys, kv) -> keys.add(kv._1()), hashSet(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public StrictQueue<V> values() {
+        return foldLeft((values, kv) -> values.snoc(kv._2()), strictQueue(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Maybe<Tuple2<Integer, V>> head() {
+        return Head.head(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public IntHashMap<V> tail() {
+        return head().fmap(into((key, value) -> remove(key))).orElse(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public boolean isEmpty() {
+        return hamt.size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(o)</code>.
+     */
+    @Override
+    public IntHashMap<V> merge(Map<Natural, Integer, V> other, Semigroup<V> semigroup) {
+        return (IntHashMap<V>) Map.super.merge(other, semigroup);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(o)</code>.
+     */
+    @Override
+    public IntHashMap<V> removeAll(Set<Natural, Integer> keys) {
+        return (IntHashMap<V>) Map.super.removeAll(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Known<Natural> sizeInfo() {
+        return known(abs(hamt.size()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Tuple2<Integer, V>> iterator() {
+        return hamt.iterator((key, value) -> tuple(narrow(key), value));
+    }
+
+    /**
+     * Determine if <code>other</code> is an {@link IntHashMap} with the
+     * {@link Map.EquivalenceRelations#entries(EquivalenceRelation) same entries} as this {@link IntHashMap}, using
+     * {@link Object#equals(Object) Object equality} to determine value equivalence. Both tries are compared node by
+     * node, skipping any sub-trie the two share. <code>O(n)</code>.
+     *
+     * @param other the {@link Object} to check for equality
+     * @return the equality outcome
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IntHashMap<?> && LongHAMT.sameEntries(hamt, ((IntHashMap<?>) other).hamt);
+    }
+
+    /**
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link IntHashMap}, agreeing with
+     * {@link Map.HashingAlgorithms#entries(HashingAlgorithm, HashingAlgorithm) entries} hashing under
+     * {@link Object#hashCode() Object hashCode} for both keys and values. Maintained incrementally by the trie, so
+     * <code>O(1)</code>.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return hamt.entriesHash();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public String toString() {
+        return "IntHashMap[" + join(", ", map(into((k, v) -> format("(%s=%s)", k, v)), this)) + "]";
+    }
+
+    V getOrNull(int key) {
+        long widened = widen(key);
+        return hamt.get(widened, mix(widened));
+    }
+
+    private IntHashMap<V> withHAMT(LongHAMT<V> hamt) {
+        return hamt == this.hamt ? this : new IntHashMap<>(hamt);
+    }
+
+    /**
+     * Create an {@link IntHashMap} populated by zero or more given entries.
+     *
+     * @param entries the entries
+     * @param <V>     the value type
+     * @return the {@link IntHashMap}
+     */
+    @SafeVarargs
+    public static <V> IntHashMap<V> intHashMap(Tuple2<Integer, V>... entries) {
+        Object      owner = new Object();
+        LongHAMT<V> hamt  = emptyLongHAMT();
+        for (Tuple2<Integer, V> entry : entries) {
+            long widened = widen(entry._1());
+            hamt = hamt.put(widened, entry._2(), mix(widened), 0, owner);
+        }
+        @SuppressWarnings("unchecked") IntHashMap<V> empty = (IntHashMap<V>) EMPTY;
+        return entries.length == 0 ? empty : new IntHashMap<>(hamt);
+    }
+
+    // zero-extended, so that Long#hashCode of the stored key agrees with Integer#hashCode of the original key
+    private static long widen(int key) {
+        return Integer.toUnsignedLong(key);
+    }
+
+    private static int narrow(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,273 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Set;
+import com.jnape.palatable.shoki.api.SizeInfo.Known;
+
+import java.util.PrimitiveIterator;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static java.lang.String.join;
+
+/**
+ * A {@link Set} of primitive <code>int</code> elements, structured exactly like a {@link LongHashSet}: elements are
+ * widened to <code>long</code> and stored unboxed in sorted leaves of a hash trie that only branches where a leaf would
+ * otherwise overflow. Elements are hashed with a fixed mixing function and compared by value.
+ * <p>
+ * The <code>int</code> overloads of {@link IntHashSet#add(int) add}, {@link IntHashSet#remove(int) remove}, and
+ * {@link IntHashSet#contains(int) contains} never box their element; the {@link Integer} overloads required by
+ * {@link Set} simply unbox and delegate to them. {@link IntHashSet#union(Set) Unions} and
+ * {@link IntHashSet#intersection(Set) intersections} between two {@link IntHashSet IntHashSets} combine their tries
+ * bitmap by bitmap.
+ *
+ * @see LongHashSet
+ * @see HashSet
+ */
+public final class IntHashSet implements Set<Natural, Integer> {
+
+    private static final IntHashSet EMPTY = new IntHashSet(LongSetHAMT.empty());
+
+    private final LongSetHAMT trie;
+
+    private IntHashSet(LongSetHAMT trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * Add <code>element</code> to this {@link IntHashSet}. Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return the updated {@link IntHashSet}
+     */
+    public IntHashSet add(int element) {
+        long widened = widen(element);
+        return withTrie(trie.add(widened, mix(widened), 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashSet#add(int)
+     */
+    @Override
+    public IntHashSet add(Integer element) {
+        return add(element.intValue());
+    }
+
+    /**
+     * Remove <code>element</code> from this {@link IntHashSet}. Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return the updated {@link IntHashSet}
+     */
+    public IntHashSet remove(int element) {
+        long widened = widen(element);
+        return withTrie(trie.remove(widened, mix(widened), 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashSet#remove(int)
+     */
+    @Override
+    public IntHashSet remove(Integer element) {
+        return remove(element.intValue());
+    }
+
+    /**
+     * <code>True</code> if <code>element</code> is a member of this {@link IntHashSet}; <code>false</code> otherwise.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return whether <code>element</code> is a member
+     */
+    public boolean contains(int element) {
+        long widened = widen(element);
+        return trie.contains(widened, mix(widened), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see IntHashSet#contains(int)
+     */
+    @Override
+    public boolean contains(Integer element) {
+        return contains(element.intValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Known<Natural> sizeInfo() {
+        return known(abs(trie.size()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Maybe<Integer> head() {
+        PrimitiveIterator.OfInt elements = iterator();
+        return elements.hasNext() ? just(elements.nextInt()) : nothing();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public IntHashSet tail() {
+        PrimitiveIterator.OfInt elements = iterator();
+        return elements.hasNext() ? remove(elements.nextInt()) : this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public boolean isEmpty() {
+        return trie.size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <code>other</code> is also an {@link IntHashSet}, both tries are walked simultaneously, skipping any sub-trie
+     * absent from either side; otherwise, <code>O(n)</code>.
+     */
+    @Override
+    public IntHashSet intersection(Set<Natural, Integer> other) {
+        if (other instanceof IntHashSet) {
+            IntHashSet  otherIntHashSet = (IntHashSet) other;
+            LongSetHAMT intersection    = LongSetHAMT.intersection(trie, otherIntHashSet.trie, 0);
+            return intersection == otherIntHashSet.trie ? otherIntHashSet : withTrie(intersection);
+        }
+        return (IntHashSet) Set.super.intersection(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <code>other</code> is also an {@link IntHashSet}, both tries are walked simultaneously, reusing any sub-trie
+     * present on only one side; otherwise, <code>O(o)</code>.
+     */
+    @Override
+    public IntHashSet union(Set<Natural, Integer> other) {
+        if (other instanceof IntHashSet) {
+            IntHashSet  otherIntHashSet = (IntHashSet) other;
+            LongSetHAMT union           = LongSetHAMT.union(trie, otherIntHashSet.trie, 0);
+            return union == otherIntHashSet.trie ? otherIntHashSet : withTrie(union);
+        }
+        return (IntHashSet) Set.super.union(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(o)</code>.
+     */
+    @Override
+    public IntHashSet difference(Set<Natural, Integer> other) {
+        return (IntHashSet) Set.super.difference(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n + o + min(n, o))</code>.
+     */
+    @Override
+    public IntHashSet symmetricDifference(Set<Natural, Integer> other) {
+        return (IntHashSet) Set.super.symmetricDifference(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The returned iterator can also produce each element unboxed via
+     * {@link PrimitiveIterator.OfInt#nextInt() nextInt}.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        PrimitiveIterator.OfLong elements = LongSetHAMT.iterator(trie);
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return elements.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return (int) elements.nextLong();
+            }
+        };
+    }
+
+    /**
+     * Determine if <code>other</code> is an {@link IntHashSet} with the same elements as this {@link IntHashSet}.
+     * <code>O(n)</code>.
+     *
+     * @param other the {@link Object} to check for equality
+     * @return the equality outcome
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IntHashSet && LongSetHAMT.sameElements(trie, ((IntHashSet) other).trie);
+    }
+
+    /**
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link IntHashSet} as the sum of its
+     * elements' {@link Integer#hashCode(int) hash codes}. Maintained incrementally by the trie, so <code>O(1)</code>.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return trie.elementsHash();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public String toString() {
+        return "IntHashSet[" + join(", ", map(Object::toString, this)) + ']';
+    }
+
+    private IntHashSet withTrie(LongSetHAMT trie) {
+        return trie == this.trie ? this : new IntHashSet(trie);
+    }
+
+    /**
+     * Create an {@link IntHashSet} populated by zero or more given elements, building its trie bottom-up.
+     * <code>O(n log n)</code>.
+     *
+     * @param elements the elements
+     * @return the {@link IntHashSet}
+     */
+    public static IntHashSet intHashSet(int... elements) {
+        if (elements.length == 0)
+            return EMPTY;
+
+        long[] widened = new long[elements.length];
+        for (int i = 0; i < elements.length; i++)
+            widened[i] = widen(elements[i]);
+        return new IntHashSet(LongSetHAMT.of(widened));
+    }
+
+    // zero-extended, so that Long#hashCode of the stored element agrees with Integer#hashCode of the original element
+    private static long widen(int element) {
+        return Integer.toUnsignedLong(element);
+    }
+}
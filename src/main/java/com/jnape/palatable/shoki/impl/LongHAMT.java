@@ -0,0 +1,442 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.shoki.api.EquivalenceRelation;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import static com.jnape.palatable.shoki.impl.HAMT.LEVEL_SIZE;
+import static java.lang.Integer.bitCount;
+
+/**
+ * A <a href="https://michael.steindorfer.name/publications/oopsla15.pdf" target="_new">CHAMP</a> node specialized to
+ * primitive <code>long</code> keys, backing {@link IntHashMap} and {@link LongHashMap}. Inline keys are stored unboxed
+ * in their own array, their values are stored at the front of the content array and sub-tries are stored from its
+ * back, exactly as in {@link HAMT.CompactNode}. Keys are hashed with a fixed 64-bit finalizer and compared with
+ * <code>==</code>, so no {@link HashingAlgorithm} or {@link EquivalenceRelation} is ever consulted.
+ * <p>
+ * Below the deepest bitmap level, a node holds keys whose mixed hashes fully collide; such collision nodes have empty
+ * bitmaps and are searched linearly.
+ * <p>
+ * Like {@link HAMT.CompactNode}, nodes track their size and the sum of their entry hashes, where an entry hashes as
+ * {@link Long#hashCode(long) the key's hash} <code>^</code> {@link Objects#hashCode(Object) the value's hash}, and
+ * nodes tagged with an owner token are edited in place by that owner.
+ *
+ * @param <V> the value type
+ */
+final class LongHAMT<V> {
+
+    private static final int MAX_SHIFT = 30;
+    private static final int MAX_DEPTH = MAX_SHIFT / LEVEL_SIZE + 2;
+
+    private static final LongHAMT<?> EMPTY = new LongHAMT<>(0, 0, new long[0], new Object[0], 0, 0, null);
+
+    private final Object   owner;
+    private       int      dataMap;
+    private       int      nodeMap;
+    private       long[]   keys;
+    private       Object[] content;
+    private       long     size;
+    private       int      hash;
+
+    private LongHAMT(int dataMap, int nodeMap, long[] keys, Object[] content, long size, int hash, Object owner) {
+        this.dataMap = dataMap;
+        this.nodeMap = nodeMap;
+        this.keys    = keys;
+        this.content = content;
+        this.size    = size;
+        this.hash    = hash;
+        this.owner   = owner;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int entriesHash() {
+        return hash;
+    }
+
+    V get(long key, int keyHash) {
+        LongHAMT<V> node = this;
+        for (int shift = 0; shift <= MAX_SHIFT; shift += LEVEL_SIZE) {
+            int bit = bit(keyHash, shift);
+            if ((node.dataMap & bit) != 0) {
+                int dataIndex = node.dataIndex(bit);
+                return node.keys[dataIndex] == key ? node.valueAt(dataIndex) : null;
+            }
+            if ((node.nodeMap & bit) == 0)
+                return null;
+            node = node.nodeAt(node.nodeIndex(bit));
+        }
+        int index = node.collisionIndex(key);
+        return index >= 0 ? node.valueAt(index) : null;
+    }
+
+    LongHAMT<V> put(long key, V value, int keyHash, int shift, Object owner) {
+        if (shift > MAX_SHIFT) {
+            int index = collisionIndex(key);
+            return index >= 0
+                   ? replaceData(index, value, owner)
+                   : edited(0, 0, insertKey(keys.length, key), insertValue(keys.length, value),
+                            size + 1, hash + entryHash(key, value), owner);
+        }
+
+        int bit = bit(keyHash, shift);
+        if ((dataMap & bit) != 0) {
+            int  dataIndex   = dataIndex(bit);
+            long existingKey = keys[dataIndex];
+            if (existingKey == key)
+                return replaceData(dataIndex, value, owner);
+
+            LongHAMT<V> subTrie = pair(existingKey, valueAt(dataIndex), mix(existingKey),
+                                       key, value, keyHash, shift + LEVEL_SIZE, owner);
+            return migrateDataToNode(bit, dataIndex, subTrie, owner);
+        }
+
+        if ((nodeMap & bit) == 0)
+            return insertData(bit, key, value, owner);
+
+        int         nodeIndex    = nodeIndex(bit);
+        LongHAMT<V> existing     = nodeAt(nodeIndex);
+        long        existingSize = existing.size;
+        int         existingHash = existing.hash;
+        LongHAMT<V> override     = existing.put(key, value, keyHash, shift + LEVEL_SIZE, owner);
+        return override == existing
+               ? adjusted(override.size - existingSize, override.hash - existingHash)
+               : replaceNode(nodeIndex, override, existingSize, existingHash, owner);
+    }
+
+    LongHAMT<V> remove(long key, int keyHash, int shift, Object owner) {
+        if (shift > MAX_SHIFT) {
+            int index = collisionIndex(key);
+            return index >= 0
+                   ? edited(0, 0, removeKey(index), removeValue(index),
+                            size - 1, hash - entryHash(key, valueAt(index)), owner)
+                   : this;
+        }
+
+        int bit = bit(keyHash, shift);
+        if ((dataMap & bit) != 0) {
+            int dataIndex = dataIndex(bit);
+            return keys[dataIndex] == key
+                   ? edited(dataMap & ~bit, nodeMap, removeKey(dataIndex), removeValue(dataIndex),
+                            size - 1, hash - entryHash(key, valueAt(dataIndex)), owner)
+                   : this;
+        }
+
+        if ((nodeMap & bit) == 0)
+            return this;
+
+        int         nodeIndex    = nodeIndex(bit);
+        LongHAMT<V> existing     = nodeAt(nodeIndex);
+        long        existingSize = existing.size;
+        int         existingHash = existing.hash;
+        LongHAMT<V> override     = existing.remove(key, keyHash, shift + LEVEL_SIZE, owner);
+        if (override.size == 1)
+            return migrateNodeToData(bit, nodeIndex, override.keys[0], override.valueAt(0), existingSize,
+                                     existingHash, owner);
+        return override == existing
+               ? adjusted(override.size - existingSize, override.hash - existingHash)
+               : replaceNode(nodeIndex, override, existingSize, existingHash, owner);
+    }
+
+    <A> Iterator<A> iterator(EntryProjection<? super V, ? extends A> projection) {
+        return new Cursor<>(this, projection);
+    }
+
+    private int dataIndex(int bit) {
+        return bitCount(dataMap & (bit - 1));
+    }
+
+    private int nodeIndex(int bit) {
+        return bitCount(nodeMap & (bit - 1));
+    }
+
+    private int collisionIndex(long key) {
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] == key)
+                return i;
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int dataIndex) {
+        return (V) content[dataIndex];
+    }
+
+    @SuppressWarnings("unchecked")
+    private LongHAMT<V> nodeAt(int nodeIndex) {
+        return (LongHAMT<V>) content[content.length - 1 - nodeIndex];
+    }
+
+    private boolean ownedBy(Object owner) {
+        return owner != null && owner == this.owner;
+    }
+
+    private LongHAMT<V> adjusted(long sizeDelta, int hashDelta) {
+        // only an owned child can change in place, and only beneath an owned parent
+        if (sizeDelta != 0 || hashDelta != 0) {
+            size += sizeDelta;
+            hash += hashDelta;
+        }
+        return this;
+    }
+
+    private LongHAMT<V> replaceData(int dataIndex, V value, Object owner) {
+        if (valueAt(dataIndex) == value)
+            return this;
+
+        long key     = keys[dataIndex];
+        int  newHash = hash - entryHash(key, valueAt(dataIndex)) + entryHash(key, value);
+        if (ownedBy(owner)) {
+            content[dataIndex] = value;
+            hash               = newHash;
+            return this;
+        }
+        Object[] newContent = content.clone();
+        newContent[dataIndex] = value;
+        return new LongHAMT<>(dataMap, nodeMap, keys, newContent, size, newHash, owner);
+    }
+
+    private LongHAMT<V> replaceNode(int nodeIndex, LongHAMT<V> subTrie, long previousSize, int previousHash,
+                                    Object owner) {
+        long newSize = size - previousSize + subTrie.size;
+        int  newHash = hash - previousHash + subTrie.hash;
+        if (ownedBy(owner)) {
+            content[content.length - 1 - nodeIndex] = subTrie;
+            size                                     = newSize;
+            hash                                     = newHash;
+            return this;
+        }
+        Object[] newContent = content.clone();
+        newContent[content.length - 1 - nodeIndex] = subTrie;
+        return new LongHAMT<>(dataMap, nodeMap, keys, newContent, newSize, newHash, owner);
+    }
+
+    private LongHAMT<V> insertData(int bit, long key, V value, Object owner) {
+        int dataIndex = dataIndex(bit);
+        return edited(dataMap | bit, nodeMap, insertKey(dataIndex, key), insertValue(dataIndex, value),
+                      size + 1, hash + entryHash(key, value), owner);
+    }
+
+    private LongHAMT<V> migrateDataToNode(int bit, int dataIndex, LongHAMT<V> subTrie, Object owner) {
+        int      nodeIndex  = nodeIndex(bit);
+        Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex,
+                         content.length - nodeIndex - dataIndex - 1);
+        newContent[newContent.length - 1 - nodeIndex] = subTrie;
+        System.arraycopy(content, content.length - nodeIndex, newContent, newContent.length - nodeIndex, nodeIndex);
+        return edited(dataMap & ~bit, nodeMap | bit, removeKey(dataIndex), newContent,
+                      size - 1 + subTrie.size, hash - entryHash(keys[dataIndex], valueAt(dataIndex)) + subTrie.hash,
+                      owner);
+    }
+
+    private LongHAMT<V> migrateNodeToData(int bit, int nodeIndex, long key, V value, long previousSize,
+                                          int previousHash, Object owner) {
+        int      dataIndex  = dataIndex(bit);
+        Object[] newContent = new Object[content.length];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        newContent[dataIndex] = value;
+        System.arraycopy(content, dataIndex, newContent, dataIndex + 1,
+                         content.length - 1 - nodeIndex - dataIndex);
+        System.arraycopy(content, content.length - nodeIndex, newContent, newContent.length - nodeIndex, nodeIndex);
+        return edited(dataMap | bit, nodeMap & ~bit, insertKey(dataIndex, key), newContent,
+                      size - previousSize + 1, hash - previousHash + entryHash(key, value), owner);
+    }
+
+    private LongHAMT<V> edited(int dataMap, int nodeMap, long[] keys, Object[] content, long size, int hash,
+                               Object owner) {
+        if (ownedBy(owner)) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.keys    = keys;
+            this.content = content;
+            this.size    = size;
+            this.hash    = hash;
+            return this;
+        }
+        return new LongHAMT<>(dataMap, nodeMap, keys, content, size, hash, owner);
+    }
+
+    private long[] insertKey(int dataIndex, long key) {
+        long[] newKeys = new long[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, dataIndex);
+        newKeys[dataIndex] = key;
+        System.arraycopy(keys, dataIndex, newKeys, dataIndex + 1, keys.length - dataIndex);
+        return newKeys;
+    }
+
+    private long[] removeKey(int dataIndex) {
+        long[] newKeys = new long[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, dataIndex);
+        System.arraycopy(keys, dataIndex + 1, newKeys, dataIndex, keys.length - dataIndex - 1);
+        return newKeys;
+    }
+
+    private Object[] insertValue(int dataIndex, V value) {
+        Object[] newContent = new Object[content.length + 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        newContent[dataIndex] = value;
+        System.arraycopy(content, dataIndex, newContent, dataIndex + 1, content.length - dataIndex);
+        return newContent;
+    }
+
+    private Object[] removeValue(int dataIndex) {
+        Object[] newContent = new Object[content.length - 1];
+        System.arraycopy(content, 0, newContent, 0, dataIndex);
+        System.arraycopy(content, dataIndex + 1, newContent, dataIndex, content.length - dataIndex - 1);
+        return newContent;
+    }
+
+    /**
+     * Whether <code>left</code> and <code>right</code> associate the same keys to {@link Object#equals(Object) equal}
+     * values. Since tries are kept in a canonical shape, they are compared node by node, answering <code>true</code>
+     * as soon as the same sub-trie is reached from both sides.
+     */
+    static boolean sameEntries(LongHAMT<?> left, LongHAMT<?> right) {
+        if (left == right)
+            return true;
+
+        if (left.size != right.size || left.hash != right.hash
+                || left.dataMap != right.dataMap || left.nodeMap != right.nodeMap)
+            return false;
+
+        if (left.dataMap == 0 && left.nodeMap == 0) {
+            for (int i = 0; i < left.keys.length; i++) {
+                int index = right.collisionIndex(left.keys[i]);
+                if (index < 0 || !Objects.equals(left.valueAt(i), right.valueAt(index)))
+                    return false;
+            }
+            return true;
+        }
+
+        for (int i = 0; i < left.keys.length; i++)
+            if (left.keys[i] != right.keys[i] || !Objects.equals(left.valueAt(i), right.valueAt(i)))
+                return false;
+
+        int nodeCount = bitCount(left.nodeMap);
+        for (int i = 0; i < nodeCount; i++)
+            if (!sameEntries(left.nodeAt(i), right.nodeAt(i)))
+                return false;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> LongHAMT<V> emptyLongHAMT() {
+        return (LongHAMT<V>) EMPTY;
+    }
+
+    /**
+     * Mix all 64 bits of <code>key</code> into a 32-bit hash using the
+     * <a href="https://github.com/aappleby/smhasher/wiki/MurmurHash3" target="_new">MurmurHash3</a> 64-bit finalizer.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private static <V> LongHAMT<V> pair(long k0, V v0, int keyHash0, long k1, V v1, int keyHash1, int shift,
+                                        Object owner) {
+        int hash = entryHash(k0, v0) + entryHash(k1, v1);
+        if (shift > MAX_SHIFT)
+            return new LongHAMT<>(0, 0, new long[]{k0, k1}, new Object[]{v0, v1}, 2, hash, owner);
+
+        int bit0 = bit(keyHash0, shift);
+        int bit1 = bit(keyHash1, shift);
+        if (bit0 == bit1)
+            return new LongHAMT<>(0, bit0, new long[0],
+                                  new Object[]{pair(k0, v0, keyHash0, k1, v1, keyHash1, shift + LEVEL_SIZE, owner)},
+                                  2, hash, owner);
+
+        return Integer.compareUnsigned(bit0, bit1) < 0
+               ? new LongHAMT<>(bit0 | bit1, 0, new long[]{k0, k1}, new Object[]{v0, v1}, 2, hash, owner)
+               : new LongHAMT<>(bit0 | bit1, 0, new long[]{k1, k0}, new Object[]{v1, v0}, 2, hash, owner);
+    }
+
+    private static int bit(int keyHash, int shift) {
+        return 1 << ((keyHash >>> shift) & 31);
+    }
+
+    private static int entryHash(long key, Object value) {
+        return Long.hashCode(key) ^ Objects.hashCode(value);
+    }
+
+    /**
+     * A projection from an unboxed key and its value to an iterated element.
+     *
+     * @param <V> the value type
+     * @param <A> the element type
+     */
+    @FunctionalInterface
+    interface EntryProjection<V, A> {
+        A apply(long key, V value);
+    }
+
+    /**
+     * A depth-first {@link Iterator} over a {@link LongHAMT} that tracks its position with an explicit stack of nodes
+     * and offsets, visiting each node's inline entries before its sub-tries.
+     *
+     * @param <V> the value type
+     * @param <A> the element type
+     */
+    private static final class Cursor<V, A> implements Iterator<A> {
+        private final LongHAMT<?>[] nodes   = new LongHAMT<?>[MAX_DEPTH];
+        private final int[]         offsets = new int[MAX_DEPTH];
+
+        private final EntryProjection<? super V, ? extends A> projection;
+
+        private int depth;
+
+        private Cursor(LongHAMT<V> root, EntryProjection<? super V, ? extends A> projection) {
+            this.projection = projection;
+            nodes[0]        = root;
+            seek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A next() {
+            if (depth < 0)
+                throw new NoSuchElementException();
+
+            LongHAMT<V> node   = (LongHAMT<V>) nodes[depth];
+            int         offset = offsets[depth]++;
+            A           next   = projection.apply(node.keys[offset], node.valueAt(offset));
+            seek();
+            return next;
+        }
+
+        private void seek() {
+            while (depth >= 0) {
+                LongHAMT<?> node   = nodes[depth];
+                int         offset = offsets[depth];
+                if (offset < node.keys.length)
+                    return;
+
+                if (offset < node.content.length) {
+                    offsets[depth] = offset + 1;
+                    nodes[++depth] = (LongHAMT<?>) node.content[offset];
+                    offsets[depth] = 0;
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+        }
+    }
+}
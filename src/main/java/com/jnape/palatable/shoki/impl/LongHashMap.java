@@ -0,0 +1,300 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.lambda.functions.builtin.fn1.Head;
+import com.jnape.palatable.lambda.semigroup.Semigroup;
+import com.jnape.palatable.shoki.api.EquivalenceRelation;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+import com.jnape.palatable.shoki.api.Map;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Set;
+import com.jnape.palatable.shoki.api.SizeInfo.Known;
+
+import java.util.Iterator;
+
+import static com.jnape.palatable.lambda.adt.Maybe.maybe;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
+import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.LongHAMT.emptyLongHAMT;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static com.jnape.palatable.shoki.impl.StrictQueue.strictQueue;
+import static java.lang.String.format;
+import static java.lang.String.join;
+
+/**
+ * A {@link Map} from primitive <code>long</code> keys to values, structured as a
+ * <a href="https://michael.steindorfer.name/publications/oopsla15.pdf" target="_new">CHAMP</a> trie like a
+ * {@link HashMap#compactHashMap(Tuple2[]) compact} {@link HashMap}, but storing its keys unboxed inside the trie nodes
+ * and hashing them with a fixed mixing function rather than a {@link HashingAlgorithm}. Keys are compared by value, so
+ * no {@link EquivalenceRelation} is involved either.
+ * <p>
+ * The <code>long</code> overloads of {@link LongHashMap#get(long) get}, {@link LongHashMap#remove(long) remove}, and
+ * {@link LongHashMap#contains(long) contains}, and {@link LongHashMap#putLong(long, Object) putLong}, never box their
+ * key; the {@link Long} overloads required by {@link Map} simply unbox and delegate to them. The primitive
+ * <code>put</code> is named apart so that it stays unambiguous when the value type is itself a boxed primitive.
+ *
+ * @param <V> the value type
+ * @see HashMap
+ * @see IntHashMap
+ */
+public final class LongHashMap<V> implements Map<Natural, Long, V> {
+
+    private static final LongHashMap<?> EMPTY = new LongHashMap<>(emptyLongHAMT());
+
+    private final LongHAMT<V> hamt;
+
+    private LongHashMap(LongHAMT<V> hamt) {
+        this.hamt = hamt;
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link LongHashMap}, retrieve
+     * {@link Maybe#just(Object) just} the value it maps to; otherwise, return {@link Maybe#nothing() nothing}.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return {@link Maybe} the value associated to <code>key</code>
+     */
+    public Maybe<V> get(long key) {
+        return maybe(getOrNull(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashMap#get(long)
+     */
+    @Override
+    public Maybe<V> get(Long key) {
+        return get(key.longValue());
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link LongHashMap}, retrieve the value it maps to;
+     * otherwise, return <code>defaultValue</code>. This lookup allocates nothing. Amortized <code>O(1)</code>.
+     *
+     * @param key          the key
+     * @param defaultValue the value to return if <code>key</code> is not associated to a value
+     * @return the value associated to <code>key</code>, or <code>defaultValue</code>
+     */
+    public V getOrDefault(long key, V defaultValue) {
+        V value = getOrNull(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Associate <code>key</code> to <code>value</code>, overriding any existing association for <code>key</code>.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the updated {@link LongHashMap}
+     */
+    public LongHashMap<V> putLong(long key, V value) {
+        return withHAMT(hamt.put(key, value, mix(key), 0, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashMap#putLong(long, Object)
+     */
+    @Override
+    public LongHashMap<V> put(Long key, V value) {
+        return putLong(key.longValue(), value);
+    }
+
+    /**
+     * Remove any association for <code>key</code>. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return the updated {@link LongHashMap}
+     */
+    public LongHashMap<V> remove(long key) {
+        return withHAMT(hamt.remove(key, mix(key), 0, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashMap#remove(long)
+     */
+    @Override
+    public LongHashMap<V> remove(Long key) {
+        return remove(key.longValue());
+    }
+
+    /**
+     * <code>True</code> if <code>key</code> is associated to a value in this {@link LongHashMap}; <code>false</code>
+     * otherwise. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return true if <code>key</code> is associated to a value; false otherwise
+     */
+    public boolean contains(long key) {
+        return getOrNull(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashMap#contains(long)
+     */
+    @Override
+    public boolean contains(Long key) {
+        return contains(key.longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public HashSet<Long> keys() {
+        return foldLeft((keys, kv) -> keys.add(kv._1()), hashSet(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public StrictQueue<V> values() {
+        return foldLeft((values, kv) -> values.snoc(kv._2()), strictQueue(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Maybe<Tuple2<Long, V>> head() {
+        return Head.head(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public LongHashMap<V> tail() {
+        return head().fmap(into((key, value) -> remove(key))).orElse(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public boolean isEmpty() {
+        return hamt.size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(o)</code>.
+     */
+    @Override
+    public LongHashMap<V> merge(Map<Natural, Long, V> other, Semigroup<V> semigroup) {
+        return (LongHashMap<V>) Map.super.merge(other, semigroup);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(o)</code>.
+     */
+    @Override
+    public LongHashMap<V> removeAll(Set<Natural, Long> keys) {
+        return (LongHashMap<V>) Map.super.removeAll(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Known<Natural> sizeInfo() {
+        return known(abs(hamt.size()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Tuple2<Long, V>> iterator() {
+        return hamt.iterator((key, value) -> tuple(key, value));
+    }
+
+    /**
+     * Determine if <code>other</code> is a {@link LongHashMap} with the
+     * {@link Map.EquivalenceRelations#entries(EquivalenceRelation) same entries} as this {@link LongHashMap}, using
+     * {@link Object#equals(Object) Object equality} to determine value equivalence. Both tries are compared node by
+     * node, skipping any sub-trie the two share. <code>O(n)</code>.
+     *
+     * @param other the {@link Object} to check for equality
+     * @return the equality outcome
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LongHashMap<?> && LongHAMT.sameEntries(hamt, ((LongHashMap<?>) other).hamt);
+    }
+
+    /**
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link LongHashMap}, agreeing with
+     * {@link Map.HashingAlgorithms#entries(HashingAlgorithm, HashingAlgorithm) entries} hashing under
+     * {@link Object#hashCode() Object hashCode} for both keys and values. Maintained incrementally by the trie, so
+     * <code>O(1)</code>.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return hamt.entriesHash();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public String toString() {
+        return "LongHashMap[" + join(", ", map(into((k, v) -> format("(%s=%s)", k, v)), this)) + "]";
+    }
+
+    V getOrNull(long key) {
+        return hamt.get(key, mix(key));
+    }
+
+    private LongHashMap<V> withHAMT(LongHAMT<V> hamt) {
+        return hamt == this.hamt ? this : new LongHashMap<>(hamt);
+    }
+
+    /**
+     * Create a {@link LongHashMap} populated by zero or more given entries.
+     *
+     * @param entries the entries
+     * @param <V>     the value type
+     * @return the {@link LongHashMap}
+     */
+    @SafeVarargs
+    public static <V> LongHashMap<V> longHashMap(Tuple2<Long, V>... entries) {
+        Object      owner = new Object();
+        LongHAMT<V> hamt  = emptyLongHAMT();
+        for (Tuple2<Long, V> entry : entries) {
+            long key = entry._1();
+            hamt = hamt.put(key, entry._2(), mix(key), 0, owner);
+        }
+        @SuppressWarnings("unchecked") LongHashMap<V> empty = (LongHashMap<V>) EMPTY;
+        return entries.length == 0 ? empty : new LongHashMap<>(hamt);
+    }
+}
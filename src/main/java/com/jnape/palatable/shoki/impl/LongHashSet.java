@@ -0,0 +1,248 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Set;
+import com.jnape.palatable.shoki.api.SizeInfo.Known;
+
+import java.util.PrimitiveIterator;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Map.map;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static java.lang.String.join;
+
+/**
+ * A {@link Set} of primitive <code>long</code> elements, stored unboxed in sorted <code>long[]</code> leaves of a hash
+ * trie that only branches where a leaf would otherwise overflow, so that each element costs little more than its own 8
+ * bytes. Elements are hashed with a fixed mixing function and compared by value.
+ * <p>
+ * The <code>long</code> overloads of {@link LongHashSet#add(long) add}, {@link LongHashSet#remove(long) remove}, and
+ * {@link LongHashSet#contains(long) contains} never box their element; the {@link Long} overloads required by
+ * {@link Set} simply unbox and delegate to them. {@link LongHashSet#union(Set) Unions} and
+ * {@link LongHashSet#intersection(Set) intersections} between two {@link LongHashSet LongHashSets} combine their tries
+ * bitmap by bitmap.
+ *
+ * @see IntHashSet
+ * @see HashSet
+ */
+public final class LongHashSet implements Set<Natural, Long> {
+
+    private static final LongHashSet EMPTY = new LongHashSet(LongSetHAMT.empty());
+
+    private final LongSetHAMT trie;
+
+    private LongHashSet(LongSetHAMT trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * Add <code>element</code> to this {@link LongHashSet}. Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return the updated {@link LongHashSet}
+     */
+    public LongHashSet add(long element) {
+        return withTrie(trie.add(element, mix(element), 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashSet#add(long)
+     */
+    @Override
+    public LongHashSet add(Long element) {
+        return add(element.longValue());
+    }
+
+    /**
+     * Remove <code>element</code> from this {@link LongHashSet}. Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return the updated {@link LongHashSet}
+     */
+    public LongHashSet remove(long element) {
+        return withTrie(trie.remove(element, mix(element), 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashSet#remove(long)
+     */
+    @Override
+    public LongHashSet remove(Long element) {
+        return remove(element.longValue());
+    }
+
+    /**
+     * <code>True</code> if <code>element</code> is a member of this {@link LongHashSet}; <code>false</code> otherwise.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param element the element
+     * @return whether <code>element</code> is a member
+     */
+    public boolean contains(long element) {
+        return trie.contains(element, mix(element), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Amortized <code>O(1)</code>.
+     *
+     * @see LongHashSet#contains(long)
+     */
+    @Override
+    public boolean contains(Long element) {
+        return contains(element.longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Known<Natural> sizeInfo() {
+        return known(abs(trie.size()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public Maybe<Long> head() {
+        PrimitiveIterator.OfLong elements = iterator();
+        return elements.hasNext() ? just(elements.nextLong()) : nothing();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public LongHashSet tail() {
+        PrimitiveIterator.OfLong elements = iterator();
+        return elements.hasNext() ? remove(elements.nextLong()) : this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(1)</code>.
+     */
+    @Override
+    public boolean isEmpty() {
+        return trie.size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <code>other</code> is also a {@link LongHashSet}, both tries are walked simultaneously, skipping any sub-trie
+     * absent from either side; otherwise, <code>O(n)</code>.
+     */
+    @Override
+    public LongHashSet intersection(Set<Natural, Long> other) {
+        if (other instanceof LongHashSet) {
+            LongHashSet otherLongHashSet = (LongHashSet) other;
+            LongSetHAMT intersection     = LongSetHAMT.intersection(trie, otherLongHashSet.trie, 0);
+            return intersection == otherLongHashSet.trie ? otherLongHashSet : withTrie(intersection);
+        }
+        return (LongHashSet) Set.super.intersection(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * If <code>other</code> is also a {@link LongHashSet}, both tries are walked simultaneously, reusing any sub-trie
+     * present on only one side; otherwise, <code>O(o)</code>.
+     */
+    @Override
+    public LongHashSet union(Set<Natural, Long> other) {
+        if (other instanceof LongHashSet) {
+            LongHashSet otherLongHashSet = (LongHashSet) other;
+            LongSetHAMT union            = LongSetHAMT.union(trie, otherLongHashSet.trie, 0);
+            return union == otherLongHashSet.trie ? otherLongHashSet : withTrie(union);
+        }
+        return (LongHashSet) Set.super.union(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(o)</code>.
+     */
+    @Override
+    public LongHashSet difference(Set<Natural, Long> other) {
+        return (LongHashSet) Set.super.difference(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n + o + min(n, o))</code>.
+     */
+    @Override
+    public LongHashSet symmetricDifference(Set<Natural, Long> other) {
+        return (LongHashSet) Set.super.symmetricDifference(other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The returned iterator can also produce each element unboxed via
+     * {@link PrimitiveIterator.OfLong#nextLong() nextLong}.
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return LongSetHAMT.iterator(trie);
+    }
+
+    /**
+     * Determine if <code>other</code> is a {@link LongHashSet} with the same elements as this {@link LongHashSet}.
+     * <code>O(n)</code>.
+     *
+     * @param other the {@link Object} to check for equality
+     * @return the equality outcome
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LongHashSet && LongSetHAMT.sameElements(trie, ((LongHashSet) other).trie);
+    }
+
+    /**
+     * Compute the corresponding {@link Object#hashCode() hash code} for this {@link LongHashSet} as the sum of its
+     * elements' {@link Long#hashCode(long) hash codes}. Maintained incrementally by the trie, so <code>O(1)</code>.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return trie.elementsHash();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <code>O(n)</code>.
+     */
+    @Override
+    public String toString() {
+        return "LongHashSet[" + join(", ", map(Object::toString, this)) + ']';
+    }
+
+    private LongHashSet withTrie(LongSetHAMT trie) {
+        return trie == this.trie ? this : new LongHashSet(trie);
+    }
+
+    /**
+     * Create a {@link LongHashSet} populated by zero or more given elements, building its trie bottom-up.
+     * <code>O(n log n)</code>.
+     *
+     * @param elements the elements
+     * @return the {@link LongHashSet}
+     */
+    public static LongHashSet longHashSet(long... elements) {
+        return elements.length == 0 ? EMPTY : new LongHashSet(LongSetHAMT.of(elements));
+    }
+}
@@ -0,0 +1,492 @@
+package com.jnape.palatable.shoki.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static com.jnape.palatable.shoki.impl.HAMT.LEVEL_SIZE;
+import static com.jnape.palatable.shoki.impl.LongHAMT.mix;
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.lowestOneBit;
+
+/**
+ * A hash trie of primitive <code>long</code> elements, backing {@link IntHashSet} and {@link LongHashSet}. Rather than
+ * dedicating a bitmap slot to every element, elements are packed into {@link Leaf leaves} holding up to
+ * {@link LongSetHAMT#LEAF_CAPACITY} of them in a sorted <code>long[]</code>, and a {@link Branch} only fans a leaf out
+ * by the next {@link HAMT#LEVEL_SIZE} bits of its elements' {@link LongHAMT#mix(long) mixed hashes} once it outgrows
+ * that capacity. Each element therefore costs its own 8 bytes plus a small share of the fixed overhead of its leaf and
+ * the branches above it. A {@link Branch} that shrinks to half a leaf's capacity is collapsed back into a {@link Leaf}.
+ * <p>
+ * Since the shape of a trie depends on its history of splits and collapses, tries with the same elements are not
+ * necessarily structurally equal. Every trie tracks its size and the sum of its elements' {@link Long#hashCode(long)
+ * hashes}.
+ */
+interface LongSetHAMT {
+
+    int LEAF_CAPACITY = 128;
+
+    boolean contains(long element, int elementHash, int shift);
+
+    LongSetHAMT add(long element, int elementHash, int shift);
+
+    LongSetHAMT remove(long element, int elementHash, int shift);
+
+    long size();
+
+    int elementsHash();
+
+    static LongSetHAMT empty() {
+        return Leaf.EMPTY;
+    }
+
+    /**
+     * Build a trie of <code>elements</code> bottom-up, sorting and de-duplicating them first and then partitioning
+     * them by hash only where a leaf would overflow. <code>O(n log n)</code>.
+     */
+    static LongSetHAMT of(long[] elements) {
+        long[] sorted = elements.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[distinct++] = sorted[i];
+        return Branch.build(sorted, 0, distinct, 0);
+    }
+
+    /**
+     * The union of <code>left</code> and <code>right</code>, walking both tries together and reusing any sub-trie
+     * present on only one side, or wholly contained in the other.
+     */
+    static LongSetHAMT union(LongSetHAMT left, LongSetHAMT right, int shift) {
+        if (left == right || right.size() == 0)
+            return left;
+        if (left.size() == 0)
+            return right;
+
+        if (left instanceof Branch && right instanceof Branch)
+            return Branch.union((Branch) left, (Branch) right, shift);
+        if (left instanceof Leaf && right instanceof Leaf)
+            return Leaf.union((Leaf) left, (Leaf) right, shift);
+        return left instanceof Leaf
+               ? ((Leaf) left).addTo(right, shift)
+               : ((Leaf) right).addTo(left, shift);
+    }
+
+    /**
+     * The intersection of <code>left</code> and <code>right</code>, walking both tries together and skipping any
+     * sub-trie absent from either side.
+     */
+    static LongSetHAMT intersection(LongSetHAMT left, LongSetHAMT right, int shift) {
+        if (left == right || left.size() == 0)
+            return left;
+        if (right.size() == 0)
+            return right;
+
+        if (left instanceof Branch && right instanceof Branch)
+            return Branch.intersection((Branch) left, (Branch) right, shift);
+        if (left instanceof Leaf && right instanceof Leaf)
+            return Leaf.intersection((Leaf) left, (Leaf) right);
+        return left instanceof Leaf
+               ? ((Leaf) left).retainIn(right, shift)
+               : ((Leaf) right).retainIn(left, shift);
+    }
+
+    static boolean sameElements(LongSetHAMT left, LongSetHAMT right) {
+        if (left == right)
+            return true;
+        if (left.size() != right.size() || left.elementsHash() != right.elementsHash())
+            return false;
+
+        PrimitiveIterator.OfLong elements = new Cursor(left);
+        while (elements.hasNext()) {
+            long element = elements.nextLong();
+            if (!right.contains(element, mix(element), 0))
+                return false;
+        }
+        return true;
+    }
+
+    static PrimitiveIterator.OfLong iterator(LongSetHAMT root) {
+        return new Cursor(root);
+    }
+
+    final class Branch implements LongSetHAMT {
+        private static final int MAX_SHIFT = 30;
+
+        private final int           bitmap;
+        private final LongSetHAMT[] children;
+        private final long          size;
+        private final int           hash;
+
+        private Branch(int bitmap, LongSetHAMT[] children, long size, int hash) {
+            this.bitmap   = bitmap;
+            this.children = children;
+            this.size     = size;
+            this.hash     = hash;
+        }
+
+        @Override
+        public boolean contains(long element, int elementHash, int shift) {
+            int bit = bit(elementHash, shift);
+            return (bitmap & bit) != 0 && children[index(bit)].contains(element, elementHash, shift + LEVEL_SIZE);
+        }
+
+        @Override
+        public LongSetHAMT add(long element, int elementHash, int shift) {
+            int bit   = bit(elementHash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                LongSetHAMT[] newChildren = new LongSetHAMT[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = new Leaf(new long[]{element}, Long.hashCode(element));
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                return new Branch(bitmap | bit, newChildren, size + 1, hash + Long.hashCode(element));
+            }
+
+            LongSetHAMT child = children[index];
+            LongSetHAMT added = child.add(element, elementHash, shift + LEVEL_SIZE);
+            return added == child ? this : withChild(index, child, added);
+        }
+
+        @Override
+        public LongSetHAMT remove(long element, int elementHash, int shift) {
+            int bit = bit(elementHash, shift);
+            if ((bitmap & bit) == 0)
+                return this;
+
+            int         index   = index(bit);
+            LongSetHAMT child   = children[index];
+            LongSetHAMT removed = child.remove(element, elementHash, shift + LEVEL_SIZE);
+            if (removed == child)
+                return this;
+
+            if (size - 1 <= LEAF_CAPACITY / 2)
+                return Leaf.flatten(withChild(index, child, removed));
+
+            if (removed.size() > 0)
+                return withChild(index, child, removed);
+
+            LongSetHAMT[] newChildren = new LongSetHAMT[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new Branch(bitmap & ~bit, newChildren, size - 1, hash - Long.hashCode(element));
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public int elementsHash() {
+            return hash;
+        }
+
+        private int index(int bit) {
+            return bitCount(bitmap & (bit - 1));
+        }
+
+        private LongSetHAMT child(int bit) {
+            return (bitmap & bit) != 0 ? children[index(bit)] : null;
+        }
+
+        private Branch withChild(int index, LongSetHAMT previous, LongSetHAMT child) {
+            LongSetHAMT[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new Branch(bitmap, newChildren, size - previous.size() + child.size(),
+                              hash - previous.elementsHash() + child.elementsHash());
+        }
+
+        private static LongSetHAMT union(Branch left, Branch right, int shift) {
+            int           bitmap      = left.bitmap | right.bitmap;
+            LongSetHAMT[] children    = new LongSetHAMT[bitCount(bitmap)];
+            boolean       sameAsLeft  = bitmap == left.bitmap;
+            boolean       sameAsRight = bitmap == right.bitmap;
+            long          size        = 0;
+            int           hash        = 0;
+            int           index       = 0;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int         bit        = lowestOneBit(remaining);
+                LongSetHAMT leftChild  = left.child(bit);
+                LongSetHAMT rightChild = right.child(bit);
+                LongSetHAMT child      = leftChild == null
+                                         ? rightChild
+                                         : rightChild == null
+                                           ? leftChild
+                                           : LongSetHAMT.union(leftChild, rightChild, shift + LEVEL_SIZE);
+                sameAsLeft &= child == leftChild;
+                sameAsRight &= child == rightChild;
+                children[index++] = child;
+                size += child.size();
+                hash += child.elementsHash();
+            }
+            return sameAsLeft ? left : sameAsRight ? right : new Branch(bitmap, children, size, hash);
+        }
+
+        private static LongSetHAMT intersection(Branch left, Branch right, int shift) {
+            int           bitmap   = left.bitmap & right.bitmap;
+            LongSetHAMT[] children = new LongSetHAMT[bitCount(bitmap)];
+            long          size     = 0;
+            int           hash     = 0;
+            int           index    = 0;
+            for (int remaining = bitmap; remaining != 0; remaining &= remaining - 1) {
+                int         bit   = lowestOneBit(remaining);
+                LongSetHAMT child = LongSetHAMT.intersection(left.child(bit), right.child(bit), shift + LEVEL_SIZE);
+                if (child.size() == 0) {
+                    bitmap &= ~bit;
+                    continue;
+                }
+                children[index++] = child;
+                size += child.size();
+                hash += child.elementsHash();
+            }
+
+            if (size == left.size)
+                return left;
+            if (size == right.size)
+                return right;
+
+            Branch intersection = new Branch(bitmap, Arrays.copyOf(children, index), size, hash);
+            return size <= LEAF_CAPACITY / 2 ? Leaf.flatten(intersection) : intersection;
+        }
+
+        /**
+         * Build a trie of the sorted, distinct <code>elements</code> between <code>from</code> and <code>to</code>,
+         * all of whose hashes agree below <code>shift</code>. Partitioning is stable, so every leaf comes out sorted.
+         */
+        static LongSetHAMT build(long[] elements, int from, int to, int shift) {
+            int count = to - from;
+            if (count <= LEAF_CAPACITY || shift > MAX_SHIFT)
+                return new Leaf(Arrays.copyOfRange(elements, from, to));
+
+            int[] offsets = new int[33];
+            for (int i = from; i < to; i++)
+                offsets[slot(mix(elements[i]), shift) + 1]++;
+
+            int bitmap = 0;
+            for (int slot = 0; slot < 32; slot++) {
+                if (offsets[slot + 1] != 0)
+                    bitmap |= 1 << slot;
+                offsets[slot + 1] += offsets[slot];
+            }
+
+            long[] partitioned = new long[count];
+            int[]  cursors     = Arrays.copyOf(offsets, 32);
+            for (int i = from; i < to; i++)
+                partitioned[cursors[slot(mix(elements[i]), shift)]++] = elements[i];
+
+            LongSetHAMT[] children = new LongSetHAMT[bitCount(bitmap)];
+            int           hash     = 0;
+            int           index    = 0;
+            for (int slot = 0; slot < 32; slot++) {
+                if (offsets[slot + 1] == offsets[slot])
+                    continue;
+                LongSetHAMT child = build(partitioned, offsets[slot], offsets[slot + 1], shift + LEVEL_SIZE);
+                children[index++] = child;
+                hash += child.elementsHash();
+            }
+            return new Branch(bitmap, children, count, hash);
+        }
+
+        private static int slot(int elementHash, int shift) {
+            return (elementHash >>> shift) & 31;
+        }
+
+        private static int bit(int elementHash, int shift) {
+            return 1 << slot(elementHash, shift);
+        }
+    }
+
+    final class Leaf implements LongSetHAMT {
+        private static final Leaf EMPTY = new Leaf(new long[0], 0);
+
+        private final long[] elements;
+        private final int    hash;
+
+        private Leaf(long[] elements) {
+            this(elements, hashOf(elements));
+        }
+
+        private Leaf(long[] elements, int hash) {
+            this.elements = elements;
+            this.hash     = hash;
+        }
+
+        @Override
+        public boolean contains(long element, int elementHash, int shift) {
+            return Arrays.binarySearch(elements, element) >= 0;
+        }
+
+        @Override
+        public LongSetHAMT add(long element, int elementHash, int shift) {
+            int index = Arrays.binarySearch(elements, element);
+            if (index >= 0)
+                return this;
+
+            int    insertion = -(index + 1);
+            long[] grown     = new long[elements.length + 1];
+            System.arraycopy(elements, 0, grown, 0, insertion);
+            grown[insertion] = element;
+            System.arraycopy(elements, insertion, grown, insertion + 1, elements.length - insertion);
+            return grown.length > LEAF_CAPACITY
+                   ? Branch.build(grown, 0, grown.length, shift)
+                   : new Leaf(grown, hash + Long.hashCode(element));
+        }
+
+        @Override
+        public LongSetHAMT remove(long element, int elementHash, int shift) {
+            int index = Arrays.binarySearch(elements, element);
+            if (index < 0)
+                return this;
+
+            long[] shrunk = new long[elements.length - 1];
+            System.arraycopy(elements, 0, shrunk, 0, index);
+            System.arraycopy(elements, index + 1, shrunk, index, shrunk.length - index);
+            return new Leaf(shrunk, hash - Long.hashCode(element));
+        }
+
+        @Override
+        public long size() {
+            return elements.length;
+        }
+
+        @Override
+        public int elementsHash() {
+            return hash;
+        }
+
+        private LongSetHAMT addTo(LongSetHAMT trie, int shift) {
+            LongSetHAMT union = trie;
+            for (long element : elements)
+                union = union.add(element, mix(element), shift);
+            return union;
+        }
+
+        private LongSetHAMT retainIn(LongSetHAMT trie, int shift) {
+            long[] retained = new long[elements.length];
+            int    count    = 0;
+            for (long element : elements)
+                if (trie.contains(element, mix(element), shift))
+                    retained[count++] = element;
+            return count == elements.length ? this : new Leaf(Arrays.copyOf(retained, count));
+        }
+
+        private static LongSetHAMT union(Leaf left, Leaf right, int shift) {
+            long[] merged = new long[left.elements.length + right.elements.length];
+            int    i      = 0;
+            int    j      = 0;
+            int    count  = 0;
+            while (i < left.elements.length && j < right.elements.length) {
+                long x = left.elements[i];
+                long y = right.elements[j];
+                if (x <= y)
+                    i++;
+                if (y <= x)
+                    j++;
+                merged[count++] = Math.min(x, y);
+            }
+            while (i < left.elements.length)
+                merged[count++] = left.elements[i++];
+            while (j < right.elements.length)
+                merged[count++] = right.elements[j++];
+
+            if (count == left.elements.length)
+                return left;
+            if (count == right.elements.length)
+                return right;
+            return count > LEAF_CAPACITY
+                   ? Branch.build(merged, 0, count, shift)
+                   : new Leaf(Arrays.copyOf(merged, count));
+        }
+
+        private static LongSetHAMT intersection(Leaf left, Leaf right) {
+            long[] common = new long[Math.min(left.elements.length, right.elements.length)];
+            int    i      = 0;
+            int    j      = 0;
+            int    count  = 0;
+            while (i < left.elements.length && j < right.elements.length) {
+                long x = left.elements[i];
+                long y = right.elements[j];
+                if (x == y)
+                    common[count++] = x;
+                if (x <= y)
+                    i++;
+                if (y <= x)
+                    j++;
+            }
+
+            if (count == left.elements.length)
+                return left;
+            if (count == right.elements.length)
+                return right;
+            return new Leaf(Arrays.copyOf(common, count));
+        }
+
+        private static Leaf flatten(LongSetHAMT trie) {
+            long[]                   elements = new long[(int) trie.size()];
+            PrimitiveIterator.OfLong cursor   = new Cursor(trie);
+            for (int i = 0; cursor.hasNext(); i++)
+                elements[i] = cursor.nextLong();
+            Arrays.sort(elements);
+            return new Leaf(elements, trie.elementsHash());
+        }
+
+        private static int hashOf(long[] elements) {
+            int hash = 0;
+            for (long element : elements)
+                hash += Long.hashCode(element);
+            return hash;
+        }
+    }
+
+    /**
+     * A depth-first {@link PrimitiveIterator.OfLong} over a {@link LongSetHAMT} that tracks its position with an
+     * explicit stack of nodes and offsets.
+     */
+    final class Cursor implements PrimitiveIterator.OfLong {
+        private static final int MAX_DEPTH = (Integer.SIZE + LEVEL_SIZE - 1) / LEVEL_SIZE + 1;
+
+        private final LongSetHAMT[] nodes   = new LongSetHAMT[MAX_DEPTH];
+        private final int[]         offsets = new int[MAX_DEPTH];
+
+        private int depth;
+
+        private Cursor(LongSetHAMT root) {
+            nodes[0] = root;
+            seek();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth >= 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (depth < 0)
+                throw new NoSuchElementException();
+
+            long next = ((Leaf) nodes[depth]).elements[offsets[depth]++];
+            seek();
+            return next;
+        }
+
+        private void seek() {
+            while (depth >= 0) {
+                LongSetHAMT node   = nodes[depth];
+                int         offset = offsets[depth];
+                if (node instanceof Leaf) {
+                    if (offset < ((Leaf) node).elements.length)
+                        return;
+                    nodes[depth--] = null;
+                } else if (offset < ((Branch) node).children.length) {
+                    offsets[depth] = offset + 1;
+                    nodes[++depth] = ((Branch) node).children[offset];
+                    offsets[depth] = 0;
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.api.Natural.NonZero;
+
+import java.math.BigInteger;
+
+import static com.jnape.palatable.shoki.api.Natural.atLeastZero;
+
+/**
+ * A mutable running total of {@link Natural} values, for folding sizes and counts without allocating a new
+ * {@link Natural} per step. The total is kept in a primitive <code>long</code>, switching over to a
+ * {@link BigInteger} only if it outgrows one, and is converted to a {@link Natural} once, by
+ * {@link NaturalAccumulator#total() total}.
+ * <p>
+ * Not thread-safe; intended to be confined to the method computing the total.
+ */
+final class NaturalAccumulator {
+
+    private long       total;
+    private BigInteger largeTotal;
+
+    /**
+     * Add one to the running total.
+     *
+     * @return this {@link NaturalAccumulator}
+     */
+    NaturalAccumulator inc() {
+        return add(1L);
+    }
+
+    /**
+     * Add a non-negative <code>long</code> to the running total.
+     *
+     * @param addend the non-negative addend
+     * @return this {@link NaturalAccumulator}
+     */
+    NaturalAccumulator add(long addend) {
+        if (largeTotal != null) {
+            largeTotal = largeTotal.add(BigInteger.valueOf(addend));
+        } else {
+            long sum = total + addend;
+            if (sum < 0)
+                largeTotal = BigInteger.valueOf(total).add(BigInteger.valueOf(addend));
+            else
+                total = sum;
+        }
+        return this;
+    }
+
+    /**
+     * Add a {@link Natural} to the running total.
+     *
+     * @param addend the addend
+     * @return this {@link NaturalAccumulator}
+     */
+    NaturalAccumulator add(Natural addend) {
+        long addendLong = addend.longValue();
+        if (addendLong != Long.MAX_VALUE)
+            return add(addendLong);
+
+        largeTotal = (largeTotal != null ? largeTotal : BigInteger.valueOf(total)).add(addend.bigIntegerValue());
+        return this;
+    }
+
+    /**
+     * Add a {@link NonZero} multiplicity to the running total, passing it through so that the addition can sit
+     * inline in an expression. A <code>null</code> multiplicity is passed through without being counted.
+     *
+     * @param multiplicity the multiplicity, or <code>null</code>
+     * @return <code>multiplicity</code>
+     */
+    NonZero count(NonZero multiplicity) {
+        if (multiplicity != null)
+            add(multiplicity);
+        return multiplicity;
+    }
+
+    /**
+     * The running total as a {@link Natural}.
+     *
+     * @return the total
+     */
+    Natural total() {
+        return largeTotal != null ? atLeastZero(largeTotal) : atLeastZero(total);
+    }
+}
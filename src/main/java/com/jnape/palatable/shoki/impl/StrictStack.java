@@ -217,13 +217,28 @@ public abstract class StrictStack<A> implements Stack<Natural, A> {
                 synchronized (this) {
                     size = this.size;
                     if (size == null) {
-                        this.size = size = foldLeft((s, __) -> s.inc(), (Natural) zero(), this);
+                        this.size = size = countElements();
                     }
                 }
             }
             return known(size);
         }
 
+        // stops early at the first tail that has already been sized
+        private Natural countElements() {
+            NaturalAccumulator count = new NaturalAccumulator();
+            StrictStack<A>     stack = this;
+            while (stack instanceof Head) {
+                Head<A> head      = (Head<A>) stack;
+                Natural knownSize = head.size;
+                if (knownSize != null)
+                    return count.add(knownSize).total();
+                count.inc();
+                stack = head.tail;
+            }
+            return count.total();
+        }
+
         @Override
         public int hashCode() {
             Integer hashCode = this.hashCode;
@@ -0,0 +1,105 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.Maybe;
+import com.jnape.palatable.shoki.api.EquivalenceRelation;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+
+import static com.jnape.palatable.lambda.adt.Maybe.maybe;
+import static com.jnape.palatable.shoki.impl.HAMT.Node.rootNode;
+
+/**
+ * A batch-mutable companion to {@link HashMap}, intended for building up or bulk-editing a {@link HashMap} without
+ * paying for a full path copy on every individual edit.
+ * <p>
+ * A {@link TransientHashMap} tags every trie node it creates with an owner token unique to its current edit session,
+ * and edits any node carrying that token in place; nodes it did not create (e.g. nodes shared with the
+ * {@link HashMap} it was {@link HashMap#toTransient() derived from}) are copied on first touch, exactly as they would
+ * be by {@link HashMap#put(Object, Object)}, after which the copy is owned and subsequently edited in place. Populating
+ * an empty {@link TransientHashMap} with <code>n</code> entries therefore allocates <code>O(n)</code> in total.
+ * <p>
+ * Calling {@link TransientHashMap#persistent()} produces a {@link HashMap} of the current entries and rotates the owner
+ * token, so further edits against this {@link TransientHashMap} copy rather than mutate any node reachable from a
+ * previously produced {@link HashMap}. {@link TransientHashMap}s are not thread-safe and should be confined to a single
+ * thread; the {@link HashMap}s they produce are immutable and may be shared freely.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see HashMap#toTransient()
+ */
+public final class TransientHashMap<K, V> {
+
+    private final EquivalenceRelation<? super K> keyEqRel;
+    private final HashingAlgorithm<? super K>    keyHashAlg;
+
+    private HAMT<K, V> hamt;
+    private Object     owner;
+
+    TransientHashMap(EquivalenceRelation<? super K> keyEqRel, HashingAlgorithm<? super K> keyHashAlg,
+                     HAMT<K, V> hamt) {
+        this.keyEqRel   = keyEqRel;
+        this.keyHashAlg = keyHashAlg;
+        this.hamt       = hamt;
+        this.owner      = new Object();
+    }
+
+    /**
+     * If <code>key</code> is associated to a value inside this {@link TransientHashMap}, retrieve
+     * {@link Maybe#just(Object) just} the value it maps to; otherwise, return {@link Maybe#nothing() nothing}.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return {@link Maybe} the value associated to <code>key</code>
+     */
+    public Maybe<V> get(K key) {
+        return maybe(hamt.get(key, keyHashAlg.apply(key), keyEqRel, 0));
+    }
+
+    /**
+     * <code>True</code> if <code>key</code> is associated to a value in this {@link TransientHashMap};
+     * <code>false</code> otherwise. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return true if <code>key</code> is associated to a value; false otherwise
+     */
+    public boolean contains(K key) {
+        return hamt.get(key, keyHashAlg.apply(key), keyEqRel, 0) != null;
+    }
+
+    /**
+     * Associate <code>key</code> to <code>value</code>, overriding any existing association for <code>key</code>.
+     * Amortized <code>O(1)</code>.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return this {@link TransientHashMap}
+     */
+    public TransientHashMap<K, V> put(K key, V value) {
+        hamt = hamt.put(key, value, keyHashAlg.apply(key), keyEqRel, 0, owner);
+        return this;
+    }
+
+    /**
+     * Remove any association for <code>key</code>. Amortized <code>O(1)</code>.
+     *
+     * @param key the key
+     * @return this {@link TransientHashMap}
+     */
+    public TransientHashMap<K, V> remove(K key) {
+        HAMT<K, V> removed = hamt.remove(key, keyHashAlg.apply(key), keyEqRel, 0, owner);
+        hamt = removed != null ? removed : rootNode();
+        return this;
+    }
+
+    /**
+     * Produce an immutable {@link HashMap} of the current entries in this {@link TransientHashMap}. This
+     * {@link TransientHashMap} remains usable afterwards, but subsequent edits will no longer be visible to the
+     * returned {@link HashMap}. <code>O(1)</code>.
+     *
+     * @return the {@link HashMap}
+     */
+    public HashMap<K, V> persistent() {
+        HashMap<K, V> persistent = new HashMap<>(keyEqRel, keyHashAlg, hamt);
+        owner = new Object();
+        return persistent;
+    }
+}
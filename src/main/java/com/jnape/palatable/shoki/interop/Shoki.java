@@ -1,19 +1,29 @@
 package com.jnape.palatable.shoki.interop;
 
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
 import com.jnape.palatable.shoki.api.EquivalenceRelation;
 import com.jnape.palatable.shoki.api.HashingAlgorithm;
+import com.jnape.palatable.shoki.api.Natural;
 import com.jnape.palatable.shoki.impl.HashMap;
 import com.jnape.palatable.shoki.impl.HashMultiSet;
 import com.jnape.palatable.shoki.impl.HashSet;
 import com.jnape.palatable.shoki.impl.StrictQueue;
 import com.jnape.palatable.shoki.impl.StrictStack;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSequentialList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.lambda.functions.Fn2.curried;
 import static com.jnape.palatable.lambda.functions.builtin.fn1.Constantly.constantly;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Into.into;
@@ -21,7 +31,8 @@ import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft
 import static com.jnape.palatable.shoki.api.Natural.atLeastZero;
 
 /**
- * Common interoperability methods for translating from built-in Java types to Shoki types.
+ * Common interoperability methods for translating from built-in Java types to Shoki types, and for exposing Shoki types
+ * as read-only views through the built-in Java collection interfaces.
  */
 public final class Shoki {
     private Shoki() {
@@ -86,7 +97,11 @@ public final class Shoki {
      * @return the populated {@link HashMap}
      */
     public static <K, V> HashMap<K, V> hashMap(java.util.Map<K, V> javaMap) {
-        return foldLeft(curried(hm -> into(hm::put)), HashMap.hashMap(), javaMap.entrySet());
+        ArrayList<Tuple2<K, V>> entries = new ArrayList<>(javaMap.size());
+        javaMap.forEach((k, v) -> entries.add(tuple(k, v)));
+        @SuppressWarnings("unchecked")
+        Tuple2<K, V>[] entriesArray = (Tuple2<K, V>[]) entries.toArray(new Tuple2<?, ?>[0]);
+        return HashMap.hashMap(entriesArray);
     }
 
     /**
@@ -99,7 +114,15 @@ public final class Shoki {
      * @return the populated {@link HashSet}
      */
     public static <A> HashSet<A> hashSet(Iterable<A> javaIterable) {
-        return foldLeft(HashSet::add, HashSet.hashSet(), javaIterable);
+        Collection<A> elements;
+        if (javaIterable instanceof Collection<?>) {
+            elements = (Collection<A>) javaIterable;
+        } else {
+            elements = new ArrayList<>();
+            javaIterable.forEach(elements::add);
+        }
+        @SuppressWarnings("unchecked") A[] as = (A[]) elements.toArray();
+        return HashSet.hashSet(as);
     }
 
     /**
@@ -133,4 +156,467 @@ public final class Shoki {
     public static <A> HashMultiSet<A> hashMultiSet(Iterable<A> javaIterable) {
         return foldLeft(HashMultiSet::inc, HashMultiSet.hashMultiSet(), javaIterable);
     }
+
+    /**
+     * Expose a {@link HashMap} as a read-only {@link java.util.Map} view, without copying. Lookups delegate to the
+     * {@link HashMap}, so they use its {@link EquivalenceRelation} and {@link HashingAlgorithm} for keys, and may throw
+     * a {@link ClassCastException} for keys of the wrong type. All mutators throw
+     * {@link UnsupportedOperationException}.
+     * <p>
+     * {@link java.util.Map#get(Object) get}, {@link java.util.Map#containsKey(Object) containsKey}, and
+     * {@link java.util.Map#size() size} are amortized <code>O(1)</code>.
+     *
+     * @param hashMap the {@link HashMap}
+     * @param <K>     the key type
+     * @param <V>     the value type
+     * @return the {@link java.util.Map} view
+     */
+    public static <K, V> java.util.Map<K, V> asJavaMap(HashMap<K, V> hashMap) {
+        return new JavaMapView<>(hashMap);
+    }
+
+    /**
+     * Expose a {@link HashSet} as a read-only {@link java.util.Set} view, without copying. Membership checks delegate
+     * to the {@link HashSet}, so they use its {@link EquivalenceRelation} and {@link HashingAlgorithm}, and may throw a
+     * {@link ClassCastException} for elements of the wrong type. All mutators throw
+     * {@link UnsupportedOperationException}.
+     * <p>
+     * {@link java.util.Set#contains(Object) contains} and {@link java.util.Set#size() size} are amortized
+     * <code>O(1)</code>.
+     *
+     * @param hashSet the {@link HashSet}
+     * @param <A>     the element type
+     * @return the {@link java.util.Set} view
+     */
+    public static <A> java.util.Set<A> asJavaSet(HashSet<A> hashSet) {
+        return new JavaSetView<>(hashSet);
+    }
+
+    /**
+     * Expose a {@link StrictStack} as a read-only {@link List} view, from the top of the {@link StrictStack} down,
+     * without copying. All mutators throw {@link UnsupportedOperationException}.
+     * <p>
+     * {@link List#size() size} is <code>O(1)</code>; {@link List#get(int) get} walks the {@link StrictStack}, so it is
+     * <code>O(index)</code>.
+     *
+     * @param strictStack the {@link StrictStack}
+     * @param <A>         the element type
+     * @return the {@link List} view
+     */
+    public static <A> List<A> asJavaList(StrictStack<A> strictStack) {
+        return new JavaListView<>(strictStack);
+    }
+
+    /**
+     * Expose a {@link StrictQueue} as a read-only {@link List} view, from the front of the {@link StrictQueue} to the
+     * back, without copying. All mutators throw {@link UnsupportedOperationException}.
+     * <p>
+     * {@link List#size() size} is <code>O(1)</code>; {@link List#get(int) get} walks the {@link StrictQueue}, so it is
+     * <code>O(index)</code>.
+     *
+     * @param strictQueue the {@link StrictQueue}
+     * @param <A>         the element type
+     * @return the {@link List} view
+     */
+    public static <A> List<A> asJavaList(StrictQueue<A> strictQueue) {
+        return new JavaListView<>(strictQueue);
+    }
+
+    /**
+     * Expose a {@link StrictQueue} as a read-only {@link Deque} view, from the front of the {@link StrictQueue} to the
+     * back, without copying. All mutators throw {@link UnsupportedOperationException}.
+     * <p>
+     * {@link Deque#peekFirst() peekFirst} and {@link Deque#size() size} are <code>O(1)</code>;
+     * {@link Deque#peekLast() peekLast} and {@link Deque#descendingIterator() descendingIterator} are
+     * <code>O(1)</code> unless every element was {@link StrictQueue#cons(Object) consed} onto the {@link StrictQueue},
+     * in which case they are <code>O(n)</code>.
+     *
+     * @param strictQueue the {@link StrictQueue}
+     * @param <A>         the element type
+     * @return the {@link Deque} view
+     */
+    public static <A> Deque<A> asJavaDeque(StrictQueue<A> strictQueue) {
+        return new JavaDequeView<>(strictQueue);
+    }
+
+    private static int javaSize(com.jnape.palatable.shoki.api.Collection<Natural, ?> collection) {
+        return collection.sizeInfo().getSize().intValue();
+    }
+
+    private static final class JavaMapView<K, V> extends AbstractMap<K, V> {
+        private final HashMap<K, V> hashMap;
+
+        private JavaMapView(HashMap<K, V> hashMap) {
+            this.hashMap = hashMap;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return hashMap.getOrDefault((K) key, null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            return hashMap.contains((K) key);
+        }
+
+        @Override
+        public int size() {
+            return javaSize(hashMap);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return hashMap.isEmpty();
+        }
+
+        @Override
+        public V put(K key, V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public V remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putAll(java.util.Map<? extends K, ? extends V> m) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public java.util.Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Tuple2<K, V>> entries = hashMap.iterator();
+                    return new Iterator<Entry<K, V>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Tuple2<K, V> entry = entries.next();
+                            return new SimpleImmutableEntry<>(entry._1(), entry._2());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return JavaMapView.this.size();
+                }
+            };
+        }
+    }
+
+    private static final class JavaSetView<A> extends AbstractSet<A> {
+        private final HashSet<A> hashSet;
+
+        private JavaSetView(HashSet<A> hashSet) {
+            this.hashSet = hashSet;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return hashSet.contains((A) o);
+        }
+
+        @Override
+        public int size() {
+            return javaSize(hashSet);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return hashSet.isEmpty();
+        }
+
+        @Override
+        public Iterator<A> iterator() {
+            return unmodifiable(hashSet.iterator());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class JavaListView<A> extends AbstractSequentialList<A> {
+        private final com.jnape.palatable.shoki.api.Collection<Natural, A> collection;
+
+        private JavaListView(com.jnape.palatable.shoki.api.Collection<Natural, A> collection) {
+            this.collection = collection;
+        }
+
+        @Override
+        public ListIterator<A> listIterator(int index) {
+            if (index < 0)
+                throw new IndexOutOfBoundsException("Index: " + index);
+
+            ListIterator<A> listIterator = new JavaListIterator<>(collection.iterator());
+            for (int i = 0; i < index; i++) {
+                if (!listIterator.hasNext())
+                    throw new IndexOutOfBoundsException("Index: " + index);
+                listIterator.next();
+            }
+            return listIterator;
+        }
+
+        @Override
+        public int size() {
+            return javaSize(collection);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return collection.isEmpty();
+        }
+
+        @Override
+        public Iterator<A> iterator() {
+            return unmodifiable(collection.iterator());
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // remembers the elements it has passed, so that it can step backwards over a forward-only iterator
+    private static final class JavaListIterator<A> implements ListIterator<A> {
+        private final Iterator<A>  elements;
+        private final ArrayList<A> passed;
+        private       int          cursor;
+
+        private JavaListIterator(Iterator<A> elements) {
+            this.elements = elements;
+            passed        = new ArrayList<>();
+            cursor        = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < passed.size() || elements.hasNext();
+        }
+
+        @Override
+        public A next() {
+            if (cursor == passed.size())
+                passed.add(elements.next());
+            return passed.get(cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public A previous() {
+            if (cursor == 0)
+                throw new NoSuchElementException();
+            return passed.get(--cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(A a) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class JavaDequeView<A> extends AbstractCollection<A> implements Deque<A> {
+        private final StrictQueue<A> strictQueue;
+
+        private JavaDequeView(StrictQueue<A> strictQueue) {
+            this.strictQueue = strictQueue;
+        }
+
+        @Override
+        public A peekFirst() {
+            return strictQueue.head().orElse(null);
+        }
+
+        @Override
+        public A peekLast() {
+            return strictQueue.reverse().head().orElse(null);
+        }
+
+        @Override
+        public A getFirst() {
+            return strictQueue.head().orElseThrow(NoSuchElementException::new);
+        }
+
+        @Override
+        public A getLast() {
+            return strictQueue.reverse().head().orElseThrow(NoSuchElementException::new);
+        }
+
+        @Override
+        public A peek() {
+            return peekFirst();
+        }
+
+        @Override
+        public A element() {
+            return getFirst();
+        }
+
+        @Override
+        public int size() {
+            return javaSize(strictQueue);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return strictQueue.isEmpty();
+        }
+
+        @Override
+        public Iterator<A> iterator() {
+            return unmodifiable(strictQueue.iterator());
+        }
+
+        @Override
+        public Iterator<A> descendingIterator() {
+            return unmodifiable(strictQueue.reverse().iterator());
+        }
+
+        @Override
+        public void addFirst(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addLast(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offerFirst(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offerLast(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A removeFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A removeLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeFirstOccurrence(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeLastOccurrence(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offer(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A poll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void push(A a) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public A pop() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static <A> Iterator<A> unmodifiable(Iterator<A> iterator) {
+        return new Iterator<A>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public A next() {
+                return iterator.next();
+            }
+        };
+    }
 }
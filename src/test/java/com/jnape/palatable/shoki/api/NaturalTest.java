@@ -294,6 +294,67 @@ public class NaturalTest {
         assertTrue(cmpEq(zero(), zero()));
     }
 
+    @Test
+    public void comparisonAcrossRepresentations() {
+        NonZero smallInt  = new NonZero.I(1);
+        NonZero largeInt  = new NonZero.I(Integer.MAX_VALUE);
+        NonZero long_     = new NonZero.L(Integer.MAX_VALUE + 1L);
+        NonZero big       = new NonZero.B(BigInteger.valueOf(Long.MAX_VALUE).add(ONE));
+        NonZero narrowBig = new NonZero.B(ONE);
+
+        assertTrue(zero().compareTo(smallInt) < 0);
+        assertTrue(smallInt.compareTo(largeInt) < 0);
+        assertTrue(largeInt.compareTo(long_) < 0);
+        assertTrue(long_.compareTo(big) < 0);
+        assertTrue(big.compareTo(long_) > 0);
+        assertEquals(0, narrowBig.compareTo(smallInt));
+        assertEquals(0, smallInt.compareTo(narrowBig));
+        assertTrue(narrowBig.compareTo(zero()) > 0);
+        assertEquals(0, new NonZero.L(Long.MAX_VALUE).compareTo(Natural.abs(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void equalityAcrossRepresentations() {
+        assertEquals(new NonZero.I(1), new NonZero.L(1L));
+        assertEquals(new NonZero.L(1L), new NonZero.B(ONE));
+        assertEquals(new NonZero.B(ONE), new NonZero.I(1));
+        assertNotEquals(new NonZero.L(Long.MAX_VALUE), new NonZero.B(BigInteger.valueOf(Long.MAX_VALUE).add(ONE)));
+    }
+
+    @Test
+    public void smallValuesAreShared() {
+        assertSame(one(), Natural.abs(1));
+        assertSame(Natural.abs(1_024), Natural.atLeastZero(1_024L));
+        assertSame(Natural.atLeastOne(7), Natural.abs(BigInteger.valueOf(7)));
+        assertSame(Natural.abs(3), Natural.abs(5).minus(Natural.abs(2)).orElseThrow(AssertionError::new));
+        assertSame(Natural.abs(2), one().plus(one()));
+        assertSame(Natural.abs(1_024), Natural.abs(1_023).inc());
+        assertEquals(Natural.abs(1_025), Natural.abs(1_024).inc());
+        assertEquals(Natural.abs(1_025), Natural.abs(1_025));
+    }
+
+    @Test
+    public void absOfMostNegativeValues() {
+        assertEquals(Integer.MAX_VALUE + 1L, ((NonZero) Natural.abs(Integer.MIN_VALUE)).value());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(ONE), ((NonZero) Natural.abs(Long.MIN_VALUE)).value());
+    }
+
+    @Test
+    public void arithmeticNarrowsRepresentations() {
+        NonZero long_ = Natural.atLeastOne(Integer.MAX_VALUE + 1L);
+        NonZero big   = Natural.atLeastOne(BigInteger.valueOf(Long.MAX_VALUE).add(ONE));
+
+        assertEquals(just(Integer.MAX_VALUE), long_.minus(one()).<NonZero>fmap(downcast()).fmap(NonZero::value));
+        assertEquals(just(Long.MAX_VALUE), big.minus(one()).<NonZero>fmap(downcast()).fmap(NonZero::value));
+        assertEquals(nothing(), one().minus(long_));
+        assertEquals(nothing(), long_.minus(big));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(ONE).add(ONE), one().plus(big).value());
+        assertEquals(Long.MAX_VALUE,
+                     Natural.abs(Integer.MAX_VALUE).plus(Natural.abs(Long.MAX_VALUE - Integer.MAX_VALUE)).longValue());
+        assertEquals(Integer.MAX_VALUE, big.intValue());
+        assertEquals(Long.MAX_VALUE, big.longValue());
+    }
+
     @Test
     public void toStringIsUseful() {
         assertEquals("Zero{}", zero().toString());
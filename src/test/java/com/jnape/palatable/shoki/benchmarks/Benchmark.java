@@ -1,5 +1,6 @@
 package com.jnape.palatable.shoki.benchmarks;
 
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -17,6 +18,7 @@ import static java.util.Arrays.copyOf;
 public final class Benchmark {
 
     static final int K100 = 100_000;
+    static final int M10  = 10_000_000;
 
     private static final String ROOT_PACKAGE_PATH = join("/", "src", "test", "java");
     private static final String RESULTS_DIR_NAME  = "results";
@@ -25,6 +27,15 @@ public final class Benchmark {
         new Runner(shokiOptions(benchmarkClass, methods)).run();
     }
 
+    // only the runs that track allocations attach the GC profiler, recording to a results file of their own
+    public static void runBenchmarksProfilingGc(Class<?> benchmarkClass, String... methods) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .parent(shokiOptions(benchmarkClass, methods))
+                           .addProfiler(GCProfiler.class)
+                           .result(resultsFilePath(benchmarkClass).replaceFirst("\\.jmh\\.json$", ".gc.jmh.json"))
+                           .build()).run();
+    }
+
     private static Options shokiOptions(Class<?> benchmarkClass, String[] methods) {
         ChainedOptionsBuilder optionsBuilder = new OptionsBuilder()
                 .threads(Runtime.getRuntime().availableProcessors())
@@ -1,7 +1,10 @@
 package com.jnape.palatable.shoki.benchmarks;
 
 import com.jnape.palatable.lambda.adt.Unit;
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
 import com.jnape.palatable.shoki.impl.HashMap;
+import com.jnape.palatable.shoki.impl.IntHashMap;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -16,8 +19,11 @@ import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.RunnerException;
 
 import static com.jnape.palatable.lambda.adt.Unit.UNIT;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.K100;
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarks;
+import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarksProfilingGc;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static org.openjdk.jmh.annotations.Mode.Throughput;
 
@@ -29,7 +35,13 @@ import static org.openjdk.jmh.annotations.Mode.Throughput;
 @OperationsPerInvocation(K100)
 public class HashMapBenchmark {
 
-    private static final int N_COLLISIONS = 100;
+    private static final int N_COLLISIONS   = 100;
+    private static final int SLOW_HASH_COST = 64;
+
+    private static final HashingAlgorithm<Integer> SLOW_HASH = x -> {
+        Blackhole.consumeCPU(SLOW_HASH_COST);
+        return x.hashCode();
+    };
 
     public static void main(String[] args) throws RunnerException {
         Shoki.main(args);
@@ -63,6 +75,17 @@ public class HashMapBenchmark {
             return hashMap;
         }
 
+        @Benchmark
+        public HashMap<Integer, Unit> putRemoveSlowHash() {
+            HashMap<Integer, Unit> hashMap = HashMap.hashMap(objectEquals(), SLOW_HASH);
+            for (int i = 0; i < K100; i++) {
+                hashMap = hashMap.put(i, UNIT);
+                if ((i & 1) == 1)
+                    hashMap = hashMap.remove(i - 1);
+            }
+            return hashMap;
+        }
+
         @Benchmark
         public void getNoCollisions(NoCollisionsState state, Blackhole bh) {
             for (int i = 0; i < K100; i++) {
@@ -78,13 +101,86 @@ public class HashMapBenchmark {
             }
         }
 
+        @Benchmark
+        public void getOrDefaultNoCollisions(NoCollisionsLookupState state, Blackhole bh) {
+            for (Integer key : state.keys) {
+                bh.consume(state.hashMap.getOrDefault(key, UNIT));
+            }
+        }
+
+        @Benchmark
+        public void containsNoCollisions(NoCollisionsLookupState state, Blackhole bh) {
+            for (Integer key : state.keys) {
+                bh.consume(state.hashMap.contains(key));
+            }
+        }
+
         @Benchmark
         public void iteration(NoCollisionsState state, Blackhole bh) {
             state.hashMap.forEach(bh::consume);
         }
 
+        @Benchmark
+        @OperationsPerInvocation(N_COLLISIONS)
+        public void iterationFullCollisions(FullCollisionsState state, Blackhole bh) {
+            state.hashMap.forEach(bh::consume);
+        }
+
+        @Benchmark
+        public HashMap<Integer, Unit> putNoCollisionsCompact() {
+            HashMap<Integer, Unit> hashMap = HashMap.compactHashMap();
+            for (int i = 0; i < K100; i++) {
+                hashMap = hashMap.put(i, UNIT);
+            }
+            return hashMap;
+        }
+
+        @Benchmark
+        public void getNoCollisionsCompact(CompactNoCollisionsState state, Blackhole bh) {
+            for (int i = 0; i < K100; i++) {
+                bh.consume(state.hashMap.get(i));
+            }
+        }
+
+        @Benchmark
+        public IntHashMap<Unit> putNoCollisionsIntHashMap() {
+            IntHashMap<Unit> intHashMap = IntHashMap.intHashMap();
+            for (int i = 0; i < K100; i++) {
+                intHashMap = intHashMap.putInt(i, UNIT);
+            }
+            return intHashMap;
+        }
+
+        @Benchmark
+        public void getNoCollisionsIntHashMap(IntHashMapState state, Blackhole bh) {
+            for (int i = 0; i < K100; i++) {
+                bh.consume(state.intHashMap.getOrDefault(i, null));
+            }
+        }
+
+        @Benchmark
+        public void iterationCompact(CompactNoCollisionsState state, Blackhole bh) {
+            state.hashMap.forEach(bh::consume);
+        }
+
+        @Benchmark
+        public HashMap<Integer, Unit> bulkNoCollisions(EntriesState state) {
+            return HashMap.hashMap(state.entries);
+        }
+
+        @Benchmark
+        public HashMap<Integer, Unit> bulkNoCollisionsCompact(EntriesState state) {
+            return HashMap.compactHashMap(state.entries);
+        }
+
+        @Benchmark
+        public HashMap<Integer, Unit> fromJavaHashMap(EntriesState state) {
+            return com.jnape.palatable.shoki.interop.Shoki.hashMap(state.javaHashMap);
+        }
+
         public static void main(String[] args) throws RunnerException {
             runBenchmarks(HashMapBenchmark.Shoki.class);
+            runBenchmarksProfilingGc(HashMapBenchmark.Shoki.class, "iteration", "getOrDefault", "contains");
         }
 
         @org.openjdk.jmh.annotations.State(Scope.Thread)
@@ -100,6 +196,66 @@ public class HashMapBenchmark {
             }
         }
 
+        // built once per trial, so that allocation profiles of lookups are not polluted by building the map
+        @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+        public static class NoCollisionsLookupState {
+            HashMap<Integer, Unit> hashMap;
+            Integer[]              keys;
+
+            @Setup(Level.Trial)
+            public void doSetup() {
+                hashMap = HashMap.hashMap();
+                keys    = new Integer[K100];
+                for (int i = 0; i < K100; i++) {
+                    hashMap = hashMap.put(i, UNIT);
+                    keys[i] = i;
+                }
+            }
+        }
+
+        @org.openjdk.jmh.annotations.State(Scope.Thread)
+        public static class CompactNoCollisionsState {
+            HashMap<Integer, Unit> hashMap;
+
+            @Setup(Level.Invocation)
+            public void doSetup() {
+                hashMap = HashMap.compactHashMap();
+                for (int i = 0; i < K100; i++) {
+                    hashMap = hashMap.put(i, UNIT);
+                }
+            }
+        }
+
+        @org.openjdk.jmh.annotations.State(Scope.Thread)
+        public static class IntHashMapState {
+            IntHashMap<Unit> intHashMap;
+
+            @Setup(Level.Invocation)
+            public void doSetup() {
+                intHashMap = IntHashMap.intHashMap();
+                for (int i = 0; i < K100; i++) {
+                    intHashMap = intHashMap.putInt(i, UNIT);
+                }
+            }
+        }
+
+        @org.openjdk.jmh.annotations.State(Scope.Thread)
+        public static class EntriesState {
+            Tuple2<Integer, Unit>[]          entries;
+            java.util.HashMap<Integer, Unit> javaHashMap;
+
+            @Setup(Level.Trial)
+            @SuppressWarnings("unchecked")
+            public void doSetup() {
+                entries     = new Tuple2[K100];
+                javaHashMap = new java.util.HashMap<>();
+                for (int i = 0; i < K100; i++) {
+                    entries[i] = tuple(i, UNIT);
+                    javaHashMap.put(i, UNIT);
+                }
+            }
+        }
+
         @org.openjdk.jmh.annotations.State(Scope.Thread)
         public static class FullCollisionsState {
             HashMap<Collision, Unit> hashMap;
@@ -208,6 +364,12 @@ public class HashMapBenchmark {
                 state.hashMap.entrySet().forEach(bh::consume);
             }
 
+            @Benchmark
+            @OperationsPerInvocation(N_COLLISIONS)
+            public void iterationFullCollisions(FullCollisionsState state, Blackhole bh) {
+                state.hashMap.entrySet().forEach(bh::consume);
+            }
+
             public static void main(String[] args) throws RunnerException {
                 runBenchmarks(HashMapBenchmark.Java.HashMap.class);
             }
@@ -260,6 +422,12 @@ public class HashMapBenchmark {
                 state.linkedHashMap.entrySet().forEach(bh::consume);
             }
 
+            @Benchmark
+            @OperationsPerInvocation(N_COLLISIONS)
+            public void iterationFullCollisions(FullCollisionsState state, Blackhole bh) {
+                state.linkedHashMap.entrySet().forEach(bh::consume);
+            }
+
             public static void main(String[] args) throws RunnerException {
                 runBenchmarks(HashMapBenchmark.Java.LinkedHashMap.class);
             }
@@ -312,6 +480,12 @@ public class HashMapBenchmark {
                 state.treeMap.entrySet().forEach(bh::consume);
             }
 
+            @Benchmark
+            @OperationsPerInvocation(N_COLLISIONS)
+            public void iterationFullCollisions(FullCollisionsState state, Blackhole bh) {
+                state.treeMap.entrySet().forEach(bh::consume);
+            }
+
             public static void main(String[] args) throws RunnerException {
                 runBenchmarks(HashMapBenchmark.Java.TreeMap.class);
             }
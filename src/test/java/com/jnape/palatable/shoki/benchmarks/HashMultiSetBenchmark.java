@@ -16,6 +16,7 @@ import org.openjdk.jmh.runner.RunnerException;
 
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.K100;
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarks;
+import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarksProfilingGc;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static org.openjdk.jmh.annotations.Mode.Throughput;
 
@@ -42,6 +43,15 @@ public class HashMultiSetBenchmark {
             return hashMultiSet;
         }
 
+        @Benchmark
+        public HashMultiSet<Integer> incRepeated() {
+            HashMultiSet<Integer> hashMultiSet = HashMultiSet.hashMultiSet();
+            for (int i = 0; i < K100; i++) {
+                hashMultiSet = hashMultiSet.inc(i & 1_023);
+            }
+            return hashMultiSet;
+        }
+
         @Benchmark
         public HashMultiSet<Integer> dec(State state) {
             HashMultiSet<Integer> hashMultiSet = state.hashMultiSet;
@@ -58,6 +68,7 @@ public class HashMultiSetBenchmark {
 
         public static void main(String[] args) throws RunnerException {
             runBenchmarks(HashMultiSetBenchmark.Shoki.class);
+            runBenchmarksProfilingGc(HashMultiSetBenchmark.Shoki.class, "incRepeated");
         }
 
         @org.openjdk.jmh.annotations.State(Scope.Benchmark)
@@ -1,6 +1,7 @@
 package com.jnape.palatable.shoki.benchmarks;
 
 import com.jnape.palatable.shoki.impl.HashSet;
+import com.jnape.palatable.shoki.impl.LongHashSet;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -16,7 +17,9 @@ import org.openjdk.jmh.runner.RunnerException;
 
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.K100;
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarks;
+import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarksProfilingGc;
 import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.LongHashSet.longHashSet;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static org.openjdk.jmh.annotations.Mode.Throughput;
 
@@ -58,20 +61,60 @@ public class HashSetBenchmark {
             state.hashSet.forEach(bh::consume);
         }
 
+        @Benchmark
+        public void contains(State state, Blackhole bh) {
+            for (Integer element : state.elements) {
+                bh.consume(state.hashSet.contains(element));
+            }
+        }
+
+        @Benchmark
+        public LongHashSet addLongHashSet() {
+            LongHashSet longHashSet = longHashSet();
+            for (long i = 0; i < K100; i++) {
+                longHashSet = longHashSet.add(i);
+            }
+            return longHashSet;
+        }
+
+        @Benchmark
+        public void containsLongHashSet(State state, Blackhole bh) {
+            for (long i = 0; i < K100; i++) {
+                bh.consume(state.longHashSet.contains(i));
+            }
+        }
+
+        @Benchmark
+        public LongHashSet unionLongHashSet(State state) {
+            return state.longHashSet.union(state.otherLongHashSet);
+        }
+
         public static void main(String[] args) throws RunnerException {
             runBenchmarks(HashSetBenchmark.Shoki.class);
+            runBenchmarksProfilingGc(HashSetBenchmark.Shoki.class, "contains");
         }
 
         @org.openjdk.jmh.annotations.State(Scope.Benchmark)
         public static class State {
             HashSet<Integer> hashSet;
+            Integer[]        elements;
+            LongHashSet      longHashSet;
+            LongHashSet      otherLongHashSet;
 
             @Setup(Level.Trial)
             public void doSetup() {
-                hashSet = hashSet();
+                hashSet  = hashSet();
+                elements = new Integer[K100];
+                long[] longElements      = new long[K100];
+                long[] otherLongElements = new long[K100];
                 for (int i = 0; i < K100; i++) {
-                    hashSet = hashSet.add(i);
+                    hashSet              = hashSet.add(i);
+                    elements[i]          = i;
+                    longElements[i]      = i;
+                    otherLongElements[i] = i + K100 / 2;
                 }
+                longHashSet      = longHashSet(longElements);
+                otherLongHashSet = longHashSet(otherLongElements);
             }
         }
     }
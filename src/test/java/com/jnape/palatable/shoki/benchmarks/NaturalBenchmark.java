@@ -51,6 +51,48 @@ public class NaturalBenchmark {
         return nat;
     }
 
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public Natural plusLong(State state) {
+        Natural nat = abs(Long.MAX_VALUE / 2);
+        for (Natural n : state.ints) {
+            nat = nat.plus(n);
+        }
+        return nat;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public Natural minus(State state) {
+        Natural nat = abs(Long.MAX_VALUE);
+        for (Natural n : state.ints) {
+            nat = nat.minus(n).orElse(nat);
+        }
+        return nat;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public int compareTo(State state) {
+        Natural previous = zero();
+        int     ordered  = 0;
+        for (Natural n : state.ints) {
+            ordered += n.compareTo(previous);
+            previous = n;
+        }
+        return ordered;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public Natural absSmall() {
+        Natural nat = zero();
+        for (int i = 0; i < 1_000_000; i++) {
+            nat = abs(i & 1_023);
+        }
+        return nat;
+    }
+
     public static void main(String[] args) throws RunnerException {
         runBenchmarks(NaturalBenchmark.class);
     }
@@ -1,5 +1,6 @@
 package com.jnape.palatable.shoki.benchmarks;
 
+import com.jnape.palatable.shoki.api.Natural;
 import com.jnape.palatable.shoki.api.Stack;
 import com.jnape.palatable.shoki.impl.StrictStack;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -16,7 +17,9 @@ import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.RunnerException;
 
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.K100;
+import static com.jnape.palatable.shoki.benchmarks.Benchmark.M10;
 import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarks;
+import static com.jnape.palatable.shoki.benchmarks.Benchmark.runBenchmarksProfilingGc;
 import static com.jnape.palatable.shoki.benchmarks.StackOps.consRangeJDK;
 import static com.jnape.palatable.shoki.benchmarks.StackOps.consRangeShoki;
 import static com.jnape.palatable.shoki.impl.StrictStack.strictStack;
@@ -27,6 +30,7 @@ public class StrictStackBenchmark {
 
     public static void main(String[] args) throws RunnerException {
         Shoki.main(args);
+        Sizing.main(args);
         Java.main(args);
     }
 
@@ -82,6 +86,38 @@ public class StrictStackBenchmark {
         }
     }
 
+    @BenchmarkMode(Throughput)
+    @OutputTimeUnit(MICROSECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(5)
+    @OperationsPerInvocation(M10)
+    public static class Sizing {
+
+        @Benchmark
+        public Natural sizeInfo(State state) {
+            return state.strictStack.cons(0).sizeInfo().getSize();
+        }
+
+        public static void main(String[] args) throws RunnerException {
+            runBenchmarksProfilingGc(StrictStackBenchmark.Sizing.class);
+        }
+
+        @org.openjdk.jmh.annotations.State(Scope.Thread)
+        public static class State {
+            StrictStack<Integer> strictStack;
+
+            // never sized itself, so every fresh head has to count all of it
+            @Setup(Level.Trial)
+            public void doSetup() {
+                strictStack = strictStack();
+                for (int i = 1; i < M10; i++) {
+                    strictStack = strictStack.cons(0);
+                }
+            }
+        }
+    }
+
     public static class Java {
 
         public static void main(String[] args) throws RunnerException {
@@ -0,0 +1,198 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.shoki.api.MultiSet;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.atLeastOne;
+import static com.jnape.palatable.shoki.api.Natural.one;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.CountMinMultiSet.countMinMultiSet;
+import static com.jnape.palatable.shoki.impl.HashMultiSet.hashMultiSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CountMinMultiSetTest {
+
+    private static final CountMinMultiSet<String> EMPTY = countMinMultiSet(1_024, 4);
+
+    @Test
+    public void incAndGet() {
+        CountMinMultiSet<String> sketch = EMPTY.inc("foo").inc("bar", atLeastOne(3)).inc("foo");
+        assertEquals(abs(2), sketch.get("foo"));
+        assertEquals(abs(3), sketch.get("bar"));
+        assertEquals(zero(), sketch.get("baz"));
+        assertTrue(sketch.contains("foo"));
+        assertFalse(sketch.contains("baz"));
+        assertEquals(known(abs(5)), sketch.sizeInfo());
+    }
+
+    @Test
+    public void decAndRemove() {
+        CountMinMultiSet<String> sketch = EMPTY.inc("foo", atLeastOne(3)).inc("bar");
+        assertEquals(abs(2), sketch.dec("foo").get("foo"));
+        assertEquals(zero(), sketch.dec("foo", atLeastOne(10)).get("foo"));
+        assertEquals(known(abs(1)), sketch.dec("foo", atLeastOne(10)).sizeInfo());
+        assertEquals(zero(), sketch.remove("bar").get("bar"));
+        assertSame(sketch, sketch.dec("baz"));
+        assertTrue(sketch.remove("foo").remove("bar").isEmpty());
+    }
+
+    @Test
+    public void overDecrementingTakesCountsFromElementsSharingACounter() {
+        CountMinMultiSet<Integer> sketch = CountMinMultiSet.<Integer>countMinMultiSet(1, 1).inc(1).inc(2);
+        assertEquals(abs(2), sketch.get(1));
+
+        CountMinMultiSet<Integer> overDecremented = sketch.dec(1, atLeastOne(5));
+        assertEquals(zero(), overDecremented.get(2));
+        assertEquals(known(zero()), overDecremented.sizeInfo());
+        assertEquals(zero(), sketch.remove(1).get(2));
+    }
+
+    @Test
+    public void neverUndercounts() {
+        Random                    random = new Random(3);
+        CountMinMultiSet<Integer> sketch = countMinMultiSet(64, 3);
+        HashMultiSet<Integer>     exact  = hashMultiSet();
+        for (int i = 0; i < 10_000; i++) {
+            int element = random.nextInt(2_000);
+            sketch = sketch.inc(element);
+            exact = exact.inc(element);
+        }
+
+        assertEquals(exact.sizeInfo(), sketch.sizeInfo());
+        for (int element = 0; element < 2_000; element++)
+            assertTrue(sketch.get(element).compareTo(exact.get(element)) >= 0);
+    }
+
+    @Test
+    public void usesConfiguredHashingAlgorithm() {
+        CountMinMultiSet<String> sketch = CountMinMultiSet.<String>countMinMultiSet(String::length, 1_024, 4)
+                .inc("foo").inc("bar");
+        assertEquals(abs(2), sketch.get("baz"));
+        assertEquals(zero(), sketch.get("quux"));
+    }
+
+    @Test
+    public void sumAddsCounterByCounter() {
+        CountMinMultiSet<String> left  = EMPTY.inc("foo").inc("bar", atLeastOne(2));
+        CountMinMultiSet<String> right = EMPTY.inc("bar").inc("baz", atLeastOne(4));
+        CountMinMultiSet<String> sum   = left.sum(right);
+
+        assertEquals(EMPTY.inc("foo").inc("bar", atLeastOne(3)).inc("baz", atLeastOne(4)), sum);
+        assertEquals(known(abs(8)), sum.sizeInfo());
+        assertEquals(sum, left.sum(hashMultiSet("bar", "baz", "baz", "baz", "baz")));
+        assertSame(left, left.sum(hashMultiSet()));
+    }
+
+    @Test
+    public void unionAndIntersectionBoundMultiplicities() {
+        CountMinMultiSet<String> left  = EMPTY.inc("foo", atLeastOne(2)).inc("bar", atLeastOne(5));
+        CountMinMultiSet<String> right = EMPTY.inc("foo", atLeastOne(3)).inc("baz");
+
+        CountMinMultiSet<String> union = left.union(right);
+        assertEquals(abs(3), union.get("foo"));
+        assertEquals(abs(5), union.get("bar"));
+        assertEquals(one(), union.get("baz"));
+        assertEquals(known(abs(9)), union.sizeInfo());
+
+        CountMinMultiSet<String> intersection = left.intersection(right);
+        assertEquals(abs(2), intersection.get("foo"));
+        assertEquals(zero(), intersection.get("bar"));
+        assertEquals(known(abs(2)), intersection.sizeInfo());
+
+        assertEquals(union, left.union(hashMultiSet("foo", "foo", "foo", "baz")));
+    }
+
+    @Test
+    public void unionSizeIsLowerBoundAndIntersectionSizeIsUpperBound() {
+        CountMinMultiSet<Integer> one = countMinMultiSet(1, 1);
+        assertEquals(known(one()), one.inc(1).union(one.inc(2)).sizeInfo());
+        assertEquals(known(one()), one.inc(1).intersection(one.inc(2)).sizeInfo());
+
+        Random                    random     = new Random(7);
+        CountMinMultiSet<Integer> left       = countMinMultiSet(16, 3);
+        CountMinMultiSet<Integer> right      = countMinMultiSet(16, 3);
+        HashMultiSet<Integer>     exactLeft  = hashMultiSet();
+        HashMultiSet<Integer>     exactRight = hashMultiSet();
+        for (int i = 0; i < 1_000; i++) {
+            int leftElement  = random.nextInt(200);
+            int rightElement = random.nextInt(200);
+            left = left.inc(leftElement);
+            right = right.inc(rightElement);
+            exactLeft = exactLeft.inc(leftElement);
+            exactRight = exactRight.inc(rightElement);
+        }
+
+        assertTrue(left.union(right).sizeInfo().getSize()
+                           .compareTo(exactLeft.union(exactRight).sizeInfo().getSize()) <= 0);
+        assertTrue(left.intersection(right).sizeInfo().getSize()
+                           .compareTo(exactLeft.intersection(exactRight).sizeInfo().getSize()) >= 0);
+    }
+
+    @Test
+    public void widthIsRoundedUpToPowerOfTwo() {
+        CountMinMultiSet<String> sketch = countMinMultiSet(1_000, 5);
+        assertEquals(1_024, sketch.width());
+        assertEquals(5, sketch.depth());
+        assertEquals(1, countMinMultiSet(1, 1).width());
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        assertEquals(EMPTY.inc("foo"), EMPTY.inc("foo"));
+        assertEquals(EMPTY.inc("foo").hashCode(), EMPTY.inc("foo").hashCode());
+        assertEquals(EMPTY, EMPTY.inc("foo").dec("foo"));
+        assertNotEquals(EMPTY.inc("foo"), EMPTY.inc("bar"));
+        assertNotEquals(EMPTY, countMinMultiSet(1_024, 5));
+        assertNotEquals(EMPTY, hashMultiSet());
+    }
+
+    @Test
+    public void toStringIsUseful() {
+        assertEquals("CountMinMultiSet[width=1024, depth=4, size=2]", EMPTY.inc("foo").inc("bar").toString());
+    }
+
+    @Test
+    public void enumeratingOperationsAreUnsupported() {
+        CountMinMultiSet<String> sketch = EMPTY.inc("foo");
+        MultiSet<String>         other  = EMPTY.inc("bar");
+        assertUnsupported(sketch::unique);
+        assertUnsupported(sketch::head);
+        assertUnsupported(sketch::tail);
+        assertUnsupported(sketch::iterator);
+        assertUnsupported(() -> sketch.difference(other));
+        assertUnsupported(() -> sketch.symmetricDifference(other));
+        assertUnsupported(() -> sketch.merge(other, (x, y) -> x));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveWidth() {
+        countMinMultiSet(0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveDepth() {
+        countMinMultiSet(1_024, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOversizedGrid() {
+        countMinMultiSet(1 << 30, 2);
+    }
+
+    private static void assertUnsupported(Runnable operation) {
+        try {
+            operation.run();
+        } catch (UnsupportedOperationException expected) {
+            return;
+        }
+        throw new AssertionError("Expected an UnsupportedOperationException");
+    }
+}
@@ -1,7 +1,11 @@
 package com.jnape.palatable.shoki.impl;
 
 import com.jnape.palatable.lambda.adt.hlist.HList;
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.shoki.api.EquivalenceRelation;
 import com.jnape.palatable.shoki.impl.HAMT.Collision;
+import com.jnape.palatable.shoki.impl.HAMT.CompactNode;
+import com.jnape.palatable.shoki.impl.HAMT.Cursor;
 import com.jnape.palatable.shoki.impl.HAMT.Entry;
 import com.jnape.palatable.shoki.impl.HAMT.Node;
 import org.junit.Before;
@@ -9,18 +13,22 @@ import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
+import java.util.NoSuchElementException;
+
 import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.referenceEquals;
-import static com.jnape.palatable.shoki.api.HashingAlgorithm.objectHashCode;
 import static com.jnape.palatable.shoki.impl.Bitmap32.setBit;
 import static com.jnape.palatable.shoki.impl.HAMT.Node.rootNode;
 import static com.jnape.palatable.shoki.impl.StrictStack.strictStack;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static testsupport.matchers.IterableMatcher.iterates;
 
 @RunWith(Enclosed.class)
@@ -32,7 +40,7 @@ public class HAMTTest {
 
         @Before
         public void setUp() {
-            entry = new Entry<>("foo", 1);
+            entry = new Entry<>("foo", 1, "foo".hashCode());
         }
 
         @Test
@@ -47,31 +55,46 @@ public class HAMTTest {
 
         @Test
         public void get() {
-            assertEquals((Integer) 1, entry.get("foo", 0, objectEquals(), 0));
-            assertNull(entry.get("bar", 0, objectEquals(), 0));
-            assertNull(entry.get("foo", 0, (x, y) -> false, 0));
+            assertEquals((Integer) 1, entry.get("foo", "foo".hashCode(), objectEquals(), 0));
+            assertNull(entry.get("bar", "bar".hashCode(), objectEquals(), 0));
+            assertNull(entry.get("foo", "foo".hashCode(), (x, y) -> false, 0));
         }
 
         @Test
         public void remove() {
-            assertNull(entry.remove("foo", 0, objectEquals(), 0));
-            assertEquals(entry, entry.remove("bar", 0, objectEquals(), 0));
-            assertEquals(entry, entry.remove("foo", 0, (x, y) -> false, 0));
+            assertNull(entry.remove("foo", "foo".hashCode(), objectEquals(), 0));
+            assertEquals(entry, entry.remove("bar", "bar".hashCode(), objectEquals(), 0));
+            assertEquals(entry, entry.remove("foo", "foo".hashCode(), (x, y) -> false, 0));
+        }
+
+        @Test
+        public void keyHashMismatchSkipsEquivalenceRelation() {
+            EquivalenceRelation<String> unexpected = (x, y) -> {
+                throw new AssertionError("should not have compared " + x + " and " + y);
+            };
+            assertNull(entry.get("foo", 1, unexpected, 0));
+            assertNull(entry.entry("foo", 1, unexpected, 0));
+            assertSame(entry, entry.remove("foo", 1, unexpected, 0));
+            assertEquals(new Node<>(setBit(setBit(0, "foo".hashCode() & 31), 1),
+                                    new Object[]{new Entry<>("foo", 2, 1), entry}),
+                         entry.put("foo", 2, 1, unexpected, 0));
         }
 
         @Test
         public void put() {
-            assertEquals(new Entry<>("foo", 2),
-                         entry.put("foo", 2, "foo".hashCode(), objectEquals(), objectHashCode(), 0));
+            assertEquals(new Entry<>("foo", 2, "foo".hashCode()),
+                         entry.put("foo", 2, "foo".hashCode(), objectEquals(), 0));
             assertEquals(new Node<>(setBit(setBit(0, "foo".hashCode() & 31),
                                            "bar".hashCode() & 31),
-                                    new Object[]{new Entry<>("foo", 1), new Entry<>("bar", 2)}),
-                         entry.put("bar", 2, "bar".hashCode(), objectEquals(), objectHashCode(), 0));
+                                    new Object[]{new Entry<>("foo", 1, "foo".hashCode()),
+                                                 new Entry<>("bar", 2, "bar".hashCode())}),
+                         entry.put("bar", 2, "bar".hashCode(), objectEquals(), 0));
             assertEquals(new Node<>(1,
                                     new Object[]{new Collision<>("bar".hashCode(),
-                                                                 strictStack(new Entry<>("foo", 1),
-                                                                             new Entry<>("bar", 2)))}),
-                         entry.put("bar", 2, "bar".hashCode(), objectEquals(), objectHashCode(), 30));
+                                                                 strictStack(
+                                                                         new Entry<>("foo", 1, "foo".hashCode()),
+                                                                         new Entry<>("bar", 2, "bar".hashCode())))}),
+                         entry.put("bar", 2, "bar".hashCode(), objectEquals(), 30));
         }
     }
 
@@ -81,9 +104,9 @@ public class HAMTTest {
 
         @Before
         public void setUp() {
-            collision = new Collision<>(0, strictStack(new Entry<>("foo", 1),
-                                                       new Entry<>("bar", 2),
-                                                       new Entry<>("baz", 3)));
+            collision = new Collision<>(0, strictStack(new Entry<>("foo", 1, 0),
+                                                       new Entry<>("bar", 2, 0),
+                                                       new Entry<>("baz", 3, 0)));
         }
 
         @Test
@@ -105,54 +128,63 @@ public class HAMTTest {
 
         @Test
         public void put() {
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2),
-                                                        new Entry<>("foo", -1))),
-                         collision.put("foo", -1, 0, objectEquals(), objectHashCode(), -1));
-
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2),
-                                                        new Entry<>("foo", 1),
-                                                        new Entry<>("qux", 0))),
-                         collision.put("qux", 0, 0, objectEquals(), objectHashCode(), -1));
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", -1, 0))),
+                         collision.put("foo", -1, 0, objectEquals(), -1));
+
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", 1, 0),
+                                                        new Entry<>("qux", 0, 0))),
+                         collision.put("qux", 0, 0, objectEquals(), -1));
+
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", 1, 0),
+                                                        new Entry<>("foo", 0, 0))),
+                         collision.put("foo", 0, 0, (x, y) -> false, -1));
+        }
 
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2),
-                                                        new Entry<>("foo", 1),
-                                                        new Entry<>("foo", 0))),
-                         collision.put("foo", 0, 0, (x, y) -> false, objectHashCode(), -1));
+        @Test
+        public void putWithDifferentHashSplitsIntoNode() {
+            assertEquals(new Node<>(0b11, new Object[]{collision, new Entry<>("qux", 0, 0)}),
+                         collision.put("qux", 0, 1, objectEquals(), 0));
+            assertEquals(new Node<>(1, new Object[]{
+                                 new Node<>(0b11, new Object[]{collision, new Entry<>("qux", 0, 0)})}),
+                         collision.put("qux", 0, 0b1_00000, objectEquals(), 0));
         }
 
         @Test
         public void remove() {
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2))),
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0))),
                          collision.remove("foo", 0, objectEquals(), 0));
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("foo", 1))),
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("foo", 1, 0))),
                          collision.remove("bar", 0, objectEquals(), 0));
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("bar", 2),
-                                                        new Entry<>("foo", 1))),
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", 1, 0))),
                          collision.remove("baz", 0, objectEquals(), 0));
 
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2),
-                                                        new Entry<>("foo", 1))),
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", 1, 0))),
                          collision.remove("missing", 0, objectEquals(), 0));
 
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                        new Entry<>("bar", 2),
-                                                        new Entry<>("foo", 1))),
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                        new Entry<>("bar", 2, 0),
+                                                        new Entry<>("foo", 1, 0))),
                          collision.remove("foo", 0, (x, y) -> false, 0));
 
             assertEquals(collision, collision.remove("foo", -1, objectEquals(), 0));
 
-            assertEquals(new Entry<>("baz", 3),
+            assertEquals(new Entry<>("baz", 3, 0),
                          collision
                                  .remove("foo", 0, objectEquals(), 0)
                                  .remove("bar", 0, objectEquals(), 0));
 
-            assertEquals(new Entry<>("baz", 3),
+            assertEquals(new Entry<>("baz", 3, 0),
                          collision
                                  .remove("foo", 0, objectEquals(), 0)
                                  .remove("bar", 0, objectEquals(), 0));
@@ -163,12 +195,56 @@ public class HAMTTest {
             assertEquals(new Collision<>(0, strictStack()), new Collision<>(0, strictStack()));
             assertNotEquals(new Collision<>(0, strictStack()),
                             new Collision<>(1, strictStack()));
-            assertEquals(new Collision<>(0, strictStack(new Entry<>("foo", 1))),
-                         new Collision<>(0, strictStack(new Entry<>("foo", 1))));
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("foo", 1, 0))),
+                         new Collision<>(0, strictStack(new Entry<>("foo", 1, 0))));
             assertNotEquals(new Collision<>(0, strictStack()),
-                            new Collision<>(0, strictStack(new Entry<>("foo", 1))));
+                            new Collision<>(0, strictStack(new Entry<>("foo", 1, 0))));
 
             assertNotEquals(new Collision<>(0, strictStack()), new Object());
+
+            assertEquals(new Collision<>(0, strictStack(new Entry<>("foo", 1, 0), new Entry<>("bar", 2, 0))),
+                         new Collision<>(0, strictStack(new Entry<>("bar", 2, 0), new Entry<>("foo", 1, 0))));
+            assertNotEquals(new Collision<>(0, strictStack(new Entry<>("foo", 1, 0), new Entry<>("bar", 2, 0))),
+                            new Collision<>(0, strictStack(new Entry<>("bar", 1, 0), new Entry<>("foo", 2, 0))));
+        }
+
+        @Test
+        public void largeBucketsOfComparableKeysAreKeptSorted() {
+            HAMT<Integer, String> bucket = new Collision<>(0, strictStack());
+            for (int i = Collision.SORTED_THRESHOLD * 2; i >= 0; i--)
+                bucket = bucket.put(i, "v" + i, 0, objectEquals(), 30);
+
+            int expected = 0;
+            for (Tuple2<Integer, String> entry : bucket) {
+                assertEquals(tuple(expected, "v" + expected), entry);
+                expected++;
+            }
+            assertEquals(Collision.SORTED_THRESHOLD * 2 + 1, expected);
+
+            for (int i = 0; i < expected; i++)
+                assertEquals("v" + i, bucket.get(i, 0, objectEquals(), 30));
+            assertNull(bucket.get(-1, 0, objectEquals(), 30));
+            assertNull(bucket.get(expected, 0, objectEquals(), 30));
+
+            bucket = bucket.put(3, "three", 0, objectEquals(), 30).remove(4, 0, objectEquals(), 30);
+            assertEquals("three", bucket.get(3, 0, objectEquals(), 30));
+            assertNull(bucket.get(4, 0, objectEquals(), 30));
+            assertEquals(expected - 1, bucket.size());
+        }
+
+        @Test
+        public void largeBucketsUnderOtherEquivalenceRelationsStayInInsertionOrder() {
+            EquivalenceRelation<Integer> eqRel  = Integer::equals;
+            HAMT<Integer, String>        bucket = new Collision<>(0, strictStack());
+            for (int i = Collision.SORTED_THRESHOLD * 2; i >= 0; i--)
+                bucket = bucket.put(i, "v" + i, 0, eqRel, 30);
+
+            int expected = Collision.SORTED_THRESHOLD * 2;
+            for (Tuple2<Integer, String> entry : bucket) {
+                assertEquals(tuple(expected, "v" + expected), entry);
+                expected--;
+            }
+            assertEquals("v3", bucket.get(3, 0, eqRel, 30));
         }
     }
 
@@ -182,10 +258,10 @@ public class HAMTTest {
         @Test
         public void iteratesAllEntries() {
             assertThat(new Node<>(0, new Object[]{
-                               new Entry<>("foo", 1),
-                               new Node<>(0, new Object[]{new Entry<>("bar", 2)}),
-                               new Collision<>(0, strictStack(new Entry<>("baz", 3),
-                                                              new Entry<>("quux", 4)))}),
+                               new Entry<>("foo", 1, 0),
+                               new Node<>(0, new Object[]{new Entry<>("bar", 2, 0)}),
+                               new Collision<>(0, strictStack(new Entry<>("baz", 3, 0),
+                                                              new Entry<>("quux", 4, 0)))}),
                        iterates(tuple("foo", 1),
                                 tuple("bar", 2),
                                 tuple("baz", 3),
@@ -200,10 +276,10 @@ public class HAMTTest {
         @Test
         public void get() {
             Node<Integer, String> node = new Node<Integer, String>(0, new Object[0])
-                    .put(foo, "foo", foo, referenceEquals(), objectHashCode(), 0)
-                    .put(bar, "bar", bar, referenceEquals(), objectHashCode(), 0)
-                    .put(baz, "baz", baz, referenceEquals(), objectHashCode(), 0)
-                    .put(quux, "quux", quux, referenceEquals(), objectHashCode(), 0);
+                    .put(foo, "foo", foo, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0)
+                    .put(quux, "quux", quux, referenceEquals(), 0);
 
             assertEquals("foo", node.get(foo, foo, referenceEquals(), 0));
             assertEquals("bar", node.get(bar, bar, referenceEquals(), 0));
@@ -216,52 +292,40 @@ public class HAMTTest {
 
         @Test
         public void put() {
-            assertEquals(new Node<>(1, new Object[]{new Entry<>(foo, "foo")}),
-                         rootNode().put(foo, "foo", foo, objectEquals(), objectHashCode(), 0));
-            assertEquals(new Node<>(2, new Object[]{new Entry<>(bar, "bar")}),
-                         rootNode().put(bar, "bar", bar, objectEquals(), objectHashCode(), 0));
-            assertEquals(new Node<>(3, new Object[]{new Entry<>(foo, "foo"), new Entry<>(bar, "bar")}),
+            assertEquals(new Node<>(1, new Object[]{new Entry<>(foo, "foo", foo)}),
+                         rootNode().put(foo, "foo", foo, objectEquals(), 0));
+            assertEquals(new Node<>(2, new Object[]{new Entry<>(bar, "bar", bar)}),
+                         rootNode().put(bar, "bar", bar, objectEquals(), 0));
+            assertEquals(new Node<>(3, new Object[]{new Entry<>(foo, "foo", foo), new Entry<>(bar, "bar", bar)}),
                          rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0)
-                                 .put(bar, "bar", bar, objectEquals(), objectHashCode(), 0));
+                                 .put(foo, "foo", foo, objectEquals(), 0)
+                                 .put(bar, "bar", bar, objectEquals(), 0));
 
             assertEquals(new Node<>(3, new Object[]{
-                                 new Entry<>(foo, "foo"),
+                                 new Entry<>(foo, "foo", foo),
                                  new Node<>(3, new Object[]{
-                                         new Entry<>(bar, "bar"),
-                                         new Entry<>(baz, "baz")
+                                         new Entry<>(bar, "bar", bar),
+                                         new Entry<>(baz, "baz", baz)
                                  })}),
                          rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0)
-                                 .put(bar, "bar", bar, objectEquals(), objectHashCode(), 0)
-                                 .put(baz, "baz", baz, objectEquals(), objectHashCode(), 0));
+                                 .put(foo, "foo", foo, objectEquals(), 0)
+                                 .put(bar, "bar", bar, objectEquals(), 0)
+                                 .put(baz, "baz", baz, objectEquals(), 0));
 
             assertEquals(
                     new Node<>(3, new Object[]{
-                            new Entry<>(foo, "foo"),
+                            new Entry<>(foo, "foo", foo),
                             new Node<>(3, new Object[]{
-                                    new Entry<>(bar, "bar"),
-                                    new Node<>(0b00_00000_00000_00010_00000_00000_00000, new Object[]{
-                                            new Node<>(1, new Object[]{
-                                                    new Node<>(1, new Object[]{
-                                                            new Node<>(1, new Object[]{
-                                                                    new Node<>(1, new Object[]{
-                                                                            new Collision<>(
-                                                                                    0b10000_00001_00001,
-                                                                                    strictStack(
-                                                                                            new Entry<>(baz, "baz"),
-                                                                                            new Entry<>(quux, "quux")))
-                                                                    })
-                                                            })
-                                                    })
-                                            })
-                                    })
+                                    new Entry<>(bar, "bar", bar),
+                                    new Collision<>(0b10000_00001_00001,
+                                                    strictStack(new Entry<>(baz, "baz", baz),
+                                                                new Entry<>(quux, "quux", quux)))
                             })}),
                     rootNode()
-                            .put(foo, "foo", foo, referenceEquals(), objectHashCode(), 0)
-                            .put(bar, "bar", bar, referenceEquals(), objectHashCode(), 0)
-                            .put(baz, "baz", baz, referenceEquals(), objectHashCode(), 0)
-                            .put(quux, "quux", quux, referenceEquals(), objectHashCode(), 0));
+                            .put(foo, "foo", foo, referenceEquals(), 0)
+                            .put(bar, "bar", bar, referenceEquals(), 0)
+                            .put(baz, "baz", baz, referenceEquals(), 0)
+                            .put(quux, "quux", quux, referenceEquals(), 0));
         }
 
         @Test
@@ -271,41 +335,247 @@ public class HAMTTest {
 
             assertEquals(Node.<Integer, String>rootNode(),
                          Node.<Integer, String>rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0)
+                                 .put(foo, "foo", foo, objectEquals(), 0)
                                  .remove(foo, foo, objectEquals(), 0));
 
             assertEquals(Node.<Integer, String>rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0),
+                                 .put(foo, "foo", foo, objectEquals(), 0),
                          Node.<Integer, String>rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0)
+                                 .put(foo, "foo", foo, objectEquals(), 0)
                                  .remove(foo, -1, objectEquals(), 0));
 
             assertEquals(Node.<Integer, String>rootNode()
-                                 .put(bar, "bar", bar, objectEquals(), objectHashCode(), 0),
+                                 .put(bar, "bar", bar, objectEquals(), 0),
                          Node.<Integer, String>rootNode()
-                                 .put(foo, "foo", foo, objectEquals(), objectHashCode(), 0)
-                                 .put(bar, "bar", bar, objectEquals(), objectHashCode(), 0)
+                                 .put(foo, "foo", foo, objectEquals(), 0)
+                                 .put(bar, "bar", bar, objectEquals(), 0)
                                  .remove(foo, foo, objectEquals(), 0));
 
-            assertEquals(new Node<>(2, new Object[]{
-                                 new Node<>(2, new Object[]{
-                                         new Node<>(0b10_00000_00000_00000, new Object[]{
-                                                 new Node<>(1, new Object[]{
-                                                         new Node<>(1, new Object[]{
-                                                                 new Node<>(1, new Object[]{
-                                                                         new Node<>(1, new Object[]{
-                                                                                 new Entry<>(baz, "baz")
-                                                                         })
-                                                                 })
-                                                         })
-                                                 })
-                                         })
-                                 })
-                         }),
+            assertEquals(new Node<>(2, new Object[]{new Entry<>(baz, "baz", baz)}),
                          Node.<Integer, String>rootNode()
-                                 .put(baz, "baz", baz, referenceEquals(), objectHashCode(), 0)
-                                 .put(quux, "quux", quux, referenceEquals(), objectHashCode(), 0)
+                                 .put(baz, "baz", baz, referenceEquals(), 0)
+                                 .put(quux, "quux", quux, referenceEquals(), 0)
                                  .remove(quux, quux, referenceEquals(), 0));
         }
+
+        @Test
+        public void size() {
+            assertEquals(0, rootNode().size());
+            assertEquals(4, new Node<>(0, new Object[]{
+                    new Entry<>("foo", 1, 0),
+                    new Node<>(0, new Object[]{new Entry<>("bar", 2, 0)}),
+                    new Collision<>(0, strictStack(new Entry<>("baz", 3, 0), new Entry<>("quux", 4, 0)))}).size());
+
+            HAMT<Integer, String> node = Node.<Integer, String>rootNode()
+                    .put(foo, "foo", foo, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0)
+                    .put(quux, "quux", quux, referenceEquals(), 0);
+            assertEquals(4, node.size());
+            assertEquals(4, node.put(foo, "foo'", foo, referenceEquals(), 0).size());
+            assertEquals(3, node.remove(quux, quux, referenceEquals(), 0).size());
+            assertEquals(4, node.remove(-1, -1, referenceEquals(), 0).size());
+        }
+
+        @Test
+        public void sameEntries() {
+            HAMT<Integer, String> node = Node.<Integer, String>rootNode()
+                    .put(foo, "foo", foo, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0)
+                    .put(quux, "quux", quux, referenceEquals(), 0);
+            HAMT<Integer, String> reordered = Node.<Integer, String>rootNode()
+                    .put(quux, "quux", quux, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(foo, "foo", foo, referenceEquals(), 0);
+
+            assertTrue(HAMT.sameEntries(node, node, referenceEquals()));
+            assertTrue(HAMT.sameEntries(node, reordered, referenceEquals()));
+            assertFalse(HAMT.sameEntries(node, reordered.put(foo, "bar", foo, referenceEquals(), 0),
+                                         referenceEquals()));
+            assertFalse(HAMT.sameEntries(node, reordered.remove(bar, bar, referenceEquals(), 0),
+                                         referenceEquals()));
+            assertFalse(HAMT.sameEntries(node.remove(quux, quux, referenceEquals(), 0),
+                                         reordered.remove(baz, baz, referenceEquals(), 0),
+                                         referenceEquals()));
+        }
+
+        @Test
+        public void entriesHash() {
+            assertEquals(0, rootNode().entriesHash());
+            assertEquals(("foo".hashCode() ^ 1) + ("bar".hashCode() ^ 2),
+                         new Node<>(0, new Object[]{
+                                 new Entry<>("foo", 1, "foo".hashCode()),
+                                 new Collision<>(0, strictStack(new Entry<>("bar", 2, "bar".hashCode())))
+                         }).entriesHash());
+
+            Object owner = new Object();
+            HAMT<Integer, String> node = Node.<Integer, String>rootNode()
+                    .put(foo, "foo", foo, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0, owner)
+                    .put(quux, "quux", quux, referenceEquals(), 0, owner);
+            int expected = (foo ^ "foo".hashCode()) + (bar ^ "bar".hashCode())
+                    + (baz ^ "baz".hashCode()) + (quux ^ "quux".hashCode());
+            assertEquals(expected, node.entriesHash());
+            assertEquals(expected - "foo".hashCode() + "foo'".hashCode(),
+                         node.put(foo, "foo'", foo, referenceEquals(), 0).entriesHash());
+            assertEquals(expected - (quux ^ "quux".hashCode()),
+                         node.remove(quux, quux, referenceEquals(), 0, owner).entriesHash());
+        }
+
+        @Test
+        public void ownedNodesAreEditedInPlace() {
+            Object owner = new Object();
+            Node<Integer, String> owned = new Node<Integer, String>(0, new Object[0])
+                    .put(foo, "foo", foo, objectEquals(), 0, owner);
+
+            assertSame(owned, owned.put(bar, "bar", bar, objectEquals(), 0, owner));
+            assertSame(owned, owned.put(baz, "baz", baz, objectEquals(), 0, owner));
+            assertSame(owned, owned.remove(bar, bar, objectEquals(), 0, owner));
+            assertEquals(rootNode()
+                                 .put(foo, "foo", foo, objectEquals(), 0)
+                                 .put(baz, "baz", baz, objectEquals(), 0)
+                                 .put(bar, "bar", bar, objectEquals(), 0)
+                                 .remove(bar, bar, objectEquals(), 0),
+                         owned);
+        }
+
+        @Test
+        public void unownedNodesAreCopied() {
+            Node<Integer, String> unowned = new Node<Integer, String>(0, new Object[0])
+                    .put(foo, "foo", foo, objectEquals(), 0);
+            Node<Integer, String> owned = new Node<Integer, String>(0, new Object[0])
+                    .put(foo, "foo", foo, objectEquals(), 0, new Object());
+
+            assertNotSame(unowned, unowned.put(bar, "bar", bar, objectEquals(), 0, new Object()));
+            assertNotSame(owned, owned.put(bar, "bar", bar, objectEquals(), 0, new Object()));
+            assertNotSame(owned, owned.put(bar, "bar", bar, objectEquals(), 0));
+            assertEquals(new Node<>(1, new Object[]{new Entry<>(foo, "foo", foo)}), unowned);
+            assertEquals(new Node<>(1, new Object[]{new Entry<>(foo, "foo", foo)}), owned);
+        }
+    }
+
+    public static final class CompactNodeTest {
+
+        private static final Integer foo  = 0b00_00000_00000_00000_00000_00000_00000;
+        private static final Integer bar  = 0b00_00000_00000_00000_00000_00000_00001;
+        private static final Integer baz  = 0b00_00000_00000_00000_10000_00001_00001;
+        private static final Integer quux = 0b00_00000_00000_00000_10000_00001_00001;
+
+        private CompactNode<Integer, String> node;
+
+        @Before
+        public void setUp() {
+            node = CompactNode.<Integer, String>emptyCompactNode()
+                    .put(foo, "foo", foo, referenceEquals(), 0)
+                    .put(bar, "bar", bar, referenceEquals(), 0)
+                    .put(baz, "baz", baz, referenceEquals(), 0)
+                    .put(quux, "quux", quux, referenceEquals(), 0);
+        }
+
+        @Test
+        public void get() {
+            assertEquals("foo", node.get(foo, foo, referenceEquals(), 0));
+            assertEquals("bar", node.get(bar, bar, referenceEquals(), 0));
+            assertEquals("baz", node.get(baz, baz, referenceEquals(), 0));
+            assertEquals("quux", node.get(quux, quux, referenceEquals(), 0));
+
+            assertNull(node.get(-1, foo, referenceEquals(), 0));
+            assertNull(node.get(foo, -1, referenceEquals(), 0));
+        }
+
+        @Test
+        public void entry() {
+            assertEquals(new Entry<>(bar, "bar", bar), node.entry(bar, bar, referenceEquals(), 0));
+            assertEquals(new Entry<>(quux, "quux", quux), node.entry(quux, quux, referenceEquals(), 0));
+            assertNull(node.entry(-1, bar, referenceEquals(), 0));
+        }
+
+        @Test
+        public void sizeAndEntriesHash() {
+            assertEquals(0, CompactNode.emptyCompactNode().size());
+            assertEquals(4, node.size());
+            assertEquals((foo ^ "foo".hashCode()) + (bar ^ "bar".hashCode())
+                                 + (baz ^ "baz".hashCode()) + (quux ^ "quux".hashCode()),
+                         node.entriesHash());
+        }
+
+        @Test
+        public void removalRestoresCanonicalForm() {
+            assertEquals(CompactNode.<Integer, String>emptyCompactNode()
+                                 .put(foo, "foo", foo, referenceEquals(), 0)
+                                 .put(bar, "bar", bar, referenceEquals(), 0)
+                                 .put(baz, "baz", baz, referenceEquals(), 0),
+                         node.remove(quux, quux, referenceEquals(), 0));
+            assertEquals(CompactNode.<Integer, String>emptyCompactNode()
+                                 .put(foo, "foo", foo, referenceEquals(), 0)
+                                 .put(baz, "baz", baz, referenceEquals(), 0),
+                         node.remove(quux, quux, referenceEquals(), 0)
+                                 .remove(bar, bar, referenceEquals(), 0));
+            assertEquals(CompactNode.<Integer, String>emptyCompactNode(),
+                         node.remove(foo, foo, referenceEquals(), 0)
+                                 .remove(bar, bar, referenceEquals(), 0)
+                                 .remove(baz, baz, referenceEquals(), 0)
+                                 .remove(quux, quux, referenceEquals(), 0));
+        }
+
+        @Test
+        public void ownedNodesAreEditedInPlace() {
+            Object owner = new Object();
+            CompactNode<Integer, String> owned = CompactNode.<Integer, String>emptyCompactNode()
+                    .put(foo, "foo", foo, objectEquals(), 0, owner);
+
+            assertSame(owned, owned.put(bar, "bar", bar, objectEquals(), 0, owner));
+            assertSame(owned, owned.put(baz, "baz", baz, objectEquals(), 0, owner));
+            assertSame(owned, owned.remove(bar, bar, objectEquals(), 0, owner));
+            assertNotSame(owned, owned.put(bar, "bar", bar, objectEquals(), 0));
+            assertEquals(CompactNode.<Integer, String>emptyCompactNode()
+                                 .put(baz, "baz", baz, objectEquals(), 0)
+                                 .put(foo, "foo", foo, objectEquals(), 0),
+                         owned);
+            assertEquals(2, owned.size());
+        }
+
+        @Test
+        public void iteratesInlineEntriesBeforeSubTries() {
+            assertThat(node, iterates(tuple(foo, "foo"), tuple(bar, "bar"), tuple(baz, "baz"), tuple(quux, "quux")));
+        }
+    }
+
+    public static final class CursorTest {
+
+        @Test
+        public void iteratesNothingForEmptyNode() {
+            assertFalse(new Cursor<>(Node.<String, Integer>rootNode()).hasNext());
+        }
+
+        @Test
+        public void iteratesLeafRoots() {
+            assertThat(() -> new Cursor<>(new Entry<>("foo", 1, 0)), iterates(tuple("foo", 1)));
+            assertThat(() -> new Cursor<>(new Collision<>(0, strictStack(new Entry<>("foo", 1, 0),
+                                                                         new Entry<>("bar", 2, 0)))),
+                       iterates(tuple("foo", 1), tuple("bar", 2)));
+        }
+
+        @Test
+        public void iteratesDepthFirstAcrossMaximumDepth() {
+            Node<Integer, String> node = new Node<Integer, String>(0, new Object[0])
+                    .put(0, "foo", 0, referenceEquals(), 0)
+                    .put(1, "bar", 0, referenceEquals(), 0)
+                    .put(2, "baz", 0b1_00000_00000_00000_00000_00000_00000, referenceEquals(), 0)
+                    .put(3, "quux", 1, referenceEquals(), 0);
+
+            assertThat(() -> new Cursor<>(node),
+                       iterates(tuple(0, "foo"), tuple(1, "bar"), tuple(2, "baz"), tuple(3, "quux")));
+        }
+
+        @Test(expected = NoSuchElementException.class)
+        public void throwsWhenExhausted() {
+            Cursor<String, Integer> cursor = new Cursor<>(new Entry<>("foo", 1, 0));
+            cursor.next();
+            cursor.next();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,29 @@
 package com.jnape.palatable.shoki.impl;
 
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.shoki.api.Collection;
+import com.jnape.palatable.shoki.api.HashingAlgorithm;
+import com.jnape.palatable.shoki.api.Map;
+import com.jnape.palatable.shoki.api.Natural;
+import com.jnape.palatable.shoki.testsupport.DefaultMethodsMap;
 import com.jnape.palatable.shoki.testsupport.StubbedHashingAlgorithm;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
 import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.nothing;
 import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.lambda.functions.builtin.fn2.Find.find;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.referenceEquals;
 import static com.jnape.palatable.shoki.api.HashingAlgorithm.identityHashCode;
 import static com.jnape.palatable.shoki.api.HashingAlgorithm.objectHashCode;
+import static com.jnape.palatable.shoki.api.Map.EquivalenceRelations.entries;
 import static com.jnape.palatable.shoki.api.Natural.abs;
 import static com.jnape.palatable.shoki.api.Natural.one;
 import static com.jnape.palatable.shoki.api.Natural.zero;
@@ -17,12 +31,16 @@ import static com.jnape.palatable.shoki.api.Set.EquivalenceRelations.sameElement
 import static com.jnape.palatable.shoki.api.SizeInfo.known;
 import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
 import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
-import static com.jnape.palatable.shoki.impl.StrictQueue.strictQueue;
 import static com.jnape.palatable.shoki.testsupport.EquivalenceRelationMatcher.equivalentTo;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static testsupport.matchers.IterableMatcher.isEmpty;
@@ -152,6 +170,14 @@ public class HashMapTest {
         assertEquals(just(2), collision.get("bar"));
     }
 
+    @Test
+    public void getOrDefault() {
+        HashMap<Integer, String> hashMap = HashMap.<Integer, String>hashMap().put(0, "foo");
+        assertEquals("foo", hashMap.getOrDefault(0, "bar"));
+        assertEquals("bar", hashMap.getOrDefault(1, "bar"));
+        assertNull(hashMap.getOrDefault(1, null));
+    }
+
     @Test
     public void contains() {
         HashMap<Integer, String> empty = hashMap();
@@ -269,6 +295,46 @@ public class HashMapTest {
         assertEquals(just(false), tail.get(32));
     }
 
+    @Test
+    public void tailAgreesWithRemovingHeadInEitherLayout() {
+        HashingAlgorithm<Integer> quarteredHashes = i -> (i / 4) * 0x9E3779B1;
+        HashMap<Integer, Integer> classic         = HashMap.hashMap(objectEquals(), quarteredHashes);
+        HashMap<Integer, Integer> compact         = HashMap.compactHashMap(objectEquals(), quarteredHashes);
+        for (HashMap<Integer, Integer> hashMap : asList(classic, compact)) {
+            for (int i = 0; i < 2_000; i++)
+                hashMap = hashMap.put(i * 31, i);
+
+            while (!hashMap.isEmpty()) {
+                Tuple2<Integer, Integer>  head = hashMap.head().orElseThrow(AssertionError::new);
+                HashMap<Integer, Integer> tail = hashMap.tail();
+                assertEquals(hashMap.remove(head._1()), tail);
+                assertEquals(hashMap.remove(head._1()).hashCode(), tail.hashCode());
+                assertEquals(just(tuple(head, tail)), hashMap.uncons());
+                hashMap = tail;
+            }
+            assertSame(hashMap, hashMap.tail());
+        }
+    }
+
+    @Test
+    public void uncons() {
+        assertEquals(nothing(), hashMap().uncons());
+        assertEquals(just(tuple(tuple("foo", 1), hashMap())), hashMap().put("foo", 1).uncons());
+
+        HashMap<Integer, Integer> hashMap = hashMap();
+        for (int i = 0; i < 1_000; i++)
+            hashMap = hashMap.put(i, i);
+
+        long sum = 0;
+        for (HashMap<Integer, Integer> remaining = hashMap; !remaining.isEmpty(); ) {
+            Tuple2<Tuple2<Integer, Integer>, HashMap<Integer, Integer>> uncons =
+                    remaining.uncons().orElseThrow(AssertionError::new);
+            sum += uncons._1()._2();
+            remaining = uncons._2();
+        }
+        assertEquals(499_500L, sum);
+    }
+
     @Test
     public void equalsUsesSameEntriesWithObjectEqualsForValues() {
         assertEquals(hashMap(), hashMap());
@@ -289,6 +355,62 @@ public class HashMapTest {
                              .remove(64));
     }
 
+    @Test
+    public void equalsIsIndependentOfEditHistory() {
+        StubbedHashingAlgorithm<Integer> hashAlg = StubbedHashingAlgorithm.<Integer>stubbedHashingAlgorithm()
+                .stub(-1, 0b1_00001)
+                .stub(-2, 0b1_00001)
+                .stub(-3, 0b1_00001);
+        HashMap<Integer, Integer> forwards  = HashMap.hashMap(objectEquals(), hashAlg);
+        HashMap<Integer, Integer> backwards = HashMap.hashMap(objectEquals(), hashAlg);
+        HashMap<Integer, Integer> churned   = HashMap.hashMap(objectEquals(), hashAlg);
+        for (int i = -3; i < 1_000; i++) {
+            forwards = forwards.put(i, i);
+            backwards = backwards.put(996 - i, 996 - i);
+            churned = churned.put(i, -i).put(i + 5_000, i);
+        }
+        for (int i = -3; i < 1_000; i++)
+            churned = churned.remove(i + 5_000).put(i, i);
+
+        assertEquals(forwards, backwards);
+        assertEquals(forwards, churned);
+        assertEquals(forwards.remove(-2), backwards.remove(-2));
+        assertNotEquals(forwards.remove(-2), backwards.remove(-3));
+        assertNotEquals(forwards, backwards.put(-1, 0));
+    }
+
+    @Test
+    public void equalsSkipsSubTriesSharedByBothHashMaps() {
+        Object unequalToAnything = new Object() {
+            @Override
+            public boolean equals(Object other) {
+                throw new AssertionError("shared sub-trie should not have been compared");
+            }
+
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+        };
+        HashMap<Integer, Object> hashMap = HashMap.<Integer, Object>hashMap().put(0, unequalToAnything).put(1, 1);
+
+        assertEquals(hashMap, hashMap.put(2, 2).remove(2));
+        assertEquals(hashMap.put(1, 2), hashMap.put(1, 2));
+        assertNotEquals(hashMap, hashMap.put(1, 2));
+    }
+
+    @Test
+    public void equalsAcrossLayouts() {
+        assertEquals(HashMap.compactHashMap(tuple(1, "foo"), tuple(33, "bar")),
+                     hashMap(tuple(33, "bar"), tuple(1, "foo")));
+        assertEquals(hashMap(tuple(1, "foo"), tuple(33, "bar")),
+                     HashMap.compactHashMap(tuple(33, "bar"), tuple(1, "foo")));
+        assertEquals(HashMap.compactHashMap(tuple(1, "foo"), tuple(33, "bar"), tuple(65, "baz")).remove(65),
+                     HashMap.compactHashMap(tuple(33, "bar"), tuple(1, "foo")));
+        assertNotEquals(HashMap.compactHashMap(tuple(1, "foo"), tuple(33, "bar")),
+                        HashMap.compactHashMap(tuple(1, "foo"), tuple(33, "baz")));
+    }
+
     @Test
     public void hashCodeUsesKeyHashingAlgorithmForKeysAndObjectHashForValuesForEqualsSymmetry() {
         assertEquals(hashMap().hashCode(), hashMap().hashCode());
@@ -300,6 +422,35 @@ public class HashMapTest {
         assertEquals(hashMap().put(0, 1).put(32, 2).remove(32).hashCode(), hashMap().put(0, 1).hashCode());
     }
 
+    @Test
+    public void hashCodeIsMaintainedAcrossEditsAndMerges() {
+        StubbedHashingAlgorithm<Integer> hashAlg = StubbedHashingAlgorithm.<Integer>stubbedHashingAlgorithm()
+                .stub(-1, 7)
+                .stub(-2, 7);
+        HashingAlgorithm<HashMap<Integer, Integer>> entriesHash =
+                Map.HashingAlgorithms.entries(hashAlg, objectHashCode());
+
+        HashMap<Integer, Integer> map = HashMap.<Integer, Integer>hashMap(objectEquals(), hashAlg)
+                .put(-1, 1)
+                .put(-2, 2);
+        for (int i = 0; i < 1_000; i++)
+            map = map.put(i, i);
+        assertEquals(entriesHash.apply(map).intValue(), map.hashCode());
+
+        HashMap<Integer, Integer> edited = map.put(-1, -1).remove(-2).remove(500).put(1_000, 0);
+        assertEquals(entriesHash.apply(edited).intValue(), edited.hashCode());
+
+        HashMap<Integer, Integer> merged = map.merge(edited, Integer::sum);
+        assertEquals(entriesHash.apply(merged).intValue(), merged.hashCode());
+
+        TransientHashMap<Integer, Integer> transientMap = map.toTransient();
+        for (int i = 0; i < 1_000; i += 2)
+            transientMap.remove(i).put(-i, i);
+        HashMap<Integer, Integer> persistent = transientMap.persistent();
+        assertEquals(entriesHash.apply(persistent).intValue(), persistent.hashCode());
+        assertEquals(entriesHash.apply(map).intValue(), map.hashCode());
+    }
+
     @Test
     @SuppressWarnings("UnnecessaryBoxing")
     public void keys() {
@@ -319,11 +470,95 @@ public class HashMapTest {
 
     @Test
     public void values() {
-        assertEquals(strictQueue(1, 2, 3),
-                     hashMap(tuple("foo", 1),
-                             tuple("bar", 2),
-                             tuple("baz", 3))
-                             .values());
+        assertThat(hashMap(tuple("foo", 1),
+                           tuple("bar", 2),
+                           tuple("baz", 3))
+                           .values(),
+                   iterates(1, 2, 3));
+    }
+
+    @Test
+    public void valuesViewTracksEntries() {
+        Collection<Natural, Integer> values = hashMap(tuple("foo", 1), tuple("bar", 2), tuple("baz", 3)).values();
+        assertEquals(known(abs(3)), values.sizeInfo());
+        assertEquals(just(1), values.head());
+        assertThat(values.tail(), iterates(2, 3));
+        assertEquals(known(abs(2)), values.tail().sizeInfo());
+        assertEquals(6, StreamSupport.stream(values.spliterator(), false).mapToInt(x -> x).sum());
+        assertEquals("Values[1, 2, 3]", values.toString());
+
+        Collection<Natural, Integer> empty = HashMap.<String, Integer>hashMap().values();
+        assertTrue(empty.isEmpty());
+        assertEquals(nothing(), empty.head());
+        assertSame(empty, empty.tail());
+    }
+
+    @Test
+    public void keysShareTrieButBehaveLikeHashSet() {
+        HashMap<Integer, String> hashMap = hashMap();
+        HashSet<Integer>         built   = hashSet();
+        for (int i = 0; i < 1_000; i++) {
+            hashMap = hashMap.put(i, "value" + i);
+            built = built.add(i);
+        }
+
+        HashSet<Integer> keys = hashMap.keys();
+        assertEquals(built, keys);
+        assertEquals(keys, built);
+        assertEquals(built.hashCode(), keys.hashCode());
+        assertEquals(built.add(-1), keys.add(-1));
+        assertEquals(built.add(-1).hashCode(), keys.add(-1).hashCode());
+        assertEquals(built.remove(0), keys.remove(0));
+        assertNotEquals(built, keys.remove(0));
+        assertEquals(built.remove(0).hashCode(), keys.remove(0).hashCode());
+        assertEquals(built.union(hashSet(-1, -2)), keys.union(hashSet(-1, -2)));
+        assertEquals(built.union(hashSet(-1, -2)).hashCode(), hashSet(-1, -2).union(keys).hashCode());
+        assertEquals(hashSet(0, 1), hashSet(0, 1, -1).intersection(keys));
+        assertEquals(hashSet(0, 1).hashCode(), hashSet(0, 1, -1).intersection(keys).hashCode());
+        assertEquals(hashSet(-1), hashSet(0, 1, -1).difference(keys));
+        HashSet<Integer> smallKeys = HashMap.<Integer, String>hashMap().put(1, "a").put(2, "b").keys();
+        assertEquals(hashSet(1, 3), hashSet(2, 3).symmetricDifference(smallKeys));
+        assertEquals(hashSet(1, 3).hashCode(), hashSet(2, 3).symmetricDifference(smallKeys).hashCode());
+        assertEquals(hashMap.put(5, "other").keys(), keys);
+    }
+
+    @Test
+    public void keysHashCodeIsMaintainedAcrossEditsAndLayouts() {
+        StubbedHashingAlgorithm<Integer> hashAlg = StubbedHashingAlgorithm.<Integer>stubbedHashingAlgorithm()
+                .stub(-1, 7)
+                .stub(-2, 7);
+        HashingAlgorithm<HashSet<Integer>> elementsHash = set -> {
+            int hash = 0;
+            for (Integer element : set)
+                hash += hashAlg.apply(element);
+            return hash;
+        };
+
+        HashMap<Integer, Integer> map     = HashMap.<Integer, Integer>hashMap(objectEquals(), hashAlg).put(-1, 1);
+        HashMap<Integer, Integer> compact = HashMap.<Integer, Integer>compactHashMap(objectEquals(), hashAlg)
+                .put(-1, 1);
+        for (int i = 0; i < 1_000; i++) {
+            map = map.put(i, i);
+            compact = compact.put(i, -i);
+        }
+        map = map.put(-2, 2);
+        compact = compact.put(-2, 2);
+        assertEquals(elementsHash.apply(map.keys()).intValue(), map.keys().hashCode());
+        assertEquals(map.keys().hashCode(), compact.keys().hashCode());
+        assertEquals(map.keys(), compact.keys());
+
+        HashMap<Integer, Integer> edited = map.put(-1, -1).remove(-2).remove(500).put(1_000, 0);
+        assertEquals(elementsHash.apply(edited.keys()).intValue(), edited.keys().hashCode());
+        assertEquals(edited.keys().hashCode(),
+                     compact.put(-1, -1).remove(-2).remove(500).put(1_000, 0).keys().hashCode());
+        assertNotEquals(map.keys(), edited.keys());
+
+        TransientHashMap<Integer, Integer> transientMap = compact.toTransient();
+        for (int i = 0; i < 1_000; i += 2)
+            transientMap.remove(i).put(-i - 3, i);
+        HashSet<Integer> persistentKeys = transientMap.persistent().keys();
+        assertEquals(elementsHash.apply(persistentKeys).intValue(), persistentKeys.hashCode());
+        assertEquals(map.keys().hashCode(), compact.keys().hashCode());
     }
 
     @Test
@@ -356,4 +591,369 @@ public class HashMapTest {
         assertEquals(nothing(), doubleCollision.remove("foo").get("foo"));
         assertEquals(known(abs(2)), doubleCollision.sizeInfo());
     }
+
+    @Test
+    public void toTransientRoundTripsEntries() {
+        HashMap<Integer, String> hashMap = hashMap(tuple(0, "foo"), tuple(1, "bar"));
+        assertEquals(hashMap, hashMap.toTransient().persistent());
+        assertEquals(hashMap(tuple(0, "foo"), tuple(1, "bar"), tuple(2, "baz")),
+                     hashMap.toTransient().put(2, "baz").persistent());
+        assertEquals(hashMap(tuple(0, "foo"), tuple(1, "bar")), hashMap);
+    }
+
+    @Test
+    public void mergeCombinesValuesOfSharedKeysUsingSemigroup() {
+        HashMap<Integer, Integer> left  = hashMap(tuple(0, 1), tuple(1, 2), tuple(32, 3));
+        HashMap<Integer, Integer> right = hashMap(tuple(1, 10), tuple(32, 20), tuple(64, 30));
+
+        assertEquals(hashMap(tuple(0, 1), tuple(1, 12), tuple(32, 23), tuple(64, 30)),
+                     left.merge(right, Integer::sum));
+        assertEquals(hashMap(tuple(0, 1), tuple(1, -8), tuple(32, -17), tuple(64, 30)),
+                     left.merge(right, (x, y) -> x - y));
+    }
+
+    @Test
+    public void mergeReusesUnchangedSides() {
+        HashMap<Integer, Integer> hashMap = hashMap(tuple(0, 1), tuple(1, 2), tuple(32, 3));
+
+        assertSame(hashMap, hashMap.merge(hashMap(), Integer::sum));
+        assertSame(hashMap, HashMap.<Integer, Integer>hashMap().merge(hashMap, Integer::sum));
+        assertSame(hashMap, hashMap.merge(hashMap, (x, y) -> x));
+    }
+
+    @Test
+    public void mergeCombinesSameTrieWithItself() {
+        HashMap<Integer, Integer> hashMap = hashMap(tuple(0, 1), tuple(1, 2), tuple(32, 3));
+        assertEquals(hashMap(tuple(0, 2), tuple(1, 4), tuple(32, 6)), hashMap.merge(hashMap, Integer::sum));
+    }
+
+    @Test
+    public void mergeKeepsKeysFromOtherMap() {
+        String fooA = new String("foo");
+        String fooB = new String("foo");
+
+        HashMap<String, Integer> merged = hashMap(tuple(fooA, 1), tuple("bar", 2))
+                .merge(hashMap(tuple(fooB, 3)), Integer::sum);
+
+        assertEquals(just(4), merged.get("foo"));
+        assertSame(fooB, find(kv -> kv._1().equals("foo"), merged).orElseThrow(AssertionError::new)._1());
+    }
+
+    @Test
+    public void mergeCollisions() {
+        StubbedHashingAlgorithm<String> hashingAlgorithm = StubbedHashingAlgorithm.<String>stubbedHashingAlgorithm()
+                .stub("foo", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("bar", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("baz", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("quux", 0b00_00001_00000_00000_00000_00000_00000);
+
+        HashMap<String, Integer> collisions = hashMap(objectEquals(), hashingAlgorithm,
+                                                      tuple("foo", 1), tuple("bar", 2));
+        HashMap<String, Integer> entries    = hashMap(objectEquals(), hashingAlgorithm,
+                                                      tuple("bar", 10), tuple("baz", 20), tuple("quux", 30));
+
+        HashMap<String, Integer> expected = hashMap(objectEquals(), hashingAlgorithm,
+                                                    tuple("foo", 1), tuple("bar", 12),
+                                                    tuple("baz", 20), tuple("quux", 30));
+        assertEquals(expected, collisions.merge(entries, Integer::sum));
+        assertEquals(expected, entries.merge(collisions, Integer::sum));
+    }
+
+    @Test
+    public void mergeAgreesWithFoldBasedMergeForIncompatibleHashMaps() {
+        HashMap<Integer, Integer> left  = hashMap(tuple(0, 1), tuple(1, 2));
+        HashMap<Integer, Integer> right = hashMap(objectEquals(), identityHashCode(), tuple(1, 10), tuple(2, 20));
+
+        assertEquals(hashMap(tuple(0, 1), tuple(1, 12), tuple(2, 20)), left.merge(right, Integer::sum));
+    }
+
+    @Test
+    public void mergeAgreesWithFoldBasedMerge() {
+        HashMap<Integer, Integer> left  = hashMap();
+        HashMap<Integer, Integer> right = hashMap();
+        for (int i = 0; i < 1_000; i++) {
+            if (i % 3 != 0)
+                left = left.put(i * 7919, i);
+            if (i % 2 != 0)
+                right = right.put(i * 7919, -i);
+        }
+
+        assertThat(left.merge(right, Integer::sum),
+                   equivalentTo(DefaultMethodsMap.delegate(left).merge(right, Integer::sum),
+                                entries(objectEquals())));
+    }
+
+    @Test
+    public void spliteratorReportsExactSizesAcrossSplits() {
+        HashMap<Integer, Integer> hashMap = hashMap(tuple(0, 0), tuple(1, 1), tuple(32, 32));
+        Spliterator<Tuple2<Integer, Integer>> spliterator = hashMap.spliterator();
+
+        assertEquals(3, spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+                                                          | Spliterator.IMMUTABLE | Spliterator.NONNULL));
+
+        Spliterator<Tuple2<Integer, Integer>> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(2, prefix.getExactSizeIfKnown());
+        assertEquals(1, spliterator.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void spliteratorSplitsCoverEveryEntryExactlyOnce() {
+        HashMap<Integer, Integer> hashMap = hashMap();
+        for (int i = 0; i < 10_000; i++)
+            hashMap = hashMap.put(i * 7919, i);
+
+        java.util.Set<Integer>                       seen    = new java.util.HashSet<>();
+        Deque<Spliterator<Tuple2<Integer, Integer>>> pending = new ArrayDeque<>(singletonList(hashMap.spliterator()));
+        while (!pending.isEmpty()) {
+            Spliterator<Tuple2<Integer, Integer>> spliterator = pending.pop();
+            Spliterator<Tuple2<Integer, Integer>> prefix      = spliterator.trySplit();
+            if (prefix != null) {
+                pending.push(prefix);
+                pending.push(spliterator);
+            } else {
+                spliterator.forEachRemaining(kv -> assertTrue(seen.add(kv._2())));
+            }
+        }
+        assertEquals(10_000, seen.size());
+    }
+
+    @Test
+    public void parallelStream() {
+        HashMap<Integer, Integer> hashMap = hashMap();
+        for (int i = 0; i < 10_000; i++)
+            hashMap = hashMap.put(i, i);
+
+        assertEquals(49_995_000L, StreamSupport.stream(hashMap.spliterator(), true).mapToLong(Tuple2::_2).sum());
+        assertEquals(0L, StreamSupport.stream(HashMap.<Integer, Integer>hashMap().spliterator(), true).count());
+    }
+
+    @Test
+    public void compactHashMapAgreesWithHashMapUnderChurn() {
+        HashingAlgorithm<Integer> lowBits = k -> k & 0x3FF;
+        Random                    random  = new Random(42);
+
+        HashMap<Integer, Integer>          expected         = HashMap.hashMap(objectEquals(), lowBits);
+        HashMap<Integer, Integer>          actual           = HashMap.compactHashMap(objectEquals(), lowBits);
+        TransientHashMap<Integer, Integer> transientHashMap = actual.toTransient();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_048);
+            if (random.nextInt(3) == 0) {
+                expected = expected.remove(key);
+                actual = actual.remove(key);
+                transientHashMap.remove(key);
+            } else {
+                expected = expected.put(key, i);
+                actual = actual.put(key, i);
+                transientHashMap.put(key, i);
+            }
+        }
+
+        HashMap<Integer, Integer> persistent = transientHashMap.persistent();
+        assertEquals(expected, actual);
+        assertEquals(expected, persistent);
+        assertEquals(expected.sizeInfo(), actual.sizeInfo());
+        assertEquals(expected.sizeInfo(), persistent.sizeInfo());
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.hashCode(), persistent.hashCode());
+        for (int key = 0; key < 2_048; key++) {
+            assertEquals(expected.get(key), actual.get(key));
+            assertEquals(expected.get(key), persistent.get(key));
+        }
+    }
+
+    @Test
+    public void compactHashMapMergesWithEitherLayout() {
+        HashMap<Integer, Integer> compact = HashMap.compactHashMap();
+        HashMap<Integer, Integer> classic = hashMap();
+        for (int i = 0; i < 1_000; i++) {
+            compact = compact.put(i, i);
+            classic = classic.put(i + 500, i);
+        }
+
+        assertThat(compact.merge(classic, Integer::sum),
+                   equivalentTo(DefaultMethodsMap.delegate(compact).merge(classic, Integer::sum),
+                                entries(objectEquals())));
+        assertThat(classic.merge(compact, Integer::sum),
+                   equivalentTo(DefaultMethodsMap.delegate(classic).merge(compact, Integer::sum),
+                                entries(objectEquals())));
+        assertThat(compact.merge(compact, Integer::sum),
+                   equivalentTo(DefaultMethodsMap.delegate(compact).merge(compact, Integer::sum),
+                                entries(objectEquals())));
+    }
+
+    @Test
+    public void compactSpliteratorSplitsCoverEveryEntryExactlyOnce() {
+        HashMap<Integer, Integer> hashMap = HashMap.compactHashMap();
+        for (int i = 0; i < 10_000; i++)
+            hashMap = hashMap.put(i * 7919, i);
+
+        java.util.Set<Integer>                       seen    = new java.util.HashSet<>();
+        Deque<Spliterator<Tuple2<Integer, Integer>>> pending = new ArrayDeque<>(singletonList(hashMap.spliterator()));
+        while (!pending.isEmpty()) {
+            Spliterator<Tuple2<Integer, Integer>> spliterator = pending.pop();
+            long                                  size        = spliterator.getExactSizeIfKnown();
+            Spliterator<Tuple2<Integer, Integer>> prefix      = spliterator.trySplit();
+            if (prefix != null) {
+                assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+                pending.push(prefix);
+                pending.push(spliterator);
+            } else {
+                spliterator.forEachRemaining(kv -> assertTrue(seen.add(kv._2())));
+            }
+        }
+        assertEquals(10_000, seen.size());
+        assertEquals(49_995_000L, StreamSupport.stream(hashMap.spliterator(), true).mapToLong(Tuple2::_2).sum());
+    }
+
+    @Test
+    public void bulkConstructionMatchesIncrementalConstruction() {
+        HashingAlgorithm<Integer> quarteredHashes = i -> (i / 4) * 0x9E3779B1;
+        Random                    random          = new Random(16);
+        @SuppressWarnings("unchecked")
+        Tuple2<Integer, Integer>[] entries = new Tuple2[10_000];
+        for (int i = 0; i < entries.length; i++)
+            entries[i] = tuple(random.nextInt(8_000) - 4_000, i);
+
+        HashMap<Integer, Integer> incremental        = HashMap.hashMap(objectEquals(), quarteredHashes);
+        HashMap<Integer, Integer> incrementalCompact = HashMap.compactHashMap(objectEquals(), quarteredHashes);
+        for (Tuple2<Integer, Integer> entry : entries) {
+            incremental = incremental.put(entry._1(), entry._2());
+            incrementalCompact = incrementalCompact.put(entry._1(), entry._2());
+        }
+
+        HashMap<Integer, Integer> bulk        = HashMap.hashMap(objectEquals(), quarteredHashes, entries);
+        HashMap<Integer, Integer> bulkCompact = HashMap.compactHashMap(objectEquals(), quarteredHashes, entries);
+        assertEquals(incremental, bulk);
+        assertEquals(incrementalCompact, bulkCompact);
+        assertEquals(incremental.sizeInfo(), bulk.sizeInfo());
+        assertEquals(incremental.hashCode(), bulkCompact.hashCode());
+        for (Tuple2<Integer, Integer> entry : entries)
+            assertEquals(incremental.get(entry._1()), bulkCompact.get(entry._1()));
+    }
+
+    @Test
+    public void bulkConstructionOfFullCollisions() {
+        StubbedHashingAlgorithm<Integer> hashAlg = StubbedHashingAlgorithm.<Integer>stubbedHashingAlgorithm()
+                .stub(1, 0b1_00001)
+                .stub(2, 0b1_00001)
+                .stub(3, 0b1_00001);
+        assertEquals(HashMap.<Integer, String>hashMap(objectEquals(), hashAlg).put(1, "a").put(2, "b").put(3, "c"),
+                     HashMap.hashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(2, "b"), tuple(3, "c")));
+        assertEquals(HashMap.<Integer, String>compactHashMap(objectEquals(), hashAlg).put(1, "a").put(2, "b"),
+                     HashMap.compactHashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(2, "b")));
+        assertEquals(HashMap.<Integer, String>compactHashMap(objectEquals(), hashAlg).put(1, "b"),
+                     HashMap.compactHashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(1, "b")));
+        assertEquals(just("b"), HashMap.hashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(1, "b")).get(1));
+    }
+
+    @Test
+    public void sliceMatchesFilteringByHashPrefix() {
+        HashingAlgorithm<Integer> quarteredHashes = i -> (i / 4) * 0x9E3779B1;
+        Random                    random          = new Random(18);
+        HashMap<Integer, Integer> classic         = HashMap.hashMap(objectEquals(), quarteredHashes);
+        HashMap<Integer, Integer> compact         = HashMap.compactHashMap(objectEquals(), quarteredHashes);
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(20_000) - 10_000;
+            classic = classic.put(key, i);
+            compact = compact.put(key, i);
+        }
+
+        for (int prefixBits : new int[]{1, 2, 4, 5, 6, 9, 10, 13, 17, 32}) {
+            for (int trial = 0; trial < 8; trial++) {
+                int                       prefix          = random.nextInt();
+                int                       mask            = prefixBits == 32 ? -1 : (1 << prefixBits) - 1;
+                HashMap<Integer, Integer> expected        = HashMap.hashMap(objectEquals(), quarteredHashes);
+                HashMap<Integer, Integer> expectedCompact = HashMap.compactHashMap(objectEquals(), quarteredHashes);
+                for (Tuple2<Integer, Integer> entry : classic) {
+                    if (((quarteredHashes.apply(entry._1()) ^ prefix) & mask) == 0) {
+                        expected = expected.put(entry._1(), entry._2());
+                        expectedCompact = expectedCompact.put(entry._1(), entry._2());
+                    }
+                }
+
+                HashMap<Integer, Integer> slice        = classic.slice(prefix, prefixBits);
+                HashMap<Integer, Integer> compactSlice = compact.slice(prefix, prefixBits);
+                assertEquals(expected, slice);
+                assertEquals(expectedCompact, compactSlice);
+                assertEquals(expected.sizeInfo(), slice.sizeInfo());
+                assertEquals(expected.sizeInfo(), compactSlice.sizeInfo());
+                assertEquals(expected.hashCode(), compactSlice.hashCode());
+                assertEquals(expected.put(0, 0).remove(0), slice.put(0, 0).remove(0));
+            }
+        }
+    }
+
+    @Test
+    public void sliceOfFullCollisions() {
+        StubbedHashingAlgorithm<Integer> hashAlg = StubbedHashingAlgorithm.<Integer>stubbedHashingAlgorithm()
+                .stub(1, 0b1_00001)
+                .stub(2, 0b1_00001)
+                .stub(3, 0b0_00001);
+        HashMap<Integer, String> classic = HashMap.hashMap(objectEquals(), hashAlg,
+                                                           tuple(1, "a"), tuple(2, "b"), tuple(3, "c"));
+        HashMap<Integer, String> compact = HashMap.compactHashMap(objectEquals(), hashAlg,
+                                                                  tuple(1, "a"), tuple(2, "b"), tuple(3, "c"));
+        assertEquals(HashMap.hashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(2, "b")),
+                     classic.slice(0b1_00001, 6));
+        assertEquals(HashMap.compactHashMap(objectEquals(), hashAlg, tuple(1, "a"), tuple(2, "b")),
+                     compact.slice(0b1_00001, 32));
+        assertEquals(HashMap.compactHashMap(objectEquals(), hashAlg, tuple(3, "c")), compact.slice(0b0_00001, 6));
+        assertTrue(classic.slice(0, 1).isEmpty());
+        assertTrue(compact.slice(0, 1).isEmpty());
+    }
+
+    @Test
+    public void sliceSharesUnaffectedTries() {
+        HashMap<Integer, Integer> hashMap = hashMap();
+        for (int i = 0; i < 1_000; i++)
+            hashMap = hashMap.put(i, i);
+
+        assertSame(hashMap, hashMap.slice(42, 0));
+        HashMap<Integer, Integer> evens = hashMap.slice(0, 1);
+        assertSame(evens, evens.slice(0, 1));
+        assertSame(evens, evens.slice(2, 1));
+        assertTrue(evens.slice(1, 1).isEmpty());
+    }
+
+    @Test
+    public void partitionCoversEveryEntryExactlyOnce() {
+        HashMap<Integer, Integer> classic = hashMap();
+        HashMap<Integer, Integer> compact = HashMap.compactHashMap();
+        for (int i = 0; i < 10_000; i++) {
+            classic = classic.put(i * 7919, i);
+            compact = compact.put(i * 7919, i);
+        }
+
+        for (HashMap<Integer, Integer> hashMap : asList(classic, compact)) {
+            for (int bits : new int[]{0, 1, 3, 7}) {
+                StrictQueue<HashMap<Integer, Integer>> partitions = hashMap.partition(bits);
+                assertEquals(known(abs(1 << bits)), partitions.sizeInfo());
+
+                int                       prefix   = 0;
+                HashMap<Integer, Integer> combined = hashMap();
+                for (HashMap<Integer, Integer> partition : partitions) {
+                    int mask = (1 << bits) - 1;
+                    for (Tuple2<Integer, Integer> entry : partition) {
+                        assertEquals(prefix, entry._1().hashCode() & mask);
+                        assertEquals(nothing(), combined.get(entry._1()));
+                        combined = combined.put(entry._1(), entry._2());
+                    }
+                    prefix++;
+                }
+                assertEquals(hashMap.sizeInfo(), combined.sizeInfo());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sliceRejectsOutOfRangePrefixBits() {
+        HashMap.<Integer, Integer>hashMap().slice(0, 33);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partitionRejectsOutOfRangeBits() {
+        HashMap.<Integer, Integer>hashMap().partition(-1);
+    }
 }
@@ -1,7 +1,17 @@
 package com.jnape.palatable.shoki.impl;
 
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import com.jnape.palatable.shoki.api.MultiSet;
+import com.jnape.palatable.shoki.api.Natural.NonZero;
 import org.junit.Test;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+
 import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.nothing;
 import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
@@ -13,6 +23,7 @@ import static com.jnape.palatable.shoki.api.Natural.one;
 import static com.jnape.palatable.shoki.api.Natural.zero;
 import static com.jnape.palatable.shoki.api.SizeInfo.known;
 import static com.jnape.palatable.shoki.impl.HashMultiSet.hashMultiSet;
+import static com.jnape.palatable.shoki.testsupport.DefaultMethodsMultiSet.delegate;
 import static java.math.BigInteger.TEN;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -25,7 +36,8 @@ import static testsupport.matchers.IterableMatcher.iterates;
 
 public class HashMultiSetTest {
 
-    private static final HashMultiSet<String> EMPTY = hashMultiSet();
+    private static final HashMultiSet<String>  EMPTY          = hashMultiSet();
+    private static final HashMultiSet<Integer> EMPTY_INTEGERS = hashMultiSet();
 
     @Test
     public void add() {
@@ -46,6 +58,12 @@ public class HashMultiSetTest {
         assertEquals(EMPTY.inc("foo", atLeastOne(2)), EMPTY.inc("foo").inc("foo"));
     }
 
+    @Test
+    public void smallMultiplicitiesAreShared() {
+        assertSame(EMPTY.inc("foo").inc("foo").get("foo"), EMPTY.inc("bar").inc("foo").inc("foo").get("foo"));
+        assertSame(abs(2), EMPTY.inc("foo", atLeastOne(3)).dec("foo").get("foo"));
+    }
+
     @Test
     public void remove() {
         assertEquals(EMPTY, EMPTY.dec("foo", one()));
@@ -120,6 +138,30 @@ public class HashMultiSetTest {
         assertEquals(known(abs(12)), EMPTY.inc("foo", one()).inc("bar", atLeastOne(10)).inc("foo", one()).sizeInfo());
     }
 
+    @Test
+    public void sizeInfoTracksRemovals() {
+        HashMultiSet<String> hashMultiSet = EMPTY.inc("foo", atLeastOne(3)).inc("bar", atLeastOne(2));
+        assertEquals(known(abs(4)), hashMultiSet.dec("foo").sizeInfo());
+        assertEquals(known(abs(2)), hashMultiSet.dec("foo", atLeastOne(5)).sizeInfo());
+        assertEquals(known(abs(3)), hashMultiSet.remove("bar").sizeInfo());
+        assertEquals(known(abs(5)), hashMultiSet.remove("baz").sizeInfo());
+        assertEquals(known(abs(5)), hashMultiSet.dec("baz").sizeInfo());
+        assertEquals(known(abs(5 - hashMultiSet.head().orElseThrow(AssertionError::new)._2().intValue())),
+                     hashMultiSet.tail().sizeInfo());
+        assertEquals(known(zero()), hashMultiSet.tail().tail().sizeInfo());
+    }
+
+    @Test
+    public void sizeInfoBeyondLongRange() {
+        NonZero              max          = atLeastOne(Long.MAX_VALUE);
+        HashMultiSet<String> hashMultiSet = EMPTY.inc("foo", max).inc("bar", max).inc("baz", atLeastOne(10));
+        BigInteger           twiceMax     = max.bigIntegerValue().shiftLeft(1);
+        assertEquals(known(abs(twiceMax.add(TEN))), hashMultiSet.sizeInfo());
+        assertEquals(known(abs(max.bigIntegerValue().add(TEN))), hashMultiSet.remove("foo").sizeInfo());
+        assertEquals(known(abs(10)), hashMultiSet.remove("foo").remove("bar").sizeInfo());
+        assertEquals(known(abs(11)), hashMultiSet.remove("foo").remove("bar").inc("qux").sizeInfo());
+    }
+
     @Test
     public void of() {
         assertEquals(EMPTY.inc("a"), hashMultiSet("a"));
@@ -161,10 +203,152 @@ public class HashMultiSetTest {
         assertNotEquals(EMPTY.inc("foo", one()).hashCode(), EMPTY.inc("bar", one()).hashCode());
     }
 
+    @Test
+    public void combiningHashMultiSetsAgreesWithDefaultMerge() {
+        Random                random = new Random(21);
+        HashMultiSet<Integer> left  = hashMultiSet();
+        HashMultiSet<Integer> right = hashMultiSet();
+        for (int i = 0; i < 2_000; i++) {
+            left = left.inc(random.nextInt(1_500), atLeastOne(1 + random.nextInt(4)));
+            right = right.inc(random.nextInt(1_500), atLeastOne(1 + random.nextInt(4)));
+        }
+        MultiSet<Integer> defaultRight = delegate(right);
+
+        assertCombination(left.sum(defaultRight), left.sum(right));
+        assertCombination(left.union(defaultRight), left.union(right));
+        assertCombination(left.intersection(defaultRight), left.intersection(right));
+        assertCombination(left.difference(defaultRight), left.difference(right));
+        assertCombination(right.difference(delegate(left)), right.difference(left));
+        assertCombination(left.symmetricDifference(defaultRight), left.symmetricDifference(right));
+        assertCombination(left.merge(defaultRight, (x, y) -> x.plus(y).plus(one())),
+                          left.merge(right, (x, y) -> x.plus(y).plus(one())));
+        assertCombination(left.merge(defaultRight, (x, y) -> y), left.merge(right, (x, y) -> y));
+    }
+
+    @Test
+    public void combiningHashMultiSetsReusesSubsumingSides() {
+        HashMultiSet<Integer> large = hashMultiSet();
+        for (int i = 0; i < 1_000; i++)
+            large = large.inc(i, atLeastOne(2));
+        HashMultiSet<Integer> small = large.dec(0).remove(500);
+
+        assertSame(large, large.union(small));
+        assertSame(large, small.union(large));
+        assertSame(small, large.intersection(small));
+        assertSame(large, large.sum(EMPTY_INTEGERS));
+        assertSame(large, EMPTY_INTEGERS.union(large));
+        assertSame(large, large.difference(EMPTY_INTEGERS));
+        assertSame(large, large.merge(large, (x, y) -> x));
+        assertTrue(large.difference(large).isEmpty());
+        assertEquals(known(zero()), large.symmetricDifference(large).sizeInfo());
+    }
+
+    @Test
+    public void combiningHashMultiSetsBeyondLongRange() {
+        NonZero              max   = atLeastOne(Long.MAX_VALUE);
+        HashMultiSet<String> left  = EMPTY.inc("foo", max).inc("bar", atLeastOne(3));
+        HashMultiSet<String> right = EMPTY.inc("foo", max).inc("baz", atLeastOne(2));
+        BigInteger           sum   = max.bigIntegerValue().shiftLeft(1).add(BigInteger.valueOf(5));
+
+        assertEquals(known(abs(sum)), left.sum(right).sizeInfo());
+        assertEquals(known(abs(max.bigIntegerValue().add(BigInteger.valueOf(5)))), left.union(right).sizeInfo());
+        assertEquals(known(abs(3)), left.sum(right).difference(right.sum(right)).sizeInfo());
+    }
+
+    private static <A> void assertTopK(HashMultiSet<A> hashMultiSet, int k, StrictQueue<Tuple2<A, NonZero>> topK) {
+        List<BigInteger> expected = new ArrayList<>();
+        for (Tuple2<A, NonZero> entry : hashMultiSet)
+            expected.add(entry._2().bigIntegerValue());
+        expected.sort(Comparator.reverseOrder());
+
+        List<BigInteger> actual = new ArrayList<>();
+        for (Tuple2<A, NonZero> entry : topK) {
+            assertEquals(hashMultiSet.get(entry._1()), entry._2());
+            actual.add(entry._2().bigIntegerValue());
+        }
+        assertEquals(expected.subList(0, Math.min(k, expected.size())), actual);
+    }
+
+    private static <A> void assertCombination(MultiSet<A> expected, HashMultiSet<A> actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.sizeInfo(), actual.sizeInfo());
+    }
+
+    @Test
+    public void topK() {
+        HashMultiSet<String> hashMultiSet = hashMultiSet("a", "b", "b", "c", "c", "c", "d", "d", "d", "d");
+        assertThat(hashMultiSet.topK(2), iterates(tuple("d", atLeastOne(4)), tuple("c", atLeastOne(3))));
+        assertThat(hashMultiSet.topK(10), iterates(tuple("d", atLeastOne(4)), tuple("c", atLeastOne(3)),
+                                                   tuple("b", atLeastOne(2)), tuple("a", one())));
+        assertThat(hashMultiSet.topK(0), isEmpty());
+        assertThat(EMPTY.topK(3), isEmpty());
+    }
+
+    @Test
+    public void topKAgreesWithSortingEveryMultiplicity() {
+        Random                random       = new Random(13);
+        HashMultiSet<Integer> hashMultiSet = hashMultiSet();
+        for (int i = 0; i < 5_000; i++)
+            hashMultiSet = hashMultiSet.inc(random.nextInt(800), atLeastOne(1 + random.nextInt(20)));
+
+        assertTopK(hashMultiSet, 25, hashMultiSet.topK(25));
+        assertTopK(hashMultiSet, 1_000, hashMultiSet.topK(1_000));
+    }
+
+    @Test
+    public void trackingTopKStaysCurrentAcrossEdits() {
+        Random                random   = new Random(17);
+        HashMultiSet<Integer> tracking = HashMultiSet.<Integer>hashMultiSet().trackingTopK(10);
+        for (int i = 0; i < 5_000; i++) {
+            int element = random.nextInt(60);
+            switch (random.nextInt(5)) {
+                case 0:
+                    tracking = tracking.dec(element, atLeastOne(1 + random.nextInt(3)));
+                    break;
+                case 1:
+                    tracking = random.nextInt(10) == 0 ? tracking.remove(element) : tracking.tail();
+                    break;
+                default:
+                    tracking = tracking.inc(element, atLeastOne(1 + random.nextInt(3)));
+            }
+            assertTopK(tracking, 10, tracking.topK(10));
+            assertTopK(tracking, 4, tracking.topK(4));
+        }
+        assertTopK(tracking, 20, tracking.topK(20));
+        assertEquals(HashMultiSet.<Integer>hashMultiSet().sum(tracking), tracking);
+        assertTopK(tracking.sum(tracking), 10, tracking.sum(tracking).topK(10));
+    }
+
+    @Test
+    public void trackingTopKOfSameSizeReturnsSameInstance() {
+        HashMultiSet<String> tracking = hashMultiSet("a", "b", "b").trackingTopK(2);
+        assertSame(tracking, tracking.trackingTopK(2));
+        assertEquals(hashMultiSet("a", "b", "b"), tracking);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void topKRejectsNegativeK() {
+        EMPTY.topK(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trackingTopKRejectsNegativeK() {
+        EMPTY.trackingTopK(-1);
+    }
+
     @Test
     public void toStringIsUseful() {
         assertEquals("HashMultiSet[(a * 1), (b * 2), (c * 3)]",
                      hashMultiSet("a", "b", "b", "c", "c", "c").toString());
         assertEquals("HashMultiSet[]", hashMultiSet("a").dec("a").toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void parallelStream() {
+        HashMultiSet<String> hashMultiSet = hashMultiSet("foo", "bar", "bar", "baz", "baz", "baz");
+
+        assertEquals(6L, StreamSupport.stream(hashMultiSet.spliterator(), true)
+                .mapToLong(kv -> kv._2().longValue())
+                .sum());
+    }
+}
@@ -1,10 +1,15 @@
 package com.jnape.palatable.shoki.impl;
 
 import com.jnape.palatable.shoki.testsupport.DefaultMethodsSet;
+import com.jnape.palatable.shoki.testsupport.StubbedHashingAlgorithm;
 import org.junit.Test;
 
+import java.util.stream.StreamSupport;
+
 import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
 import static com.jnape.palatable.shoki.api.EquivalenceRelation.referenceEquals;
 import static com.jnape.palatable.shoki.api.HashingAlgorithm.identityHashCode;
 import static com.jnape.palatable.shoki.api.Natural.abs;
@@ -53,6 +58,13 @@ public class HashSetTest {
         assertEquals(hashSet("bar"), HashSet.<String>hashSet().add("bar").add("foo").tail());
     }
 
+    @Test
+    public void uncons() {
+        assertEquals(nothing(), hashSet().uncons());
+        assertEquals(just(tuple("foo", hashSet())), HashSet.<String>hashSet().add("foo").uncons());
+        assertEquals(just(tuple("foo", hashSet("bar"))), HashSet.<String>hashSet().add("bar").add("foo").uncons());
+    }
+
     @Test
     public void contains() {
         assertFalse(HashSet.<String>hashSet().contains("foo"));
@@ -156,5 +168,91 @@ public class HashSetTest {
         assertThat(DefaultMethodsSet.delegate(empty).symmetricDifference(empty),
                    equivalentTo(empty.symmetricDifference(empty), sameElements()));
 
+        assertEquals(hashSet(1, 2, 3), hashSet(1, 2, 3).symmetricDifference(hashSet()));
+        assertEquals(hashSet(1, 2, 3), hashSet().symmetricDifference(hashSet(1, 2, 3)));
+        assertEquals(hashSet(), hashSet(1, 2, 3).symmetricDifference(hashSet(1, 2, 3)));
+        assertEquals(hashSet(1, 4), hashSet(1, 2, 3).symmetricDifference(hashSet(2, 3, 4)));
+    }
+
+    @Test
+    public void setAlgebraReusesUnchangedSides() {
+        HashSet<Integer> xs = hashSet(1, 2, 3, 33, 65);
+
+        assertSame(xs, xs.union(hashSet()));
+        assertSame(xs, HashSet.<Integer>hashSet().union(xs));
+        assertSame(xs, xs.union(hashSet(2, 33)));
+        assertSame(xs, xs.intersection(xs));
+        assertSame(xs, xs.intersection(hashSet(1, 2, 3, 33, 65, 97)));
+        assertSame(xs, xs.difference(hashSet()));
+        assertSame(xs, xs.difference(hashSet(4, 5, 6)));
+        assertSame(xs, xs.symmetricDifference(hashSet()));
+        assertSame(xs, HashSet.<Integer>hashSet().symmetricDifference(xs));
+    }
+
+    @Test
+    public void setAlgebraAgreesWithFoldBasedSetAlgebra() {
+        HashSet<Integer> xs = hashSet();
+        HashSet<Integer> ys = hashSet();
+        for (int i = 0; i < 2_000; i++) {
+            if (i % 3 != 0)
+                xs = xs.add(i * 7919);
+            if (i % 2 != 0)
+                ys = ys.add(i * 7919);
+        }
+
+        assertThat(xs.intersection(ys),
+                   equivalentTo(DefaultMethodsSet.delegate(xs).intersection(ys), sameElements()));
+        assertThat(xs.union(ys),
+                   equivalentTo(DefaultMethodsSet.delegate(xs).union(ys), sameElements()));
+        assertThat(xs.difference(ys),
+                   equivalentTo(DefaultMethodsSet.delegate(xs).difference(ys), sameElements()));
+        assertThat(xs.symmetricDifference(ys),
+                   equivalentTo(DefaultMethodsSet.delegate(xs).symmetricDifference(ys), sameElements()));
+    }
+
+    @Test
+    public void setAlgebraWithCollisions() {
+        StubbedHashingAlgorithm<String> hashingAlgorithm = StubbedHashingAlgorithm.<String>stubbedHashingAlgorithm()
+                .stub("foo", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("bar", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("baz", 0b00_00000_00000_00000_00000_00000_00000)
+                .stub("quux", 0b00_00001_00000_00000_00000_00000_00000);
+
+        HashSet<String> collisions = hashSet(objectEquals(), hashingAlgorithm, "foo", "bar", "baz");
+        HashSet<String> mixed      = hashSet(objectEquals(), hashingAlgorithm, "bar", "quux");
+
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "bar"), collisions.intersection(mixed));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "bar"), mixed.intersection(collisions));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "foo", "bar", "baz", "quux"), collisions.union(mixed));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "foo", "baz"), collisions.difference(mixed));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "quux"), mixed.difference(collisions));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "foo", "baz", "quux"),
+                     collisions.symmetricDifference(mixed));
+
+        HashSet<String> lifted = collisions.difference(hashSet(objectEquals(), hashingAlgorithm, "bar"))
+                .intersection(hashSet(objectEquals(), hashingAlgorithm, "foo", "baz"));
+        assertEquals(hashSet(objectEquals(), hashingAlgorithm, "foo", "baz", "quux"), lifted.add("quux"));
+        assertTrue(lifted.add("quux").contains("quux"));
+    }
+
+    @Test
+    public void setAlgebraWithIncompatibleHashSets() {
+        HashSet<Integer> xs = hashSet(1, 2, 3);
+        HashSet<Integer> ys = hashSet(objectEquals(), identityHashCode(), 2, 3, 4);
+
+        assertEquals(hashSet(2, 3), xs.intersection(ys));
+        assertEquals(hashSet(1, 2, 3, 4), xs.union(ys));
+        assertEquals(hashSet(1), xs.difference(ys));
+        assertEquals(hashSet(1, 4), xs.symmetricDifference(ys));
+    }
+
+    @Test
+    public void parallelStream() {
+        HashSet<Integer> hashSet = hashSet();
+        for (int i = 0; i < 10_000; i++)
+            hashSet = hashSet.add(i);
+
+        assertEquals(49_995_000L, StreamSupport.stream(hashSet.spliterator(), true).mapToLong(x -> x).sum());
+        assertEquals(10_000, hashSet.spliterator().getExactSizeIfKnown());
     }
-}
\ No newline at end of file
+}
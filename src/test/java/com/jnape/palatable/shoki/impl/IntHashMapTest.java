@@ -0,0 +1,172 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.IntHashMap.intHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static testsupport.matchers.IterableMatcher.iterates;
+
+public class IntHashMapTest {
+
+    private static final int COLLIDING_A = 100_097;
+    private static final int COLLIDING_B = 101_104;
+
+    @Test
+    public void getMissingKey() {
+        assertEquals(nothing(), IntHashMap.<Boolean>intHashMap().get(0));
+        assertEquals(nothing(), IntHashMap.<Boolean>intHashMap().get((Integer) 0));
+    }
+
+    @Test
+    public void getPresentKey() {
+        IntHashMap<String> populated = IntHashMap.<String>intHashMap().putInt(0, "foo").putInt(-1, "bar");
+        assertEquals(just("foo"), populated.get(0));
+        assertEquals(just("bar"), populated.get(-1));
+        assertEquals(just("foo"), populated.get((Integer) 0));
+        assertEquals("foo", populated.getOrDefault(0, "baz"));
+        assertEquals("baz", populated.getOrDefault(1, "baz"));
+    }
+
+    @Test
+    public void putReplacementKey() {
+        assertEquals(just("bar"), IntHashMap.<String>intHashMap().putInt(0, "foo").putInt(0, "bar").get(0));
+    }
+
+    @Test
+    public void putSameValueReturnsSameMap() {
+        String             foo     = "foo";
+        IntHashMap<String> hashMap = IntHashMap.<String>intHashMap().putInt(0, foo);
+        assertSame(hashMap, hashMap.putInt(0, foo));
+    }
+
+    @Test
+    public void putIsUnambiguousForBoxedValues() {
+        IntHashMap<Integer> hashMap = IntHashMap.<Integer>intHashMap().putInt(1, 2).put(3, 4);
+        assertEquals(just(2), hashMap.get(1));
+        assertEquals(just(4), hashMap.get(3));
+        assertEquals(hashMap, IntHashMap.<Integer>intHashMap().put(1, 2).putInt(3, 4));
+    }
+
+    @Test
+    public void extremeKeys() {
+        IntHashMap<String> hashMap = intHashMap(tuple(Integer.MIN_VALUE, "min"),
+                                                tuple(Integer.MAX_VALUE, "max"),
+                                                tuple(0, "zero"));
+        assertEquals(just("min"), hashMap.get(Integer.MIN_VALUE));
+        assertEquals(just("max"), hashMap.get(Integer.MAX_VALUE));
+        assertEquals(just("zero"), hashMap.get(0));
+        assertEquals(known(abs(3)), hashMap.sizeInfo());
+    }
+
+    @Test
+    public void contains() {
+        IntHashMap<String> hashMap = IntHashMap.<String>intHashMap().putInt(1, "foo");
+        assertTrue(hashMap.contains(1));
+        assertTrue(hashMap.contains((Integer) 1));
+        assertFalse(hashMap.contains(2));
+    }
+
+    @Test
+    public void remove() {
+        IntHashMap<String> empty = intHashMap();
+        assertSame(empty, empty.remove(0));
+        assertEquals(nothing(), empty.putInt(0, "foo").remove(0).get(0));
+        assertTrue(empty.putInt(0, "foo").remove((Integer) 0).isEmpty());
+    }
+
+    @Test
+    public void fullyCollidingKeysAreResolvedByValue() {
+        IntHashMap<String> collisions = intHashMap(tuple(COLLIDING_A, "a"), tuple(COLLIDING_B, "b"));
+        assertEquals(just("a"), collisions.get(COLLIDING_A));
+        assertEquals(just("b"), collisions.get(COLLIDING_B));
+        assertEquals(just("c"), collisions.putInt(COLLIDING_A, "c").get(COLLIDING_A));
+        assertEquals(nothing(), collisions.remove(COLLIDING_A).get(COLLIDING_A));
+        assertEquals(just("b"), collisions.remove(COLLIDING_A).get(COLLIDING_B));
+        assertEquals(intHashMap(tuple(COLLIDING_B, "b")), collisions.remove(COLLIDING_A));
+        assertThat(collisions.remove(COLLIDING_B), iterates(tuple(COLLIDING_A, "a")));
+    }
+
+    @Test
+    public void sizeInfo() {
+        assertEquals(known(zero()), intHashMap().sizeInfo());
+        assertEquals(known(abs(2)), intHashMap(tuple(1, "foo"), tuple(2, "bar")).sizeInfo());
+        assertEquals(known(abs(1)), intHashMap(tuple(1, "foo"), tuple(1, "bar")).sizeInfo());
+    }
+
+    @Test
+    public void headAndTail() {
+        assertEquals(nothing(), intHashMap().head());
+        assertEquals(just(tuple(1, "foo")), intHashMap(tuple(1, "foo")).head());
+        assertTrue(intHashMap(tuple(1, "foo")).tail().isEmpty());
+    }
+
+    @Test
+    public void keysAndValues() {
+        IntHashMap<String> hashMap = intHashMap(tuple(1, "foo"), tuple(2, "bar"));
+        assertEquals(hashSet(1, 2), hashMap.keys());
+        assertEquals(known(abs(2)), hashMap.values().sizeInfo());
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        IntHashMap<String> hashMap = intHashMap(tuple(1, "foo"), tuple(-2, "bar"));
+        assertEquals(hashMap, intHashMap(tuple(-2, "bar"), tuple(1, "foo")));
+        assertEquals(hashMap.hashCode(), intHashMap(tuple(-2, "bar"), tuple(1, "foo")).hashCode());
+        assertEquals(hashMap(tuple(1, "foo"), tuple(-2, "bar")).hashCode(), hashMap.hashCode());
+        assertNotEquals(hashMap, intHashMap(tuple(1, "foo"), tuple(-2, "baz")));
+        assertNotEquals(hashMap, intHashMap(tuple(1, "foo")));
+        assertNotEquals(hashMap, new Object());
+    }
+
+    @Test
+    public void toStringIsUseful() {
+        assertEquals("IntHashMap[(1=foo)]", intHashMap(tuple(1, "foo")).toString());
+    }
+
+    @Test
+    public void agreesWithHashMapUnderChurn() {
+        Random                    random   = new Random(42);
+        HashMap<Integer, Integer> expected = hashMap();
+        IntHashMap<Integer>       actual   = intHashMap();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(8) == 0
+                      ? (random.nextBoolean() ? COLLIDING_A : COLLIDING_B)
+                      : random.nextInt(4_096) - 2_048;
+            if (random.nextInt(3) == 0) {
+                expected = expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected = expected.put(key, i);
+                actual = actual.putInt(key, i);
+            }
+        }
+
+        assertEquals(expected.sizeInfo(), actual.sizeInfo());
+        assertEquals(expected.hashCode(), actual.hashCode());
+        for (int key = -2_048; key < 2_048; key++)
+            assertEquals(expected.get(key), actual.get(key));
+        assertEquals(expected.get(COLLIDING_A), actual.get(COLLIDING_A));
+        assertEquals(expected.get(COLLIDING_B), actual.get(COLLIDING_B));
+
+        HashMap<Integer, Integer> iterated = hashMap();
+        for (Tuple2<Integer, Integer> entry : actual)
+            iterated = iterated.put(entry._1(), entry._2());
+        assertEquals(expected, iterated);
+    }
+}
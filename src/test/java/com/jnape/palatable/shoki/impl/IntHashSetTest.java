@@ -0,0 +1,207 @@
+package com.jnape.palatable.shoki.impl;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.IntHashSet.intHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static testsupport.matchers.IterableMatcher.isEmpty;
+import static testsupport.matchers.IterableMatcher.iterates;
+
+public class IntHashSetTest {
+
+    @Test
+    public void addAndContains() {
+        IntHashSet intHashSet = intHashSet().add(1).add((Integer) 2);
+        assertTrue(intHashSet.contains(1));
+        assertTrue(intHashSet.contains((Integer) 2));
+        assertFalse(intHashSet.contains(3));
+        assertEquals(known(abs(2)), intHashSet.sizeInfo());
+    }
+
+    @Test
+    public void addExistingElementReturnsSameSet() {
+        IntHashSet intHashSet = intHashSet(1, 2);
+        assertSame(intHashSet, intHashSet.add(1));
+    }
+
+    @Test
+    public void extremeElements() {
+        IntHashSet intHashSet = intHashSet(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1);
+        assertTrue(intHashSet.contains(Integer.MIN_VALUE));
+        assertTrue(intHashSet.contains(Integer.MAX_VALUE));
+        assertTrue(intHashSet.contains(0));
+        assertTrue(intHashSet.contains(-1));
+        assertEquals(known(abs(4)), intHashSet.sizeInfo());
+    }
+
+    @Test
+    public void negativeElementsAreDistinctFromTheirUnsignedCounterparts() {
+        IntHashSet intHashSet = intHashSet(-1);
+        assertTrue(intHashSet.contains(-1));
+        assertFalse(intHashSet.contains(Integer.MAX_VALUE));
+        assertThat(intHashSet, iterates(-1));
+        assertEquals(Integer.hashCode(-1), intHashSet.hashCode());
+    }
+
+    @Test
+    public void remove() {
+        IntHashSet empty = intHashSet();
+        assertSame(empty, empty.remove(0));
+
+        IntHashSet intHashSet = intHashSet(1, 2);
+        assertSame(intHashSet, intHashSet.remove(3));
+        assertEquals(intHashSet(2), intHashSet.remove(1));
+        assertEquals(intHashSet(1), intHashSet.remove((Integer) 2));
+        assertTrue(intHashSet.remove(1).remove(2).isEmpty());
+    }
+
+    @Test
+    public void factoryIgnoresDuplicates() {
+        assertEquals(intHashSet(1, 2, 3), intHashSet(3, 1, 2, 1, 3));
+        assertEquals(known(abs(3)), intHashSet(3, 1, 2, 1, 3).sizeInfo());
+    }
+
+    @Test
+    public void headAndTail() {
+        assertEquals(nothing(), intHashSet().head());
+        assertEquals(intHashSet(), intHashSet().tail());
+        assertEquals(just(1), intHashSet(1).head());
+        assertEquals(intHashSet(), intHashSet(1).tail());
+        assertEquals(zero(), intHashSet().sizeInfo().getSize());
+    }
+
+    @Test
+    public void iteration() {
+        assertThat(intHashSet(), isEmpty());
+        assertThat(intHashSet(1), iterates(1));
+        IntHashSet intHashSet = intHashSet(3, 1, 2);
+        assertEquals(hashSet(1, 2, 3), HashSet.<Integer>hashSet().union(intHashSet));
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        IntHashSet built = intHashSet();
+        for (int i = 0; i < 1_000; i++)
+            built = built.add(i);
+
+        int[] elements = new int[1_000];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = elements.length - i - 1;
+        IntHashSet bulk = intHashSet(elements);
+
+        assertEquals(built, bulk);
+        assertEquals(bulk, built);
+        assertEquals(built.hashCode(), bulk.hashCode());
+        assertNotEquals(built, built.remove(0));
+        assertNotEquals(built, HashSet.<Integer>hashSet().union(built));
+    }
+
+    @Test
+    public void churnAgreesWithHashSet() {
+        Random           random     = new Random(42);
+        IntHashSet       intHashSet = intHashSet();
+        HashSet<Integer> hashSet    = hashSet();
+        for (int i = 0; i < 20_000; i++) {
+            int element = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                intHashSet = intHashSet.remove(element);
+                hashSet = hashSet.remove(element);
+            } else {
+                intHashSet = intHashSet.add(element);
+                hashSet = hashSet.add(element);
+            }
+            assertEquals(hashSet.sizeInfo(), intHashSet.sizeInfo());
+        }
+        assertEquals(hashSet, HashSet.<Integer>hashSet().union(intHashSet));
+        for (int element = 0; element < 2_000; element++)
+            assertEquals(hashSet.contains(element), intHashSet.contains(element));
+    }
+
+    @Test
+    public void unionAndIntersection() {
+        Random     random = new Random(7);
+        IntHashSet left   = intHashSet();
+        IntHashSet right  = intHashSet();
+        for (int i = 0; i < 5_000; i++) {
+            left = left.add(random.nextInt(8_000));
+            right = right.add(random.nextInt(8_000));
+        }
+
+        HashSet<Integer> expectedUnion        = hashSet();
+        HashSet<Integer> expectedIntersection = hashSet();
+        for (int element = 0; element < 8_000; element++) {
+            if (left.contains(element) || right.contains(element))
+                expectedUnion = expectedUnion.add(element);
+            if (left.contains(element) && right.contains(element))
+                expectedIntersection = expectedIntersection.add(element);
+        }
+
+        assertEquals(expectedUnion, HashSet.<Integer>hashSet().union(left.union(right)));
+        assertEquals(expectedIntersection, HashSet.<Integer>hashSet().union(left.intersection(right)));
+        assertEquals(left.union(right), right.union(left));
+        assertEquals(left.intersection(right), right.intersection(left));
+    }
+
+    @Test
+    public void unionAndIntersectionWithSmallSets() {
+        IntHashSet large = intHashSet();
+        for (int i = 0; i < 1_000; i++)
+            large = large.add(i);
+
+        assertEquals(large.add(-1), large.union(intHashSet(-1, 0)));
+        assertEquals(intHashSet(0), large.intersection(intHashSet(-1, 0)));
+        assertEquals(intHashSet(0), intHashSet(-1, 0).intersection(large));
+        assertTrue(large.intersection(intHashSet(-1)).isEmpty());
+    }
+
+    @Test
+    public void unionAndIntersectionReuseSubsumingSides() {
+        IntHashSet large = intHashSet();
+        for (int i = 0; i < 1_000; i++)
+            large = large.add(i);
+        IntHashSet small = large.remove(0).remove(500);
+
+        assertSame(large, large.union(small));
+        assertSame(large, small.union(large));
+        assertSame(small, large.intersection(small));
+        assertSame(small, small.intersection(large));
+        assertSame(large, large.union(intHashSet()));
+        assertSame(large, large.intersection(large));
+    }
+
+    @Test
+    public void unionAndIntersectionWithOtherSets() {
+        IntHashSet intHashSet = intHashSet(1, 2, 3);
+        assertEquals(intHashSet(1, 2, 3, 4), intHashSet.union(hashSet(3, 4)));
+        assertEquals(intHashSet(3), intHashSet.intersection(hashSet(3, 4)));
+    }
+
+    @Test
+    public void shrinkingBackToLeaf() {
+        IntHashSet intHashSet = intHashSet();
+        for (int i = 0; i < 1_000; i++)
+            intHashSet = intHashSet.add(i);
+        for (int i = 0; i < 999; i++)
+            intHashSet = intHashSet.remove(i);
+        assertEquals(intHashSet(999), intHashSet);
+        assertThat(intHashSet, iterates(999));
+    }
+
+    @Test
+    public void toStringIsUseful() {
+        assertEquals("IntHashSet[1]", intHashSet(1).toString());
+    }
+}
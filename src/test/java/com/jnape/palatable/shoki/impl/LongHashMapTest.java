@@ -0,0 +1,172 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.lambda.adt.hlist.Tuple2;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.LongHashMap.longHashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static testsupport.matchers.IterableMatcher.iterates;
+
+public class LongHashMapTest {
+
+    private static final long COLLIDING_A = 55_028L;
+    private static final long COLLIDING_B = 133_384L;
+
+    @Test
+    public void getMissingKey() {
+        assertEquals(nothing(), LongHashMap.<Boolean>longHashMap().get(0L));
+        assertEquals(nothing(), LongHashMap.<Boolean>longHashMap().get((Long) 0L));
+    }
+
+    @Test
+    public void getPresentKey() {
+        LongHashMap<String> populated = LongHashMap.<String>longHashMap().putLong(0L, "foo").putLong(-1L, "bar");
+        assertEquals(just("foo"), populated.get(0L));
+        assertEquals(just("bar"), populated.get(-1L));
+        assertEquals(just("foo"), populated.get((Long) 0L));
+        assertEquals("foo", populated.getOrDefault(0L, "baz"));
+        assertEquals("baz", populated.getOrDefault(1L, "baz"));
+    }
+
+    @Test
+    public void putReplacementKey() {
+        assertEquals(just("bar"), LongHashMap.<String>longHashMap().putLong(0L, "foo").putLong(0L, "bar").get(0L));
+    }
+
+    @Test
+    public void putSameValueReturnsSameMap() {
+        String              foo     = "foo";
+        LongHashMap<String> hashMap = LongHashMap.<String>longHashMap().putLong(0L, foo);
+        assertSame(hashMap, hashMap.putLong(0L, foo));
+    }
+
+    @Test
+    public void putIsUnambiguousForBoxedValues() {
+        LongHashMap<Long> hashMap = LongHashMap.<Long>longHashMap().putLong(1L, 2L).put(3L, 4L);
+        assertEquals(just(2L), hashMap.get(1L));
+        assertEquals(just(4L), hashMap.get(3L));
+        assertEquals(hashMap, LongHashMap.<Long>longHashMap().put(1L, 2L).putLong(3L, 4L));
+    }
+
+    @Test
+    public void extremeKeys() {
+        LongHashMap<String> hashMap = longHashMap(tuple(Long.MIN_VALUE, "min"),
+                                                  tuple(Long.MAX_VALUE, "max"),
+                                                  tuple(0L, "zero"));
+        assertEquals(just("min"), hashMap.get(Long.MIN_VALUE));
+        assertEquals(just("max"), hashMap.get(Long.MAX_VALUE));
+        assertEquals(just("zero"), hashMap.get(0L));
+        assertEquals(known(abs(3)), hashMap.sizeInfo());
+    }
+
+    @Test
+    public void contains() {
+        LongHashMap<String> hashMap = LongHashMap.<String>longHashMap().putLong(1L, "foo");
+        assertTrue(hashMap.contains(1L));
+        assertTrue(hashMap.contains((Long) 1L));
+        assertFalse(hashMap.contains(2L));
+    }
+
+    @Test
+    public void remove() {
+        LongHashMap<String> empty = longHashMap();
+        assertSame(empty, empty.remove(0L));
+        assertEquals(nothing(), empty.putLong(0L, "foo").remove(0L).get(0L));
+        assertTrue(empty.putLong(0L, "foo").remove((Long) 0L).isEmpty());
+    }
+
+    @Test
+    public void fullyCollidingKeysAreResolvedByValue() {
+        LongHashMap<String> collisions = longHashMap(tuple(COLLIDING_A, "a"), tuple(COLLIDING_B, "b"));
+        assertEquals(just("a"), collisions.get(COLLIDING_A));
+        assertEquals(just("b"), collisions.get(COLLIDING_B));
+        assertEquals(just("c"), collisions.putLong(COLLIDING_A, "c").get(COLLIDING_A));
+        assertEquals(nothing(), collisions.remove(COLLIDING_A).get(COLLIDING_A));
+        assertEquals(just("b"), collisions.remove(COLLIDING_A).get(COLLIDING_B));
+        assertEquals(longHashMap(tuple(COLLIDING_B, "b")), collisions.remove(COLLIDING_A));
+        assertThat(collisions.remove(COLLIDING_B), iterates(tuple(COLLIDING_A, "a")));
+    }
+
+    @Test
+    public void sizeInfo() {
+        assertEquals(known(zero()), longHashMap().sizeInfo());
+        assertEquals(known(abs(2)), longHashMap(tuple(1L, "foo"), tuple(2L, "bar")).sizeInfo());
+        assertEquals(known(abs(1)), longHashMap(tuple(1L, "foo"), tuple(1L, "bar")).sizeInfo());
+    }
+
+    @Test
+    public void headAndTail() {
+        assertEquals(nothing(), longHashMap().head());
+        assertEquals(just(tuple(1L, "foo")), longHashMap(tuple(1L, "foo")).head());
+        assertTrue(longHashMap(tuple(1L, "foo")).tail().isEmpty());
+    }
+
+    @Test
+    public void keysAndValues() {
+        LongHashMap<String> hashMap = longHashMap(tuple(1L, "foo"), tuple(2L, "bar"));
+        assertEquals(hashSet(1L, 2L), hashMap.keys());
+        assertEquals(known(abs(2)), hashMap.values().sizeInfo());
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        LongHashMap<String> hashMap = longHashMap(tuple(1L, "foo"), tuple(-2L, "bar"));
+        assertEquals(hashMap, longHashMap(tuple(-2L, "bar"), tuple(1L, "foo")));
+        assertEquals(hashMap.hashCode(), longHashMap(tuple(-2L, "bar"), tuple(1L, "foo")).hashCode());
+        assertEquals(hashMap(tuple(1L, "foo"), tuple(-2L, "bar")).hashCode(), hashMap.hashCode());
+        assertNotEquals(hashMap, longHashMap(tuple(1L, "foo"), tuple(-2L, "baz")));
+        assertNotEquals(hashMap, longHashMap(tuple(1L, "foo")));
+        assertNotEquals(hashMap, new Object());
+    }
+
+    @Test
+    public void toStringIsUseful() {
+        assertEquals("LongHashMap[(1=foo)]", longHashMap(tuple(1L, "foo")).toString());
+    }
+
+    @Test
+    public void agreesWithHashMapUnderChurn() {
+        Random                 random   = new Random(42);
+        HashMap<Long, Integer> expected = hashMap();
+        LongHashMap<Integer>   actual   = longHashMap();
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(8) == 0
+                      ? (random.nextBoolean() ? COLLIDING_A : COLLIDING_B)
+                      : random.nextInt(4_096) - 2_048L;
+            if (random.nextInt(3) == 0) {
+                expected = expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected = expected.put(key, i);
+                actual = actual.putLong(key, i);
+            }
+        }
+
+        assertEquals(expected.sizeInfo(), actual.sizeInfo());
+        assertEquals(expected.hashCode(), actual.hashCode());
+        for (long key = -2_048; key < 2_048; key++)
+            assertEquals(expected.get(key), actual.get(key));
+        assertEquals(expected.get(COLLIDING_A), actual.get(COLLIDING_A));
+        assertEquals(expected.get(COLLIDING_B), actual.get(COLLIDING_B));
+
+        HashMap<Long, Integer> iterated = hashMap();
+        for (Tuple2<Long, Integer> entry : actual)
+            iterated = iterated.put(entry._1(), entry._2());
+        assertEquals(expected, iterated);
+    }
+}
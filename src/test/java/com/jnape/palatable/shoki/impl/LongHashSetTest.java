@@ -0,0 +1,198 @@
+package com.jnape.palatable.shoki.impl;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashSet.hashSet;
+import static com.jnape.palatable.shoki.impl.LongHashSet.longHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static testsupport.matchers.IterableMatcher.isEmpty;
+import static testsupport.matchers.IterableMatcher.iterates;
+
+public class LongHashSetTest {
+
+    @Test
+    public void addAndContains() {
+        LongHashSet longHashSet = longHashSet().add(1L).add((Long) 2L);
+        assertTrue(longHashSet.contains(1L));
+        assertTrue(longHashSet.contains((Long) 2L));
+        assertFalse(longHashSet.contains(3L));
+        assertEquals(known(abs(2)), longHashSet.sizeInfo());
+    }
+
+    @Test
+    public void addExistingElementReturnsSameSet() {
+        LongHashSet longHashSet = longHashSet(1L, 2L);
+        assertSame(longHashSet, longHashSet.add(1L));
+    }
+
+    @Test
+    public void extremeElements() {
+        LongHashSet longHashSet = longHashSet(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L);
+        assertTrue(longHashSet.contains(Long.MIN_VALUE));
+        assertTrue(longHashSet.contains(Long.MAX_VALUE));
+        assertTrue(longHashSet.contains(0L));
+        assertTrue(longHashSet.contains(-1L));
+        assertEquals(known(abs(4)), longHashSet.sizeInfo());
+    }
+
+    @Test
+    public void remove() {
+        LongHashSet empty = longHashSet();
+        assertSame(empty, empty.remove(0L));
+
+        LongHashSet longHashSet = longHashSet(1L, 2L);
+        assertSame(longHashSet, longHashSet.remove(3L));
+        assertEquals(longHashSet(2L), longHashSet.remove(1L));
+        assertEquals(longHashSet(1L), longHashSet.remove((Long) 2L));
+        assertTrue(longHashSet.remove(1L).remove(2L).isEmpty());
+    }
+
+    @Test
+    public void factoryIgnoresDuplicates() {
+        assertEquals(longHashSet(1L, 2L, 3L), longHashSet(3L, 1L, 2L, 1L, 3L));
+        assertEquals(known(abs(3)), longHashSet(3L, 1L, 2L, 1L, 3L).sizeInfo());
+    }
+
+    @Test
+    public void headAndTail() {
+        assertEquals(nothing(), longHashSet().head());
+        assertEquals(longHashSet(), longHashSet().tail());
+        assertEquals(just(1L), longHashSet(1L).head());
+        assertEquals(longHashSet(), longHashSet(1L).tail());
+        assertEquals(zero(), longHashSet().sizeInfo().getSize());
+    }
+
+    @Test
+    public void iteration() {
+        assertThat(longHashSet(), isEmpty());
+        assertThat(longHashSet(1L), iterates(1L));
+        LongHashSet longHashSet = longHashSet(3L, 1L, 2L);
+        assertEquals(hashSet(1L, 2L, 3L), HashSet.<Long>hashSet().union(longHashSet));
+    }
+
+    @Test
+    public void equalsAndHashCode() {
+        LongHashSet built = longHashSet();
+        for (long i = 0; i < 1_000; i++)
+            built = built.add(i);
+
+        long[] elements = new long[1_000];
+        for (int i = 0; i < elements.length; i++)
+            elements[i] = elements.length - i - 1;
+        LongHashSet bulk = longHashSet(elements);
+
+        assertEquals(built, bulk);
+        assertEquals(bulk, built);
+        assertEquals(built.hashCode(), bulk.hashCode());
+        assertNotEquals(built, built.remove(0L));
+        assertNotEquals(built, HashSet.<Long>hashSet().union(built));
+    }
+
+    @Test
+    public void churnAgreesWithHashSet() {
+        Random        random      = new Random(42);
+        LongHashSet   longHashSet = longHashSet();
+        HashSet<Long> hashSet     = hashSet();
+        for (int i = 0; i < 20_000; i++) {
+            long element = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                longHashSet = longHashSet.remove(element);
+                hashSet = hashSet.remove(element);
+            } else {
+                longHashSet = longHashSet.add(element);
+                hashSet = hashSet.add(element);
+            }
+            assertEquals(hashSet.sizeInfo(), longHashSet.sizeInfo());
+        }
+        assertEquals(hashSet, HashSet.<Long>hashSet().union(longHashSet));
+        for (long element = 0; element < 2_000; element++)
+            assertEquals(hashSet.contains(element), longHashSet.contains(element));
+    }
+
+    @Test
+    public void unionAndIntersection() {
+        Random      random = new Random(7);
+        LongHashSet left   = longHashSet();
+        LongHashSet right  = longHashSet();
+        for (int i = 0; i < 5_000; i++) {
+            left = left.add(random.nextInt(8_000));
+            right = right.add(random.nextInt(8_000));
+        }
+
+        HashSet<Long> expectedUnion        = hashSet();
+        HashSet<Long> expectedIntersection = hashSet();
+        for (long element = 0; element < 8_000; element++) {
+            if (left.contains(element) || right.contains(element))
+                expectedUnion = expectedUnion.add(element);
+            if (left.contains(element) && right.contains(element))
+                expectedIntersection = expectedIntersection.add(element);
+        }
+
+        assertEquals(expectedUnion, HashSet.<Long>hashSet().union(left.union(right)));
+        assertEquals(expectedIntersection, HashSet.<Long>hashSet().union(left.intersection(right)));
+        assertEquals(left.union(right), right.union(left));
+        assertEquals(left.intersection(right), right.intersection(left));
+    }
+
+    @Test
+    public void unionAndIntersectionWithSmallSets() {
+        LongHashSet large = longHashSet();
+        for (long i = 0; i < 1_000; i++)
+            large = large.add(i);
+
+        assertEquals(large.add(-1L), large.union(longHashSet(-1L, 0L)));
+        assertEquals(longHashSet(0L), large.intersection(longHashSet(-1L, 0L)));
+        assertEquals(longHashSet(0L), longHashSet(-1L, 0L).intersection(large));
+        assertTrue(large.intersection(longHashSet(-1L)).isEmpty());
+    }
+
+    @Test
+    public void unionAndIntersectionReuseSubsumingSides() {
+        LongHashSet large = longHashSet();
+        for (long i = 0; i < 1_000; i++)
+            large = large.add(i);
+        LongHashSet small = large.remove(0L).remove(500L);
+
+        assertSame(large, large.union(small));
+        assertSame(large, small.union(large));
+        assertSame(small, large.intersection(small));
+        assertSame(small, small.intersection(large));
+        assertSame(large, large.union(longHashSet()));
+        assertSame(large, large.intersection(large));
+    }
+
+    @Test
+    public void unionAndIntersectionWithOtherSets() {
+        LongHashSet longHashSet = longHashSet(1L, 2L, 3L);
+        assertEquals(longHashSet(1L, 2L, 3L, 4L), longHashSet.union(hashSet(3L, 4L)));
+        assertEquals(longHashSet(3L), longHashSet.intersection(hashSet(3L, 4L)));
+    }
+
+    @Test
+    public void shrinkingBackToLeaf() {
+        LongHashSet longHashSet = longHashSet();
+        for (long i = 0; i < 1_000; i++)
+            longHashSet = longHashSet.add(i);
+        for (long i = 0; i < 999; i++)
+            longHashSet = longHashSet.remove(i);
+        assertEquals(longHashSet(999L), longHashSet);
+        assertThat(longHashSet, iterates(999L));
+    }
+
+    @Test
+    public void toStringIsUseful() {
+        assertEquals("LongHashSet[1]", longHashSet(1L).toString());
+    }
+}
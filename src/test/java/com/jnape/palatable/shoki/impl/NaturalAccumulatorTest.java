@@ -0,0 +1,55 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.shoki.api.Natural.NonZero;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.atLeastOne;
+import static com.jnape.palatable.shoki.api.Natural.one;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class NaturalAccumulatorTest {
+
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    @Test
+    public void startsAtZero() {
+        assertEquals(zero(), new NaturalAccumulator().total());
+    }
+
+    @Test
+    public void incAndAdd() {
+        assertEquals(abs(3), new NaturalAccumulator().inc().inc().inc().total());
+        assertEquals(abs(10), new NaturalAccumulator().add(3L).add(abs(7)).add(zero()).total());
+    }
+
+    @Test
+    public void switchesToBigIntegerOnOverflow() {
+        assertEquals(abs(Long.MAX_VALUE), new NaturalAccumulator().add(Long.MAX_VALUE - 1).inc().total());
+        assertEquals(abs(LONG_MAX.add(BigInteger.ONE)), new NaturalAccumulator().add(Long.MAX_VALUE).inc().total());
+        assertEquals(abs(LONG_MAX.add(LONG_MAX).add(BigInteger.valueOf(2))),
+                     new NaturalAccumulator().add(Long.MAX_VALUE).inc().add(Long.MAX_VALUE).inc().total());
+    }
+
+    @Test
+    public void addsNaturalsBeyondLongRange() {
+        NonZero large = atLeastOne(LONG_MAX.add(LONG_MAX));
+        assertEquals(abs(LONG_MAX.add(LONG_MAX).add(BigInteger.ONE)),
+                     new NaturalAccumulator().inc().add(large).total());
+        assertEquals(abs(LONG_MAX.add(LONG_MAX).add(LONG_MAX)),
+                     new NaturalAccumulator().add(large).add(abs(Long.MAX_VALUE)).total());
+    }
+
+    @Test
+    public void countPassesMultiplicitiesThrough() {
+        NaturalAccumulator count = new NaturalAccumulator();
+        assertSame(one(), count.count(one()));
+        assertNull(count.count(null));
+        assertEquals(one(), count.total());
+    }
+}
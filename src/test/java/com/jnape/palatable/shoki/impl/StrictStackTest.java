@@ -6,6 +6,9 @@ import static com.jnape.palatable.lambda.adt.Maybe.just;
 import static com.jnape.palatable.lambda.adt.Maybe.nothing;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.Replicate.replicate;
 import static com.jnape.palatable.lambda.functions.builtin.fn3.FoldLeft.foldLeft;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.Natural.zero;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
 import static com.jnape.palatable.shoki.impl.StrictStack.strictStack;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -82,6 +85,16 @@ public class StrictStackTest {
         assertEquals(strictStack(), strictStack());
     }
 
+    @Test
+    public void sizeInfo() {
+        assertEquals(known(zero()), strictStack().sizeInfo());
+        assertEquals(known(abs(3)), strictStack(1, 2, 3).sizeInfo());
+
+        StrictStack<Integer> sizedTail = foldLeft(StrictStack::cons, strictStack(), replicate(10_000, 1));
+        assertEquals(known(abs(10_000)), sizedTail.sizeInfo());
+        assertEquals(known(abs(10_002)), sizedTail.cons(2).cons(3).sizeInfo());
+    }
+
     @Test
     public void toStringImplementation() {
         assertEquals("StrictStack[]", strictStack().toString());
@@ -0,0 +1,108 @@
+package com.jnape.palatable.shoki.impl;
+
+import com.jnape.palatable.shoki.testsupport.StubbedHashingAlgorithm;
+import org.junit.Test;
+
+import static com.jnape.palatable.lambda.adt.Maybe.just;
+import static com.jnape.palatable.lambda.adt.Maybe.nothing;
+import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
+import static com.jnape.palatable.shoki.api.EquivalenceRelation.objectEquals;
+import static com.jnape.palatable.shoki.api.Natural.abs;
+import static com.jnape.palatable.shoki.api.SizeInfo.known;
+import static com.jnape.palatable.shoki.impl.HashMap.hashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static testsupport.matchers.IterableMatcher.isEmpty;
+
+public class TransientHashMapTest {
+
+    @Test
+    public void putAndGet() {
+        TransientHashMap<Integer, String> transientHashMap = HashMap.<Integer, String>hashMap().toTransient()
+                .put(0, "foo")
+                .put(1, "bar")
+                .put(0, "baz");
+
+        assertEquals(just("baz"), transientHashMap.get(0));
+        assertEquals(just("bar"), transientHashMap.get(1));
+        assertEquals(nothing(), transientHashMap.get(2));
+        assertTrue(transientHashMap.contains(1));
+        assertFalse(transientHashMap.contains(2));
+    }
+
+    @Test
+    public void remove() {
+        TransientHashMap<Integer, String> transientHashMap = HashMap.<Integer, String>hashMap().toTransient()
+                .put(0, "foo")
+                .put(1, "bar")
+                .remove(0)
+                .remove(2);
+
+        assertEquals(nothing(), transientHashMap.get(0));
+        assertEquals(just("bar"), transientHashMap.get(1));
+        assertThat(transientHashMap.remove(1).persistent(), isEmpty());
+    }
+
+    @Test
+    public void persistentContainsAllEntries() {
+        TransientHashMap<Integer, Integer> transientHashMap = HashMap.<Integer, Integer>hashMap().toTransient();
+        HashMap<Integer, Integer>          expected         = hashMap();
+        for (int i = 0; i < 10_000; i++) {
+            transientHashMap.put(i, i * 2);
+            expected = expected.put(i, i * 2);
+        }
+
+        HashMap<Integer, Integer> persistent = transientHashMap.persistent();
+        assertEquals(expected, persistent);
+        assertEquals(known(abs(10_000)), persistent.sizeInfo());
+    }
+
+    @Test
+    public void persistentIsUnaffectedBySubsequentEdits() {
+        TransientHashMap<Integer, String> transientHashMap = HashMap.<Integer, String>hashMap().toTransient()
+                .put(0, "foo")
+                .put(32, "bar");
+
+        HashMap<Integer, String> persistent = transientHashMap.persistent();
+        transientHashMap.put(0, "baz").put(64, "quux").remove(32);
+
+        assertEquals(hashMap(tuple(0, "foo"), tuple(32, "bar")), persistent);
+        assertEquals(hashMap(tuple(0, "baz"), tuple(64, "quux")), transientHashMap.persistent());
+    }
+
+    @Test
+    public void sourceHashMapIsUnaffectedByTransientEdits() {
+        HashMap<Integer, String> source = hashMap(tuple(0, "foo"), tuple(32, "bar"));
+
+        HashMap<Integer, String> edited = source.toTransient()
+                .put(0, "baz")
+                .put(64, "quux")
+                .remove(32)
+                .persistent();
+
+        assertEquals(hashMap(tuple(0, "foo"), tuple(32, "bar")), source);
+        assertEquals(hashMap(tuple(0, "baz"), tuple(64, "quux")), edited);
+    }
+
+    @Test
+    public void collisions() {
+        HashMap<String, Integer> persistent =
+                HashMap.<String, Integer>hashMap(objectEquals(),
+                                                 StubbedHashingAlgorithm.<String>stubbedHashingAlgorithm()
+                                                         .stub("foo", 0)
+                                                         .stub("bar", 0)
+                                                         .stub("baz", 0))
+                        .toTransient()
+                        .put("foo", 1)
+                        .put("bar", 2)
+                        .put("baz", 3)
+                        .remove("bar")
+                        .persistent();
+
+        assertEquals(just(1), persistent.get("foo"));
+        assertEquals(nothing(), persistent.get("bar"));
+        assertEquals(just(3), persistent.get("baz"));
+    }
+}
@@ -8,11 +8,16 @@ import com.jnape.palatable.shoki.impl.StrictStack;
 import org.junit.Test;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static com.jnape.palatable.lambda.adt.hlist.HList.tuple;
 import static com.jnape.palatable.lambda.functions.builtin.fn2.ToMap.toMap;
@@ -22,6 +27,10 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ShokiTest {
 
@@ -77,4 +86,131 @@ public class ShokiTest {
                              .inc("baz", atLeastOne(3)),
                      Shoki.hashMultiSet(javaMap));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void asJavaMap() {
+        Map<String, Integer> view = Shoki.asJavaMap(HashMap.hashMap(tuple("foo", 1), tuple("bar", 2)));
+        assertEquals(2, view.size());
+        assertEquals((Integer) 1, view.get("foo"));
+        assertNull(view.get("baz"));
+        assertTrue(view.containsKey("bar"));
+        assertFalse(view.containsKey("baz"));
+        assertEquals(new java.util.HashMap<String, Integer>() {{
+            put("foo", 1);
+            put("bar", 2);
+        }}, view);
+        assertTrue(Shoki.asJavaMap(HashMap.hashMap()).isEmpty());
+        assertThrows(() -> view.put("baz", 3));
+        assertThrows(() -> view.remove("foo"));
+        assertThrows(view::clear);
+        assertThrows(() -> view.keySet().removeIf(k -> true));
+    }
+
+    @Test
+    public void asJavaSet() {
+        Set<Integer> view = Shoki.asJavaSet(HashSet.hashSet(1, 2, 3));
+        assertEquals(3, view.size());
+        assertTrue(view.contains(1));
+        assertFalse(view.contains(4));
+        assertEquals(new LinkedHashSet<>(asList(1, 2, 3)), view);
+        assertTrue(Shoki.asJavaSet(HashSet.hashSet()).isEmpty());
+        assertThrows(() -> view.add(4));
+        assertThrows(() -> view.remove(1));
+        assertThrows(view::clear);
+        assertThrows(() -> view.iterator().remove());
+    }
+
+    @Test
+    public void asJavaList() {
+        List<Integer> stackView = Shoki.asJavaList(StrictStack.<Integer>strictStack().cons(1).cons(2).cons(3));
+        assertEquals(asList(3, 2, 1), stackView);
+        assertEquals((Integer) 3, stackView.get(0));
+        assertEquals((Integer) 1, stackView.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> stackView.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> stackView.get(-1));
+
+        List<Integer> queueView = Shoki.asJavaList(StrictQueue.strictQueue(1, 2, 3));
+        assertEquals(asList(1, 2, 3), queueView);
+        assertEquals(3, queueView.size());
+        assertEquals((Integer) 2, queueView.get(1));
+        assertTrue(Shoki.asJavaList(StrictQueue.strictQueue()).isEmpty());
+        assertThrows(() -> queueView.add(4));
+        assertThrows(() -> queueView.set(0, 4));
+        assertThrows(() -> queueView.remove(0));
+        assertThrows(queueView::clear);
+    }
+
+    @Test
+    public void asJavaListTraversesInLinearTime() {
+        StrictStack<Integer> stack    = StrictStack.strictStack();
+        List<Integer>        expected = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            stack = stack.cons(i % 1_000);
+            expected.add(i % 1_000);
+        }
+        Collections.reverse(expected);
+
+        List<Integer> view = Shoki.asJavaList(stack);
+        assertEquals(expected, view);
+        assertEquals(view, expected);
+        assertEquals(expected.hashCode(), view.hashCode());
+        assertEquals(expected.indexOf(0), view.indexOf(0));
+        assertEquals(expected.lastIndexOf(999), view.lastIndexOf(999));
+        assertEquals(expected.subList(50_000, 50_010), view.subList(50_000, 50_010));
+
+        ListIterator<Integer> iterator = view.listIterator(2);
+        assertEquals(2, iterator.nextIndex());
+        assertEquals(expected.get(2), iterator.next());
+        assertEquals(expected.get(2), iterator.previous());
+        assertEquals(expected.get(1), iterator.previous());
+        assertEquals(expected.get(0), iterator.previous());
+        assertFalse(iterator.hasPrevious());
+        assertEquals(expected.get(0), iterator.next());
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        assertThrows(IndexOutOfBoundsException.class, () -> view.listIterator(100_001));
+    }
+
+    @Test
+    public void asJavaDeque() {
+        Deque<Integer> view = Shoki.asJavaDeque(StrictQueue.<Integer>strictQueue().snoc(2).snoc(3).cons(1));
+        assertEquals(3, view.size());
+        assertEquals(asList(1, 2, 3), new ArrayList<>(view));
+        assertEquals((Integer) 1, view.peekFirst());
+        assertEquals((Integer) 1, view.getFirst());
+        assertEquals((Integer) 3, view.peekLast());
+        assertEquals((Integer) 3, view.getLast());
+        assertTrue(view.contains(2));
+        ArrayList<Integer> descending = new ArrayList<>();
+        view.descendingIterator().forEachRemaining(descending::add);
+        assertEquals(asList(3, 2, 1), descending);
+
+        Deque<Integer> empty = Shoki.asJavaDeque(StrictQueue.strictQueue());
+        assertTrue(empty.isEmpty());
+        assertNull(empty.peekFirst());
+        assertNull(empty.peekLast());
+        assertThrows(NoSuchElementException.class, empty::getFirst);
+        assertThrows(NoSuchElementException.class, empty::getLast);
+
+        assertThrows(() -> view.addFirst(0));
+        assertThrows(() -> view.offerLast(4));
+        assertThrows(view::pollFirst);
+        assertThrows(view::removeLast);
+        assertThrows(view::pop);
+        assertThrows(() -> view.push(0));
+        assertThrows(view::clear);
+    }
+
+    private static void assertThrows(Runnable runnable) {
+        assertThrows(UnsupportedOperationException.class, runnable);
+    }
+
+    private static void assertThrows(Class<? extends RuntimeException> expected, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            assertEquals(expected, e.getClass());
+            return;
+        }
+        fail("expected " + expected.getSimpleName());
+    }
+}